@@ -0,0 +1,106 @@
+package com.neb.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Guards the recruiter and operator endpoints: resume download and search,
+ * application listings, import and export, and the metrics.
+ * --
+ * They are off unless 'admin.api.enabled' is set, and then answer only requests
+ * carrying 'Authorization: Bearer &lt;admin.api.token&gt;'. While off they answer 404,
+ * so a public deployment does not reveal them. CORS preflight requests carry no
+ * credentials and are let through to the CORS handling.
+ * --
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdminApiFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminApiFilter.class);
+
+    private static final List<String> ADMIN_PATHS = List.of("/api/resumes", "/api/applications", "/api/metrics");
+
+    private static final String BEARER = "Bearer ";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${admin.api.enabled:false}")
+    private boolean enabled;
+
+    @Value("${admin.api.token:}")
+    private String token;
+
+    private byte[] expected;
+
+    @PostConstruct
+    void init() {
+        expected = token.getBytes(StandardCharsets.UTF_8);
+        if (enabled && token.length() < 16) {
+            // Refuse every request rather than accept a guessable token
+            log.error("admin.api.enabled is set but admin.api.token is shorter than 16 characters; admin endpoints refuse all requests");
+            expected = null;
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if ("OPTIONS".equals(request.getMethod()) && request.getHeader(HttpHeaders.ORIGIN) != null) return true;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String prefix : ADMIN_PATHS) {
+            if (path.equals(prefix) || path.startsWith(prefix + "/")) return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            reject(response, HttpStatus.NOT_FOUND, "Not found.");
+            return;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (expected == null || authorization == null || !authorization.startsWith(BEARER)
+                || !MessageDigest.isEqual(expected, authorization.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8))) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            reject(response, HttpStatus.UNAUTHORIZED, "Authentication required.");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "error");
+        body.put("message", message);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,78 @@
+package com.neb.config;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neb.service.ApplyRateLimiter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Throttles the apply endpoints before any work is done for a request.
+ * --
+ * The client IP is checked before the multipart body is read, so a throttled
+ * client costs neither the upload nor a temp file. Both apply and verify attempts
+ * count. Throttled requests get 429 with Retry-After. The per-email limit is
+ * applied by the services once a request has shown it is a real attempt (see
+ * {@link ApplyRateLimiter}).
+ * --
+ * The IP is the servlet remote address; behind a proxy set
+ * 'server.forward-headers-strategy' so that it is the client's.
+ * --
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ApplyRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> APPLY_PATHS = Set.of(
+            "/api/careers/apply", "/api/careers/applydeveloper", "/api/careers/applyclouddeveloper");
+
+    @Autowired
+    private ApplyRateLimiter applyRateLimiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!applyRateLimiter.isEnabled() || !"POST".equals(request.getMethod())) return true;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !APPLY_PATHS.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long retryAfter = applyRateLimiter.acquireIp(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            reject(response, retryAfter, "Too many applications from this address. Please try again later.");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "error");
+        body.put("message", message);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,64 @@
+package com.neb.config;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.neb.util.InMemoryResumeStorage;
+import com.neb.util.LocalResumeStorage;
+import com.neb.util.ResumeStorage;
+import com.neb.util.S3ResumeStorage;
+
+/**
+ * Selects the resume storage backend.
+ * --
+ * 'resume.storage.backend' is one of:
+ *  local  - folders 'resume.storage.location' and 'resume.storage.temp-location',
+ *           relative paths resolved against the working directory (default)
+ *  memory - heap only, for tests and local development
+ *  s3     - an S3-compatible bucket configured by 'resume.storage.s3.*'
+ * --
+ */
+@Configuration
+public class ResumeStorageConfig {
+
+    @Value("${resume.storage.backend:local}")
+    private String backend;
+
+    @Value("${resume.storage.location:uploads}")
+    private String location;
+
+    @Value("${resume.storage.temp-location:uploads_temp}")
+    private String tempLocation;
+
+    @Value("${resume.storage.s3.endpoint:}")
+    private String s3Endpoint;
+
+    @Value("${resume.storage.s3.bucket:}")
+    private String s3Bucket;
+
+    @Value("${resume.storage.s3.region:us-east-1}")
+    private String s3Region;
+
+    @Value("${resume.storage.s3.access-key:}")
+    private String s3AccessKey;
+
+    @Value("${resume.storage.s3.secret-key:}")
+    private String s3SecretKey;
+
+    @Bean
+    public ResumeStorage resumeStorage() {
+        return switch (backend) {
+            case "local" -> new LocalResumeStorage(workDir(location), workDir(tempLocation));
+            case "memory" -> new InMemoryResumeStorage();
+            case "s3" -> new S3ResumeStorage(s3Endpoint, s3Bucket, s3Region, s3AccessKey, s3SecretKey);
+            default -> throw new IllegalStateException("Unknown resume.storage.backend: " + backend);
+        };
+    }
+
+    private static Path workDir(String path) {
+        return Path.of(System.getProperty("user.dir")).resolve(path);
+    }
+}
@@ -0,0 +1,30 @@
+package com.neb.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Scheduler for the background jobs (outbox relay, sweepers).
+ * --
+ * The jobs are kept on platform threads even when spring.threads.virtual.enabled
+ * is on: they spend their time inside synchronized JavaMail and JDBC driver code,
+ * which would pin the carrier threads that serve the request-handling virtual threads.
+ * --
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Value("${scheduling.pool-size:2}")
+    private int poolSize;
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        return scheduler;
+    }
+}
@@ -0,0 +1,114 @@
+package com.neb.controller;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.neb.service.ApplicationExportService;
+import com.neb.service.ApplicationImportService;
+import com.neb.service.ApplicationListingService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Listing endpoints for the submitted applications.
+ * Each returns 'items' newest first and a 'nextCursor' to pass back for the
+ * following page (null on the last page).
+ * GET /export/{type} streams every matching application as CSV or NDJSON, optionally gzipped.
+ * POST /import/{type} streams a CSV or NDJSON body of historical applications into the table.
+ * Admin only, see {@link com.neb.config.AdminApiFilter}.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/applications")
+public class ApplicationController {
+
+    @Autowired
+    private ApplicationListingService applicationListingService;
+
+    @Autowired
+    private ApplicationImportService applicationImportService;
+
+    @Autowired
+    private ApplicationExportService applicationExportService;
+
+    @GetMapping("/career")
+    public ResponseEntity<?> listCareer(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "domain", required = false) String domain) {
+        return applicationListingService.listCareerApplications(cursor, limit, role, domain);
+    }
+
+    @GetMapping("/developer")
+    public ResponseEntity<?> listDeveloper(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "domain", required = false) String domain,
+            @RequestParam(value = "devdomain", required = false) String devdomain) {
+        return applicationListingService.listDeveloperApplications(cursor, limit, role, domain, devdomain);
+    }
+
+    @GetMapping("/cloud-developer")
+    public ResponseEntity<?> listCloudDeveloper(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "domain", required = false) String domain) {
+        return applicationListingService.listCloudDeveloperApplications(cursor, limit, role, domain);
+    }
+
+    /**
+     * Exports the applications of a type; 'from' (inclusive) and 'to' (exclusive)
+     * are ISO dates or instants and bound the application time.
+     */
+    @GetMapping("/export/{type}")
+    public void exportApplications(@PathVariable String type,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "domain", required = false) String domain,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        applicationExportService.export(type, format, role, domain, from, to, gzip, response);
+    }
+
+    /**
+     * Imports the request body; 'format' is 'csv' or 'ndjson' and defaults from the
+     * Content-Type (text/csv is CSV, anything else NDJSON).
+     */
+    @PostMapping("/import/{type}")
+    public ResponseEntity<?> importApplications(@PathVariable String type,
+            @RequestParam(value = "format", required = false) String format,
+            HttpServletRequest request) throws IOException {
+        if (format == null) {
+            String contentType = request.getContentType();
+            format = contentType != null && contentType.toLowerCase().contains("csv") ? "csv" : "ndjson";
+        }
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.putAll(applicationImportService.importRecords(type, format, request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        response.put("status", "success");
+        return ResponseEntity.ok(response);
+    }
+}
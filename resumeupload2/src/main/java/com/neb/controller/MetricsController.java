@@ -0,0 +1,34 @@
+package com.neb.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.neb.util.MetricsSource;
+
+/**
+ * Exposes the counters published by all {@link MetricsSource} components
+ * (mail dispatch queue, pending stores, ...) as a single JSON document.
+ * Admin only, see {@link com.neb.config.AdminApiFilter}.
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private List<MetricsSource> sources;
+
+    @GetMapping
+    public Map<String, Object> metrics() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        for (MetricsSource source : sources) {
+            response.put(source.metricsName(), source.metrics());
+        }
+        return response;
+    }
+}
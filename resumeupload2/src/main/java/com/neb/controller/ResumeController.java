@@ -0,0 +1,60 @@
+package com.neb.controller;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.neb.service.ResumeDownloadService;
+import com.neb.service.ResumeIndexService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Download and search endpoints for stored resumes.
+ * 'type' is one of 'career', 'developer' or 'cloud-developer'; 'id' is the application id.
+ * Admin only, see {@link com.neb.config.AdminApiFilter}.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/api/resumes")
+public class ResumeController {
+
+    @Autowired
+    private ResumeDownloadService resumeDownloadService;
+
+    @Autowired
+    private ResumeIndexService resumeIndexService;
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        if (query == null || query.isBlank()) {
+            response.put("status", "error");
+            response.put("message", "Query parameter 'q' is required.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        List<Map<String, Object>> results = resumeIndexService.search(query, Math.max(1, limit));
+        response.put("status", "success");
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{type}/{id}")
+    public void download(@PathVariable String type, @PathVariable Long id,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        resumeDownloadService.send(type, id, request, response);
+    }
+}
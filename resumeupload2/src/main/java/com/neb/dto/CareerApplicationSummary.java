@@ -0,0 +1,9 @@
+package com.neb.dto;
+
+import java.time.Instant;
+
+/**
+ * Listing row of a career application, read as a projection without the entity.
+ */
+public record CareerApplicationSummary(Long id, String firstName, String lastName, String email,
+        String role, String domain, Instant appliedAt) {}
@@ -0,0 +1,9 @@
+package com.neb.dto;
+
+import java.time.Instant;
+
+/**
+ * Listing row of a cloud developer application, read as a projection without the entity.
+ */
+public record CloudDeveloperSummary(Long id, String firstName, String lastName, String email,
+        String role, String domain, Integer experienceYears, Instant createdAt) {}
@@ -0,0 +1,9 @@
+package com.neb.dto;
+
+import java.time.Instant;
+
+/**
+ * Listing row of a developer application, read as a projection without the entity.
+ */
+public record DeveloperApplicationSummary(Long id, String firstName, String lastName, String email,
+        String role, String domain, String devdomain, Instant createdAt) {}
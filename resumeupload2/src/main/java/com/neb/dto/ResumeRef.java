@@ -0,0 +1,6 @@
+package com.neb.dto;
+
+/**
+ * Id and stored resume name of an application, read without loading the entity.
+ */
+public record ResumeRef(Long id, String fileName) {}
@@ -6,26 +6,36 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 /**
  * Entity representing a record in the 'career_applications' table.
  * Stores applicant information submitted via a career application form into the DataBase.
+ * The unique email constraint is what rejects a second application for the same email.
  */
 @Entity
-@Table(name = "career_applications")
+@Table(name = "career_applications",
+        uniqueConstraints = @UniqueConstraint(name = "uk_career_applications_email", columnNames = "email"),
+        indexes = {
+            @Index(name = "idx_career_applications_applied", columnList = "appliedAt, id"),
+            @Index(name = "idx_career_applications_role", columnList = "role, appliedAt"),
+            @Index(name = "idx_career_applications_domain", columnList = "domain, appliedAt")
+        })
 @Data
 @NoArgsConstructor
 public class CareerApplication {
-    /** Primary key for the application (auto-generated). */
+    /** Primary key for the application, drawn from a pooled sequence so inserts can be batched. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "career_applications_seq")
+    @SequenceGenerator(name = "career_applications_seq", sequenceName = "career_applications_seq", allocationSize = 50)
     private Long id;
     private String role;
     private String firstName;
     private String lastName;
-    @Column(unique = true)
     private String email;
     private String phone;
     private String qualification;
@@ -33,6 +43,9 @@ public class CareerApplication {
     private int passoutYear;
     private String domain;
     private String resumeFileName;
+    /** SHA-256 of the resume; resumeFileName points at the shared blob with this hash. */
+    @Column(length = 64)
+    private String resumeSha256;
     private Instant appliedAt;
     private String gender;
    
@@ -2,27 +2,38 @@ package com.neb.entity;
 
 import java.time.Instant;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 /**
  * Entity representing a cloud developer application record.
- * Maps to the 'cloud_developers1' table in the database.
+ * Maps to the 'cloud_developers1' table in the database; one application per email.
  */
 @Entity
-@Table(name = "cloud_developers1")
+@Table(name = "cloud_developers1",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cloud_developers1_email", columnNames = "email"),
+        indexes = {
+            @Index(name = "idx_cloud_developers1_created", columnList = "createdAt, id"),
+            @Index(name = "idx_cloud_developers1_role", columnList = "role, createdAt"),
+            @Index(name = "idx_cloud_developers1_domain", columnList = "domain, createdAt")
+        })
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class CloudDeveloper {
-	/** Primary key: unique ID for each application. */
+	/** Primary key: unique ID from a pooled sequence, so inserts can be batched. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cloud_developers1_seq")
+    @SequenceGenerator(name = "cloud_developers1_seq", sequenceName = "cloud_developers1_seq", allocationSize = 50)
     private Long id;
 
     private String role;
@@ -38,6 +49,8 @@ public class CloudDeveloper {
     private Double expectedSalary;
     private Double durationAtCompany;
     private String resumePath; // Store resume file path or URL
+    @Column(length = 64)
+    private String resumeSha256; // Content hash of the stored resume
     private String linkedinProfile;
     private String githubProfile;
     private Instant createdAt;
@@ -8,16 +8,25 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 /**
  * Entity class representing a developer's job application.
- * Maps to a database table (name will default to 'developer_application' if not specified).
+ * Maps to the 'developer_application' table; one application per email.
  */
 @Entity
+@Table(name = "developer_application",
+        uniqueConstraints = @UniqueConstraint(name = "uk_developer_application_email", columnNames = "email"),
+        indexes = {
+            @Index(name = "idx_developer_application_created", columnList = "createdAt, id"),
+            @Index(name = "idx_developer_application_role", columnList = "role, createdAt"),
+            @Index(name = "idx_developer_application_domain", columnList = "domain, createdAt"),
+            @Index(name = "idx_developer_application_devdomain", columnList = "devdomain, createdAt")
+        })
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class DeveloperApplication {
-	/** Primary key: auto-generated unique ID for each application. */
+	/** Primary key: unique ID from a pooled sequence, so inserts can be batched. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "developer_application_seq")
+    @SequenceGenerator(name = "developer_application_seq", sequenceName = "developer_application_seq", allocationSize = 50)
     private Long id;
 
     private String role;
@@ -34,6 +43,8 @@ public class DeveloperApplication {
     private double salary;
     private double duration;
     private String resumePath;
+    @Column(length = 64)
+    private String resumeSha256;
     private Instant createdAt;
     private String gender;
 }
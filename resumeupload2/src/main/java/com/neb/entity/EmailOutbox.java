@@ -0,0 +1,45 @@
+package com.neb.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Entity representing a mail waiting in the 'email_outbox' table.
+ * Rows are written in the same transaction as the application they belong to
+ * and removed by the outbox relay once the mail has been delivered.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = @Index(name = "idx_email_outbox_due", columnList = "status, nextAttemptAt"))
+@Data
+@NoArgsConstructor
+public class EmailOutbox {
+
+    /** Delivery state of an outbox row */
+    public enum Status { PENDING, FAILED }
+
+    /** Primary key for the outbox row (auto-generated). */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String recipient;
+    private String subject;
+    @Column(length = 8000)
+    private String body;
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    private int attempts;
+    private Instant nextAttemptAt;
+    private Instant createdAt;
+    @Column(length = 1000)
+    private String lastError;
+}
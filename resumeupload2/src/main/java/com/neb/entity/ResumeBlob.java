@@ -0,0 +1,31 @@
+package com.neb.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Entity representing a stored resume file in the 'resume_blob' table.
+ * Resumes are stored once per content hash; the reference count tells how many
+ * applications point at the file.
+ */
+@Entity
+@Table(name = "resume_blob")
+@Data
+@NoArgsConstructor
+public class ResumeBlob {
+
+    /** SHA-256 of the file content, hex encoded. */
+    @Id
+    @Column(length = 64)
+    private String sha256;
+    private long size;
+    private int refCount;
+    private Instant createdAt;
+    /** Whether the content was moved into a pack segment, or there was no loose copy left to pack. */
+    private boolean packed;
+}
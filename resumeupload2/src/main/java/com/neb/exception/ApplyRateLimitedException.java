@@ -0,0 +1,19 @@
+package com.neb.exception;
+/**
+ * Thrown when an applicant email has used up its apply or verify attempts.
+ * Answered with 429 and a Retry-After header.
+ */
+public class ApplyRateLimitedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public ApplyRateLimitedException(long retryAfterSeconds) {
+        super("Too many attempts for this email");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
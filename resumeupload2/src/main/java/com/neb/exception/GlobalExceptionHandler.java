@@ -1,11 +1,14 @@
 package com.neb.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.neb.dto.CareerApplicationResponseDto;
+
+import jakarta.servlet.http.HttpServletResponse;
 /**
  * Global exception handler for the application.
  * 
@@ -35,11 +38,37 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(resp);
     }
     
+    /**
+     * Handles StageOverloadedException when a submission stage is saturated;
+     * the client is told when to retry instead of waiting in line.
+     */
+    @ExceptionHandler(StageOverloadedException.class)
+    public ResponseEntity<CareerApplicationResponseDto> handleStageOverloaded(StageOverloadedException ex) {
+        CareerApplicationResponseDto resp = new CareerApplicationResponseDto(null, "error", "Server is busy, please try again later.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(resp);
+    }
+
+    /**
+     * Handles ApplyRateLimitedException when an applicant email has used up its attempts.
+     */
+    @ExceptionHandler(ApplyRateLimitedException.class)
+    public ResponseEntity<CareerApplicationResponseDto> handleApplyRateLimited(ApplyRateLimitedException ex) {
+        CareerApplicationResponseDto resp = new CareerApplicationResponseDto(null, "error", "Too many attempts for this email. Please try again later.");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(resp);
+    }
+
     /**
      * Handles all other exceptions that are not explicitly caught.
+     * A response that is already committed (e.g. a streaming export) is left to the
+     * container, which aborts the connection instead of appending an error body.
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<CareerApplicationResponseDto> handleGeneral(Exception ex) {
+    public ResponseEntity<CareerApplicationResponseDto> handleGeneral(Exception ex, HttpServletResponse response) throws Exception {
+        if (response.isCommitted()) throw ex;
         CareerApplicationResponseDto resp = new CareerApplicationResponseDto(null, "error", "Internal server error");
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(resp);
     }
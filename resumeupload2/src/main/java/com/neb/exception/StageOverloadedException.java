@@ -0,0 +1,25 @@
+package com.neb.exception;
+/**
+ * Thrown when a submission stage has no free worker and its queue is full, or a
+ * queued request waited too long. Answered with 503 and a Retry-After header.
+ */
+public class StageOverloadedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String stage;
+    private final long retryAfterSeconds;
+
+    public StageOverloadedException(String stage, long retryAfterSeconds) {
+        super("Submission stage '" + stage + "' is overloaded");
+        this.stage = stage;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,92 @@
+package com.neb.repo;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Repository;
+
+import com.neb.dto.CareerApplicationSummary;
+import com.neb.dto.CloudDeveloperSummary;
+import com.neb.dto.DeveloperApplicationSummary;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Keyset pages of the application tables, newest first: the rows strictly after
+ * the cursor (timestamp, id) in (timestamp desc, id desc) order.
+ * --
+ * The seek predicate carries the redundant bound 'timestamp <= :at' so the
+ * (timestamp, id) index, or a (filter, timestamp) index, is range-scanned from the
+ * cursor instead of read from the top. Only the filters that are given end up in
+ * the query; an optional filter written as ':x is null or a.x = :x' would keep the
+ * planner from using the filter index.
+ * --
+ */
+@Repository
+public class ApplicationPageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Null filters match everything */
+    public List<CareerApplicationSummary> findCareerPageBefore(Instant at, long id, String role, String domain, int limit) {
+        return findPageBefore(CareerApplicationSummary.class,
+                "select new com.neb.dto.CareerApplicationSummary(a.id, a.firstName, a.lastName, a.email, a.role, a.domain, a.appliedAt)"
+                        + " from CareerApplication a",
+                "appliedAt", at, id, filters("role", role, "domain", domain), limit);
+    }
+
+    /** Null filters match everything */
+    public List<DeveloperApplicationSummary> findDeveloperPageBefore(Instant at, long id, String role, String domain,
+            String devdomain, int limit) {
+        return findPageBefore(DeveloperApplicationSummary.class,
+                "select new com.neb.dto.DeveloperApplicationSummary(a.id, a.firstName, a.lastName, a.email, a.role, a.domain, a.devdomain, a.createdAt)"
+                        + " from DeveloperApplication a",
+                "createdAt", at, id, filters("role", role, "domain", domain, "devdomain", devdomain), limit);
+    }
+
+    /** Null filters match everything */
+    public List<CloudDeveloperSummary> findCloudDeveloperPageBefore(Instant at, long id, String role, String domain, int limit) {
+        return findPageBefore(CloudDeveloperSummary.class,
+                "select new com.neb.dto.CloudDeveloperSummary(a.id, a.firstName, a.lastName, a.email, a.role, a.domain, a.experienceYears, a.createdAt)"
+                        + " from CloudDeveloper a",
+                "createdAt", at, id, filters("role", role, "domain", domain), limit);
+    }
+
+    private <T> List<T> findPageBefore(Class<T> type, String selectFrom, String timestamp, Instant at, long id,
+            Map<String, String> filters, int limit) {
+        String jpql = pageQuery(selectFrom, timestamp, filters.keySet());
+        TypedQuery<T> query = entityManager.createQuery(jpql, type)
+                .setParameter("at", at)
+                .setParameter("id", id)
+                .setMaxResults(limit);
+        filters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    /**
+     * JPQL of one keyset page for the given (present) filter columns.
+     */
+    static String pageQuery(String selectFrom, String timestamp, Iterable<String> filterColumns) {
+        StringBuilder jpql = new StringBuilder(selectFrom)
+                .append(" where a.").append(timestamp).append(" <= :at")
+                .append(" and (a.").append(timestamp).append(" < :at or (a.").append(timestamp).append(" = :at and a.id < :id))");
+        for (String column : filterColumns) {
+            jpql.append(" and a.").append(column).append(" = :").append(column);
+        }
+        return jpql.append(" order by a.").append(timestamp).append(" desc, a.id desc").toString();
+    }
+
+    // Column/value pairs, keeping only the non-null values in their given order
+    private static Map<String, String> filters(String... columnsAndValues) {
+        Map<String, String> filters = new LinkedHashMap<>();
+        for (int i = 0; i < columnsAndValues.length; i += 2) {
+            if (columnsAndValues[i + 1] != null) filters.put(columnsAndValues[i], columnsAndValues[i + 1]);
+        }
+        return filters;
+    }
+}
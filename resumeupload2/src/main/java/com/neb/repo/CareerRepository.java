@@ -1,7 +1,14 @@
 package com.neb.repo;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.neb.dto.ResumeRef;
 import com.neb.entity.CareerApplication;
 
 /**
@@ -13,7 +20,17 @@ public interface CareerRepository extends JpaRepository<CareerApplication, Long>
 {
 	/** Checks if a career application exists for the given email */
 	boolean existsByEmail(String email);
+	/** All application emails; must be consumed inside a transaction */
+	@Query("select a.email from CareerApplication a where a.email is not null")
+	Stream<String> streamEmails();
 	/** Finds a career application by email */
 	Optional<CareerApplication> findByEmail(String email);
+	/** Points applications that reference a legacy resume file at its blob; returns the number updated */
+	@Modifying
+	@Query("update CareerApplication a set a.resumeFileName = :blob, a.resumeSha256 = :sha256 where a.resumeFileName = :file")
+	int relinkResume(@Param("file") String file, @Param("blob") String blob, @Param("sha256") String sha256);
+	/** Resumes of the applications with an id above the given one, in id order */
+	@Query("select new com.neb.dto.ResumeRef(a.id, a.resumeFileName) from CareerApplication a where a.id > :after and a.resumeFileName is not null order by a.id")
+	List<ResumeRef> findResumesAfter(@Param("after") long after, Pageable page);
 }
 
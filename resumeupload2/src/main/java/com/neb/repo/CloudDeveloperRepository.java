@@ -1,8 +1,16 @@
 package com.neb.repo;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.neb.dto.ResumeRef;
 import com.neb.entity.CloudDeveloper;
 /**
  * Repository for CloudDeveloper entity.
@@ -14,5 +22,18 @@ public interface CloudDeveloperRepository extends JpaRepository<CloudDeveloper,
     
     /** Check if a Cloud Developer already exists by email */
     boolean existsByEmail(String email);
+
+    /** All application emails; must be consumed inside a transaction */
+    @Query("select a.email from CloudDeveloper a where a.email is not null")
+    Stream<String> streamEmails();
+
+    /** Points applications that reference a legacy resume file at its blob; returns the number updated */
+    @Modifying
+    @Query("update CloudDeveloper a set a.resumePath = :blob, a.resumeSha256 = :sha256 where a.resumePath = :file")
+    int relinkResume(@Param("file") String file, @Param("blob") String blob, @Param("sha256") String sha256);
+
+    /** Resumes of the applications with an id above the given one, in id order */
+    @Query("select new com.neb.dto.ResumeRef(a.id, a.resumePath) from CloudDeveloper a where a.id > :after and a.resumePath is not null order by a.id")
+    List<ResumeRef> findResumesAfter(@Param("after") long after, Pageable page);
     
 }
@@ -2,8 +2,16 @@ package com.neb.repo;
 
 
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.neb.dto.ResumeRef;
 import com.neb.entity.DeveloperApplication;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 /**
  * Repository for DeveloperApplication entity.
  * Provides basic database operations and custom methods.
@@ -12,4 +20,18 @@ import org.springframework.data.jpa.repository.JpaRepository;
 public interface DeveloperRepository extends JpaRepository<DeveloperApplication, Long> {
     /**Check if a developer application exists by email */
     boolean existsByEmail(String email);
+
+    /** All application emails; must be consumed inside a transaction */
+    @Query("select a.email from DeveloperApplication a where a.email is not null")
+    Stream<String> streamEmails();
+
+    /** Points applications that reference a legacy resume file at its blob; returns the number updated */
+    @Modifying
+    @Query("update DeveloperApplication a set a.resumePath = :blob, a.resumeSha256 = :sha256 where a.resumePath = :file")
+    int relinkResume(@Param("file") String file, @Param("blob") String blob, @Param("sha256") String sha256);
+
+    /** Resumes of the applications with an id above the given one, in id order */
+    @Query("select new com.neb.dto.ResumeRef(a.id, a.resumePath) from DeveloperApplication a where a.id > :after and a.resumePath is not null order by a.id")
+    List<ResumeRef> findResumesAfter(@Param("after") long after, Pageable page);
+
 }
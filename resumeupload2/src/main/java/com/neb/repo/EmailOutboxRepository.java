@@ -0,0 +1,32 @@
+package com.neb.repo;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import com.neb.entity.EmailOutbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repository for EmailOutbox entity.
+ * It extended from the JPA Repository.
+ */
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long>
+{
+	/**
+	 * Locks the next batch of due outbox rows. Rows locked by another relay are
+	 * skipped (lock timeout -2 = SKIP LOCKED) so several nodes can drain in parallel.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	List<EmailOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(EmailOutbox.Status status, Instant now, Pageable page);
+
+	/** Counts outbox rows in the given state */
+	long countByStatus(EmailOutbox.Status status);
+}
@@ -0,0 +1,33 @@
+package com.neb.repo;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.neb.entity.ResumeBlob;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * Repository for ResumeBlob entity.
+ * It extended from the JPA Repository.
+ */
+public interface ResumeBlobRepository extends JpaRepository<ResumeBlob, String>
+{
+	/** Finds a blob and locks its row until the transaction ends, on every node */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select b from ResumeBlob b where b.sha256 = :sha256")
+	Optional<ResumeBlob> findForUpdate(@Param("sha256") String sha256);
+
+	/** Finds blobs without references whose deletion has not run yet */
+	List<ResumeBlob> findByRefCountLessThanEqual(int refCount, Pageable page);
+
+	/** Finds loose blobs created before the given time, i.e. candidates for packing */
+	List<ResumeBlob> findByPackedFalseAndCreatedAtBefore(Instant before, Pageable page);
+}
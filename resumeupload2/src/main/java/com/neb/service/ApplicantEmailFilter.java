@@ -0,0 +1,158 @@
+package com.neb.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.neb.repo.CareerRepository;
+import com.neb.repo.CloudDeveloperRepository;
+import com.neb.repo.DeveloperRepository;
+import com.neb.util.BloomFilter;
+import com.neb.util.MetricsSource;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bloom filters over the emails that already applied, one per application type.
+ * --
+ * Verify asks {@link #alreadyApplied} before it stores the resume and inserts the
+ * application. For the common case of a new email the filter answers "certainly
+ * not" without touching the database; only probable hits run the real
+ * existsByEmail query. The unique email constraint still rejects the rare
+ * duplicate that slips through, e.g. while the filter is warming up.
+ * --
+ * The filters are filled from the tables at startup and updated on every saved
+ * application. Until warm-up has finished every lookup goes to the database.
+ * Emails are never removed, so deleted applications only add false positives.
+ * --
+ */
+@Service
+@Order(0) // warm before a command-line import runs
+public class ApplicantEmailFilter implements ApplicationRunner, MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicantEmailFilter.class);
+
+    @Autowired
+    private CareerRepository careerRepository;
+
+    @Autowired
+    private DeveloperRepository developerRepository;
+
+    @Autowired
+    private CloudDeveloperRepository cloudDeveloperRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${applicants.email-filter.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${applicants.email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private final Map<String, TypeFilter> filters = new LinkedHashMap<>();
+
+    /** Filter and counters of one application type */
+    private static final class TypeFilter {
+        final BloomFilter bloom;
+        volatile boolean warm;
+        final AtomicLong checks = new AtomicLong();
+        final AtomicLong negatives = new AtomicLong();
+        final AtomicLong databaseChecks = new AtomicLong();
+        final AtomicLong falsePositives = new AtomicLong();
+
+        TypeFilter(BloomFilter bloom) {
+            this.bloom = bloom;
+        }
+    }
+
+    @PostConstruct
+    void createFilters() {
+        for (String type : new String[] {"career", "developer", "cloud-developer"}) {
+            filters.put(type, new TypeFilter(new BloomFilter(expectedInsertions, falsePositiveRate)));
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warm("career", careerRepository::streamEmails);
+        warm("developer", developerRepository::streamEmails);
+        warm("cloud-developer", cloudDeveloperRepository::streamEmails);
+    }
+
+    private void warm(String type, Supplier<Stream<String>> emails) {
+        TypeFilter filter = filters.get(type);
+        long started = System.nanoTime();
+        long before = filter.bloom.insertions();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> stream = emails.get()) {
+                stream.forEach(filter.bloom::add);
+            }
+        });
+        filter.warm = true;
+        log.info("Email filter for {} warmed with {} emails in {} ms", type, filter.bloom.insertions() - before, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Whether an application of this type already exists for the email.
+     *
+     * @param existsQuery the database check, run only when the filter cannot rule the email out
+     */
+    public boolean alreadyApplied(String type, String email, Predicate<String> existsQuery) {
+        TypeFilter filter = filters.get(type);
+        filter.checks.incrementAndGet();
+        if (filter.warm && !filter.bloom.mightContain(email)) {
+            filter.negatives.incrementAndGet();
+            return false;
+        }
+        filter.databaseChecks.incrementAndGet();
+        boolean exists = existsQuery.test(email);
+        if (!exists && filter.warm) filter.falsePositives.incrementAndGet();
+        return exists;
+    }
+
+    /** Records the email of a saved application */
+    public void add(String type, String email) {
+        if (email != null) filters.get(type).bloom.add(email);
+    }
+
+    @Override
+    public String metricsName() {
+        return "emailFilter";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        filters.forEach((type, filter) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("warm", filter.warm);
+            m.put("bits", filter.bloom.bitSize());
+            m.put("hashFunctions", filter.bloom.hashFunctions());
+            m.put("insertions", filter.bloom.insertions());
+            m.put("checks", filter.checks.get());
+            m.put("negatives", filter.negatives.get());
+            m.put("databaseChecks", filter.databaseChecks.get());
+            m.put("falsePositives", filter.falsePositives.get());
+            // Share of new emails that still went to the database
+            long newEmails = filter.negatives.get() + filter.falsePositives.get();
+            m.put("observedFalsePositiveRate", newEmails == 0 ? 0.0 : (double) filter.falsePositives.get() / newEmails);
+            m.put("expectedFalsePositiveRate", filter.bloom.expectedFalsePositiveRate());
+            metrics.put(type, m);
+        });
+        return metrics;
+    }
+}
@@ -0,0 +1,339 @@
+package com.neb.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neb.util.MetricsSource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Streams every application of a type, optionally filtered, as CSV or NDJSON.
+ * --
+ * Rows are read with plain JDBC through a forward-only cursor with
+ * 'applications.export.fetch-size' rows per round trip, and each row is written to
+ * the response as soon as it is read. No entities are built and nothing is
+ * collected, so heap use does not depend on the number of rows exported. The
+ * query runs in a read-only transaction, which some drivers (e.g. PostgreSQL)
+ * require before they honour the fetch size instead of reading the whole result.
+ * --
+ * Field names are those of the entities, so an export can be fed back to
+ * {@link ApplicationImportService}. With gzip the body is a .gz file. If the export
+ * fails midway the connection is aborted, so a client never mistakes a cut-off
+ * export for a complete one.
+ * --
+ */
+@Service
+public class ApplicationExportService implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationExportService.class);
+
+    /** Table of one application type and the exported fields, in output order */
+    private record ExportTable(String name, String timestampField, List<String> fields) {}
+
+    private static final Map<String, ExportTable> TABLES = Map.of(
+            "career", new ExportTable("career_applications", "appliedAt", List.of(
+                    "id", "role", "firstName", "lastName", "email", "phone", "qualification", "passoutYear",
+                    "domain", "resumeFileName", "resumeSha256", "appliedAt", "gender")),
+            "developer", new ExportTable("developer_application", "createdAt", List.of(
+                    "id", "role", "firstName", "lastName", "email", "phone", "qualification", "passoutYear",
+                    "internship", "domain", "companyName", "devdomain", "salary", "duration", "resumePath",
+                    "resumeSha256", "createdAt", "gender")),
+            "cloud-developer", new ExportTable("cloud_developers1", "createdAt", List.of(
+                    "id", "role", "firstName", "lastName", "email", "phone", "qualification", "experienceYears",
+                    "domain", "companyName", "currentSalary", "expectedSalary", "durationAtCompany", "resumePath",
+                    "resumeSha256", "linkedinProfile", "githubProfile", "createdAt", "gender")));
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${applications.export.fetch-size:500}")
+    private int fetchSize;
+
+    private JdbcTemplate cursorTemplate;
+    private TransactionTemplate readOnly;
+
+    private final AtomicLong exports = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rowsExported = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Writes the matching applications to the response, oldest first.
+     *
+     * @param format 'csv' or 'ndjson'
+     * @param from   inclusive lower bound of the application time: an ISO instant or date (UTC), or null
+     * @param to     exclusive upper bound, same form as 'from', or null
+     */
+    public void export(String type, String format, String role, String domain, String from, String to,
+            boolean gzip, HttpServletResponse response) throws IOException {
+        ExportTable table = TABLES.get(type);
+        if (table == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Unknown application type");
+            return;
+        }
+        if (!"csv".equals(format) && !"ndjson".equals(format)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Format must be 'csv' or 'ndjson'");
+            return;
+        }
+        Instant fromInstant;
+        Instant toInstant;
+        try {
+            fromInstant = parseBound(from);
+            toInstant = parseBound(to);
+        } catch (DateTimeParseException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "'from' and 'to' must be ISO dates or instants");
+            return;
+        }
+
+        // Filters use the (role|domain, timestamp) and (timestamp, id) indexes
+        String timestampColumn = column(table.timestampField());
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(String.join(", ", table.fields().stream().map(ApplicationExportService::column).toList()));
+        sql.append(" FROM ").append(table.name()).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (role != null && !role.isBlank()) {
+            sql.append(" AND role = ?");
+            args.add(role);
+        }
+        if (domain != null && !domain.isBlank()) {
+            sql.append(" AND domain = ?");
+            args.add(domain);
+        }
+        if (fromInstant != null) {
+            sql.append(" AND ").append(timestampColumn).append(" >= ?");
+            args.add(Timestamp.from(fromInstant));
+        }
+        if (toInstant != null) {
+            sql.append(" AND ").append(timestampColumn).append(" < ?");
+            args.add(Timestamp.from(toInstant));
+        }
+        sql.append(" ORDER BY ").append(timestampColumn).append(", id");
+
+        String fileName = type + "-applications-" + LocalDate.now(ZoneOffset.UTC) + ("csv".equals(format) ? ".csv" : ".ndjson");
+        if (gzip) {
+            response.setContentType("application/gzip");
+            fileName += ".gz";
+        } else {
+            response.setContentType("csv".equals(format) ? "text/csv; charset=UTF-8" : "application/x-ndjson; charset=UTF-8");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+
+        long started = System.nanoTime();
+        OutputStream out = response.getOutputStream();
+        if (gzip) out = new GZIPOutputStream(out, 64 * 1024);
+        long[] rows = new long[1];
+        // Closed only on success: closing ends the body (and the gzip trailer) cleanly
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            RowWriter rowWriter = "csv".equals(format) ? new CsvRowWriter(writer, table) : new JsonRowWriter(writer, table);
+            rowWriter.start();
+            readOnly.executeWithoutResult(status -> cursorTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, args.toArray()));
+            rowWriter.finish();
+            writer.close();
+        } catch (IOException | RuntimeException e) {
+            // The response is committed, so the failure propagates and the container aborts
+            // the connection; a cleanly ended body would pass for a complete export
+            failures.incrementAndGet();
+            log.warn("Export of {} applications stopped after {} rows: {}", type, rows[0], e.toString());
+            throw e;
+        } finally {
+            rowsExported.addAndGet(rows[0]);
+        }
+        exports.incrementAndGet();
+        log.info("Exported {} {} applications as {}{} in {} ms", rows[0], type, format, gzip ? ".gz" : "",
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static Instant parseBound(String value) {
+        if (value == null || value.isBlank()) return null;
+        if (value.length() == 10) return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant();
+        return Instant.parse(value);
+    }
+
+    // Column name under Spring's default physical naming strategy: firstName -> first_name
+    private static String column(String field) {
+        return field.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+    }
+
+    private static Object value(ResultSet rs, int index, String field, ExportTable table) throws SQLException {
+        if (field.equals(table.timestampField())) {
+            Timestamp timestamp = rs.getTimestamp(index);
+            return timestamp == null ? null : timestamp.toInstant().toString();
+        }
+        return rs.getObject(index);
+    }
+
+    /** Writes the rows of one export in one format */
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(ResultSet rs) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final ExportTable table;
+
+        CsvRowWriter(Writer writer, ExportTable table) {
+            this.writer = writer;
+            this.table = table;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(String.join(",", table.fields()));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws IOException {
+            try {
+                List<String> fields = table.fields();
+                for (int i = 0; i < fields.size(); i++) {
+                    if (i > 0) writer.write(',');
+                    Object value = value(rs, i + 1, fields.get(i), table);
+                    if (value instanceof String text) writeField(neutralised(text));
+                    else if (value != null) writeField(value.toString());
+                }
+                writer.write("\r\n");
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+
+        // A text cell starting like a formula is prefixed with ' so spreadsheets show it
+        // as text instead of evaluating it (CSV injection through applicant input)
+        private static String neutralised(String value) {
+            if (value.isEmpty()) return value;
+            char first = value.charAt(0);
+            if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+                return "'" + value;
+            }
+            return value;
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    private final class JsonRowWriter implements RowWriter {
+        private final ExportTable table;
+        private final JsonGenerator json;
+
+        JsonRowWriter(Writer writer, ExportTable table) throws IOException {
+            this.table = table;
+            this.json = objectMapper.getFactory().createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void write(ResultSet rs) throws IOException {
+            try {
+                List<String> fields = table.fields();
+                json.writeStartObject();
+                for (int i = 0; i < fields.size(); i++) {
+                    json.writeObjectField(fields.get(i), value(rs, i + 1, fields.get(i), table));
+                }
+                json.writeEndObject();
+                // Through the generator's buffer: a flush per row would make each row a network write
+                json.writeRaw('\n');
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.close();
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "applicationExport";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("exports", exports.get());
+        metrics.put("failures", failures.get());
+        metrics.put("rows", rowsExported.get());
+        metrics.put("fetchSize", fetchSize);
+        return metrics;
+    }
+}
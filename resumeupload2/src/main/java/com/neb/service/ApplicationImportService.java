@@ -0,0 +1,354 @@
+package com.neb.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.neb.entity.CareerApplication;
+import com.neb.entity.CloudDeveloper;
+import com.neb.entity.DeveloperApplication;
+import com.neb.repo.CareerRepository;
+import com.neb.repo.CloudDeveloperRepository;
+import com.neb.repo.DeveloperRepository;
+import com.neb.util.CsvReader;
+import com.neb.util.MetricsSource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Bulk import of historical applications from CSV or NDJSON.
+ * --
+ * Records are streamed from the input and persisted 'applications.import.batch-size'
+ * at a time, one transaction per batch, so memory stays bounded whatever the file
+ * size. Ids come from the pooled entity sequences and Hibernate groups the inserts
+ * into JDBC batches ('hibernate.jdbc.batch_size').
+ * --
+ * CSV files need a header row naming the entity fields (e.g. firstName, email,
+ * appliedAt); NDJSON has one JSON object per line with the same names. Ids and
+ * resume references in the input are ignored: imported applications have no stored
+ * resume, and a path taken from the file must never reach the resume storage. Records whose email already applied are skipped as duplicates,
+ * using the {@link ApplicantEmailFilter} so new emails cost no query; records that
+ * cannot be parsed or have no email are rejected.
+ * --
+ * Runs over HTTP (POST /api/applications/import/{type}) or at startup from the
+ * command line: '--import.type=career --import.file=ats.csv [--import.format=csv]'.
+ * --
+ */
+@Service
+public class ApplicationImportService implements ApplicationRunner, MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationImportService.class);
+
+    // Rejected records logged per import, the rest are only counted
+    private static final int MAX_LOGGED_REJECTS = 20;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicantEmailFilter applicantEmailFilter;
+
+    @Autowired
+    private CareerRepository careerRepository;
+
+    @Autowired
+    private DeveloperRepository developerRepository;
+
+    @Autowired
+    private CloudDeveloperRepository cloudDeveloperRepository;
+
+    @Value("${applications.import.batch-size:1000}")
+    private int batchSize;
+
+    private final Map<String, Target<?>> targets = new HashMap<>();
+
+    private final AtomicLong imports = new AtomicLong();
+    private final AtomicLong importedRows = new AtomicLong();
+    private volatile Map<String, Object> lastImport;
+
+    /** How records of one application type are read, checked and prepared */
+    private record Target<T>(Class<T> entityClass, Function<T, String> email, Predicate<String> exists,
+            Consumer<T> prepare) {}
+
+    @PostConstruct
+    void registerTargets() {
+        targets.put("career", new Target<>(CareerApplication.class, CareerApplication::getEmail,
+                careerRepository::existsByEmail, a -> {
+                    a.setId(null);
+                    a.setResumeFileName(null);
+                    a.setResumeSha256(null);
+                    if (a.getAppliedAt() == null) a.setAppliedAt(Instant.now());
+                }));
+        targets.put("developer", new Target<>(DeveloperApplication.class, DeveloperApplication::getEmail,
+                developerRepository::existsByEmail, a -> {
+                    a.setId(null);
+                    a.setResumePath(null);
+                    a.setResumeSha256(null);
+                    if (a.getCreatedAt() == null) a.setCreatedAt(Instant.now());
+                }));
+        targets.put("cloud-developer", new Target<>(CloudDeveloper.class, CloudDeveloper::getEmail,
+                cloudDeveloperRepository::existsByEmail, a -> {
+                    a.setId(null);
+                    a.setResumePath(null);
+                    a.setResumeSha256(null);
+                    if (a.getCreatedAt() == null) a.setCreatedAt(Instant.now());
+                }));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption("import.file")) return;
+        String type = firstOption(args, "import.type");
+        Path file = Path.of(firstOption(args, "import.file"));
+        String format = args.containsOption("import.format") ? firstOption(args, "import.format")
+                : file.getFileName().toString().toLowerCase().endsWith(".csv") ? "csv" : "ndjson";
+        log.info("Importing {} applications from {}", type, file);
+        try (InputStream in = Files.newInputStream(file)) {
+            importRecords(type, format, in);
+        }
+    }
+
+    private static String firstOption(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        if (values == null || values.isEmpty()) throw new IllegalArgumentException("Missing option --" + name);
+        return values.get(0);
+    }
+
+    /**
+     * Imports the records of the stream into the table of the given type.
+     *
+     * @param format 'csv' or 'ndjson'
+     * @return counts and throughput of the import
+     * @throws IllegalArgumentException if the type or format is unknown or the CSV has no header
+     */
+    public Map<String, Object> importRecords(String type, String format, InputStream in) throws IOException {
+        Target<?> target = targets.get(type);
+        if (target == null) throw new IllegalArgumentException("Unknown application type: " + type);
+        if (!"csv".equals(format) && !"ndjson".equals(format)) throw new IllegalArgumentException("Unknown format: " + format);
+        return run(type, format, target, new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private <T> Map<String, Object> run(String type, String format, Target<T> target, InputStreamReader reader)
+            throws IOException {
+        Progress progress = new Progress();
+        long started = System.nanoTime();
+        ObjectReader json = objectMapper.readerFor(target.entityClass());
+        List<T> batch = new ArrayList<>(batchSize);
+        Set<String> batchEmails = new HashSet<>();
+
+        try (RecordSource<T> source = "csv".equals(format) ? csvSource(target, reader) : ndjsonSource(json, reader)) {
+            while (true) {
+                T record;
+                try {
+                    record = source.next();
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    progress.rows++;
+                    progress.reject(type, source.line(), e.getMessage());
+                    continue;
+                }
+                if (record == null) break;
+                progress.rows++;
+                String email = target.email().apply(record);
+                if (email == null || email.isBlank()) {
+                    progress.reject(type, source.line(), "no email");
+                    continue;
+                }
+                // Earlier batches are committed and in the filter; this one is only in batchEmails
+                if (!batchEmails.add(email) || applicantEmailFilter.alreadyApplied(type, email, target.exists())) {
+                    progress.duplicates++;
+                    continue;
+                }
+                target.prepare().accept(record);
+                batch.add(record);
+                if (batch.size() == batchSize) {
+                    persist(type, target, batch, progress);
+                    batch.clear();
+                    batchEmails.clear();
+                }
+            }
+            if (!batch.isEmpty()) persist(type, target, batch, progress);
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("type", type);
+        result.put("format", format);
+        result.put("rows", progress.rows);
+        result.put("imported", progress.imported);
+        result.put("duplicates", progress.duplicates);
+        result.put("rejected", progress.rejected);
+        result.put("seconds", Math.round(seconds * 100) / 100.0);
+        result.put("rowsPerSecond", seconds == 0 ? 0 : Math.round(progress.rows / seconds));
+        imports.incrementAndGet();
+        importedRows.addAndGet(progress.imported);
+        lastImport = result;
+        log.info("Imported {} of {} {} rows in {} s ({} rows/s), {} duplicates, {} rejected", progress.imported,
+                progress.rows, type, result.get("seconds"), result.get("rowsPerSecond"), progress.duplicates,
+                progress.rejected);
+        return result;
+    }
+
+    // One transaction for the whole batch; if it hits the unique email constraint (an
+    // application came in through the form meanwhile) the rows are redone one by one
+    private <T> void persist(String type, Target<T> target, List<T> batch, Progress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(entityManager::persist));
+            progress.imported += batch.size();
+        } catch (DataIntegrityViolationException e) {
+            for (T record : batch) {
+                target.prepare().accept(record);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> entityManager.persist(record));
+                    progress.imported++;
+                } catch (DataIntegrityViolationException duplicate) {
+                    progress.duplicates++;
+                }
+            }
+        }
+        for (T record : batch) applicantEmailFilter.add(type, target.email().apply(record));
+    }
+
+    /** Counters of one import; used by the importing thread only */
+    private static final class Progress {
+        long rows;
+        long imported;
+        long duplicates;
+        long rejected;
+
+        void reject(String type, long line, String reason) {
+            rejected++;
+            if (rejected <= MAX_LOGGED_REJECTS) log.warn("Rejected {} record on line {}: {}", type, line, reason);
+        }
+    }
+
+    /** Parsed records of the input, one at a time */
+    private interface RecordSource<T> extends AutoCloseable {
+        /** The next record, or null at the end of the input */
+        T next() throws IOException;
+
+        /** Line of the record last returned */
+        long line();
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static <T> RecordSource<T> ndjsonSource(ObjectReader json, InputStreamReader reader) {
+        BufferedReader lines = new BufferedReader(reader, 64 * 1024);
+        return new RecordSource<>() {
+            private long line;
+
+            @Override
+            public T next() throws IOException {
+                String text;
+                do {
+                    text = lines.readLine();
+                    if (text == null) return null;
+                    line++;
+                } while (text.isBlank());
+                return json.readValue(text);
+            }
+
+            @Override
+            public long line() {
+                return line;
+            }
+
+            @Override
+            public void close() throws IOException {
+                lines.close();
+            }
+        };
+    }
+
+    // Maps each row onto the header names and lets Jackson convert the values, so
+    // CSV and NDJSON share the same field names and type coercion
+    private <T> RecordSource<T> csvSource(Target<T> target, InputStreamReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            csv.close();
+            throw new IllegalArgumentException("CSV input has no header row");
+        }
+        List<String> names = header.stream().map(String::trim).toList();
+        return new RecordSource<>() {
+            @Override
+            public T next() throws IOException {
+                List<String> fields;
+                do {
+                    fields = csv.next();
+                    if (fields == null) return null;
+                } while (fields.size() == 1 && fields.get(0).isEmpty());
+                if (fields.size() != names.size()) {
+                    throw new IllegalArgumentException("expected " + names.size() + " fields but found " + fields.size());
+                }
+                Map<String, String> values = new HashMap<>();
+                for (int i = 0; i < fields.size(); i++) {
+                    if (!fields.get(i).isEmpty()) values.put(names.get(i), fields.get(i));
+                }
+                return objectMapper.convertValue(values, target.entityClass());
+            }
+
+            @Override
+            public long line() {
+                return csv.line();
+            }
+
+            @Override
+            public void close() throws IOException {
+                csv.close();
+            }
+        };
+    }
+
+    @Override
+    public String metricsName() {
+        return "applicationImport";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("imports", imports.get());
+        metrics.put("importedRows", importedRows.get());
+        metrics.put("last", lastImport);
+        return metrics;
+    }
+}
@@ -0,0 +1,115 @@
+package com.neb.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.neb.dto.CareerApplicationSummary;
+import com.neb.dto.CloudDeveloperSummary;
+import com.neb.dto.DeveloperApplicationSummary;
+import com.neb.repo.ApplicationPageRepository;
+
+/**
+ * Paged listings of the submitted applications, newest first.
+ * --
+ * Pages are addressed by keyset rather than offset: the opaque 'cursor' returned
+ * with a page encodes the (timestamp, id) of its last row, and the next page is
+ * read with a seek predicate on that pair (see {@link ApplicationPageRepository}). Reading page 1000 therefore costs the
+ * same as reading page 1, and rows inserted meanwhile neither shift nor repeat
+ * entries. Rows are read as summary projections, never as full entities.
+ * --
+ */
+@Service
+public class ApplicationListingService {
+
+    // Cursor of the first page: before every stored row
+    private static final Cursor START = new Cursor(Instant.parse("9999-12-31T23:59:59Z"), Long.MAX_VALUE);
+
+    @Autowired
+    private ApplicationPageRepository applicationPageRepository;
+
+    @Value("${applications.list.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${applications.list.max-page-size:200}")
+    private int maxPageSize;
+
+    /** Position after the last row of a page */
+    private record Cursor(Instant at, long id) {}
+
+    public ResponseEntity<?> listCareerApplications(String cursor, Integer limit, String role, String domain) {
+        return page(cursor, limit,
+                (c, rows) -> applicationPageRepository.findCareerPageBefore(c.at(), c.id(), blankToNull(role), blankToNull(domain), rows),
+                a -> new Cursor(a.appliedAt(), a.id()));
+    }
+
+    public ResponseEntity<?> listDeveloperApplications(String cursor, Integer limit, String role, String domain, String devdomain) {
+        return page(cursor, limit,
+                (c, rows) -> applicationPageRepository.findDeveloperPageBefore(c.at(), c.id(), blankToNull(role),
+                        blankToNull(domain), blankToNull(devdomain), rows),
+                a -> new Cursor(a.createdAt(), a.id()));
+    }
+
+    public ResponseEntity<?> listCloudDeveloperApplications(String cursor, Integer limit, String role, String domain) {
+        return page(cursor, limit,
+                (c, rows) -> applicationPageRepository.findCloudDeveloperPageBefore(c.at(), c.id(), blankToNull(role),
+                        blankToNull(domain), rows),
+                a -> new Cursor(a.createdAt(), a.id()));
+    }
+
+    // Reads one row more than requested to tell whether another page follows
+    private <T> ResponseEntity<?> page(String cursor, Integer limit, BiFunction<Cursor, Integer, List<T>> query,
+            Function<T, Cursor> positionOf) {
+        Map<String, Object> response = new HashMap<>();
+        Cursor from;
+        try {
+            from = cursor == null || cursor.isBlank() ? START : decode(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", "Invalid cursor.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        int size = Math.min(Math.max(1, limit == null ? defaultPageSize : limit), maxPageSize);
+
+        List<T> rows = query.apply(from, size + 1);
+        boolean more = rows.size() > size;
+        List<T> items = more ? rows.subList(0, size) : rows;
+
+        response.put("status", "success");
+        response.put("items", items);
+        response.put("nextCursor", more ? encode(positionOf.apply(items.get(size - 1))) : null);
+        return ResponseEntity.ok(response);
+    }
+
+    private static String encode(Cursor cursor) {
+        String raw = cursor.at() + "|" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf('|');
+        if (separator < 0) throw new IllegalArgumentException("Malformed cursor");
+        try {
+            return new Cursor(Instant.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,198 @@
+package com.neb.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.neb.exception.ApplyRateLimitedException;
+import com.neb.util.MetricsSource;
+import com.neb.util.TokenBucket;
+
+/**
+ * Admission control for the apply endpoints: one token bucket per client IP and
+ * one per applicant email.
+ * --
+ * Every apply and verify request takes an IP token (see ApplyRateLimitFilter).
+ * Anyone can name any email, so the email bucket is only charged by what would
+ * cost its owner something: an apply that passed validation, which sends a mail,
+ * and a verify with a wrong code, which is a guess. A verify is refused while the
+ * email has no token left, so codes cannot be guessed from many addresses, but a
+ * correct code does not use one up.
+ * --
+ * Buckets are lock-free (see {@link TokenBucket}) and live in concurrent maps, so
+ * checking a request takes no lock. A bucket that has refilled completely is the
+ * same as no bucket and is evicted every 'rate-limit.apply.eviction-interval-millis'.
+ * Each map holds at most 'rate-limit.apply.max-keys' buckets; when a flood of new
+ * keys fills it, new IPs are throttled and new emails are left to the IP limit,
+ * so memory stays bounded either way.
+ * --
+ */
+@Service
+public class ApplyRateLimiter implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplyRateLimiter.class);
+
+    @Value("${rate-limit.apply.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.apply.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${rate-limit.apply.ip.refill-per-minute:10}")
+    private double ipRefillPerMinute;
+
+    @Value("${rate-limit.apply.email.capacity:5}")
+    private int emailCapacity;
+
+    @Value("${rate-limit.apply.email.refill-per-minute:2}")
+    private double emailRefillPerMinute;
+
+    @Value("${rate-limit.apply.max-keys:100000}")
+    private int maxKeys;
+
+    private final ConcurrentMap<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TokenBucket> emailBuckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong throttledIp = new AtomicLong();
+    private final AtomicLong throttledEmail = new AtomicLong();
+    private final AtomicLong overflow = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a token for the client IP.
+     *
+     * @return 0 if the request may proceed, otherwise the seconds until it may be retried
+     */
+    public long acquireIp(String ip) {
+        TokenBucket bucket = bucket(ipBuckets, ip, ipCapacity, ipRefillPerMinute);
+        // No room for another client: treat it as throttled rather than grow without bound
+        long waitNanos = bucket == null ? ipIntervalNanos() : bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            throttledIp.incrementAndGet();
+            return retryAfterSeconds(waitNanos);
+        }
+        allowed.incrementAndGet();
+        return 0;
+    }
+
+    /**
+     * Refuses the request if the applicant email has no token left, without taking one.
+     * Emails are compared case-insensitively; blank ones are left to the services' validation.
+     *
+     * @throws ApplyRateLimitedException if the email is throttled
+     */
+    public void checkEmail(String email) {
+        if (!enabled || email == null || email.isBlank()) return;
+        TokenBucket bucket = emailBuckets.get(emailKey(email));
+        long waitNanos = bucket == null ? 0 : bucket.waitNanos(System.nanoTime());
+        if (waitNanos > 0) throttled(waitNanos);
+    }
+
+    /**
+     * Takes a token for the applicant email.
+     *
+     * @throws ApplyRateLimitedException if the email has no token left
+     */
+    public void chargeEmail(String email) {
+        chargeEmail(email, () -> {});
+    }
+
+    /**
+     * Takes a token for the applicant email, running the cleanup before throwing if
+     * it has none left, e.g. to drop what the request already stored.
+     *
+     * @throws ApplyRateLimitedException if the email has no token left
+     */
+    public void chargeEmail(String email, Runnable onThrottled) {
+        if (!enabled || email == null || email.isBlank()) return;
+        TokenBucket bucket = bucket(emailBuckets, emailKey(email), emailCapacity, emailRefillPerMinute);
+        long waitNanos = bucket == null ? 0 : bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            onThrottled.run();
+            throttled(waitNanos);
+        }
+    }
+
+    private void throttled(long waitNanos) {
+        throttledEmail.incrementAndGet();
+        throw new ApplyRateLimitedException(retryAfterSeconds(waitNanos));
+    }
+
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // The existing bucket, a new one, or null if the map is full
+    private TokenBucket bucket(ConcurrentMap<String, TokenBucket> buckets, String key, int capacity,
+            double refillPerMinute) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) return bucket;
+        if (buckets.size() >= maxKeys) {
+            overflow.incrementAndGet();
+            return null;
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerMinute, System.nanoTime()));
+    }
+
+    private long ipIntervalNanos() {
+        return (long) (60_000_000_000L / ipRefillPerMinute);
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    /** Drops the buckets that have refilled completely */
+    @Scheduled(fixedDelayString = "${rate-limit.apply.eviction-interval-millis:60000}")
+    void evictIdle() {
+        long now = System.nanoTime();
+        int removed = evict(ipBuckets, now) + evict(emailBuckets, now);
+        if (removed > 0) {
+            evicted.addAndGet(removed);
+            log.debug("Evicted {} idle rate limit buckets", removed);
+        }
+    }
+
+    // remove(key, bucket) leaves a bucket alone that was replaced meanwhile; one that
+    // took a token just after the idle check loses that token, which errs towards admitting
+    private static int evict(ConcurrentMap<String, TokenBucket> buckets, long now) {
+        int removed = 0;
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            if (entry.getValue().isIdle(now) && buckets.remove(entry.getKey(), entry.getValue())) removed++;
+        }
+        return removed;
+    }
+
+    @Override
+    public String metricsName() {
+        return "applyRateLimit";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("allowed", allowed.get());
+        metrics.put("throttledIp", throttledIp.get());
+        metrics.put("throttledEmail", throttledEmail.get());
+        metrics.put("trackedIps", ipBuckets.size());
+        metrics.put("trackedEmails", emailBuckets.size());
+        metrics.put("evicted", evicted.get());
+        metrics.put("overflow", overflow.get());
+        return metrics;
+    }
+}
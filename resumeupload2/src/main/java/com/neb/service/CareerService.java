@@ -2,16 +2,25 @@ package com.neb.service;
 
 import com.neb.dto.CareerApplicationRequest;
 import com.neb.entity.CareerApplication;
+import com.neb.exception.InvalidFileFormatException;
 import com.neb.repo.CareerRepository;
+import com.neb.util.PendingStore;
+import com.neb.util.PendingStoreRegistry;
+import com.neb.util.ResumeIngestor;
+import com.neb.util.StageLimiter;
+import com.neb.util.UniqueConstraints;
+
+import jakarta.annotation.PostConstruct;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
@@ -35,8 +44,46 @@ public class CareerService {
     @Autowired
     private VerificationService verificationService;
 
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PendingStoreRegistry pendingStoreRegistry;
+
+    @Autowired
+    private ResumeIngestor resumeIngestor;
+
+    @Autowired
+    private ResumeBlobService resumeBlobService;
+
+    @Autowired
+    private ResumeIndexService resumeIndexService;
+
+    @Autowired
+    private ApplicantEmailFilter applicantEmailFilter;
+
+    @Autowired
+    private SubmissionStages submissionStages;
+
+    @Autowired
+    private ApplyRateLimiter applyRateLimiter;
+
+    @Autowired
+    private MailTemplateService mailTemplateService;
+
+    // Pending applications expire together with their verification code
+    private static final long PENDING_EXPIRY_MILLIS = 10 * 60 * 1000;
+
     // Stores applications pending email verification, key by email
-    private final Map<String, CareerApplication> pendingApplications = new HashMap<>();
+    private PendingStore<CareerApplication> pendingApplications;
+
+    @PostConstruct
+    void init() {
+        pendingApplications = pendingStoreRegistry.create("careerApplications", PENDING_EXPIRY_MILLIS, CareerApplication.class);
+    }
     
     /**
      * Handles submission of career application requests.
@@ -52,32 +99,23 @@ public class CareerService {
 
         try {
         	// Validate that a resume file is provided
-            if (resumeFile == null || resumeFile.isEmpty()) {
-                response.put("status", "error");
-                response.put("message", "Resume file is required.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            try (StageLimiter.Permit validate = submissionStages.enter("validate")) {
+                if (resumeFile == null || resumeFile.isEmpty()) {
+                    response.put("status", "error");
+                    response.put("message", "Resume file is required.");
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+                }
             }
 
-            // Validate resume file type: only PDFs allowed
-            String originalFileName = resumeFile.getOriginalFilename();
-            if (originalFileName == null || !originalFileName.toLowerCase().endsWith(".pdf")) {
-                response.put("status", "error");
-                response.put("message", "Only PDF resumes are allowed.");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-            }
+            // A throttled email is refused before its resume is read and stored
+            applyRateLimiter.checkEmail(req.getEmail());
 
-            // Create temporary directory if not exists
-            String tempDirPath = System.getProperty("user.dir") + "/uploads_temp";
-            File tempDir = new File(tempDirPath);
-            if (!tempDir.exists()) tempDir.mkdirs();
-           
-            
-            // Sanitize and generate a unique filename for saving
-            String safeFileName = UUID.randomUUID() + "_" + originalFileName.replaceAll("[^a-zA-Z0-9\\.\\-_]", "_");
-            File tempFile = new File(tempDir, safeFileName);
-            
-            // Save the uploaded file temporarily
-            resumeFile.transferTo(tempFile);
+            // Validate (PDF only, size limit) and save the uploaded file temporarily in one pass
+            ResumeIngestor.IngestedResume resume = submissionStages.call("store", () -> resumeIngestor.ingest(resumeFile));
+            String safeFileName = resume.fileName();
+
+            // Only an apply that passed validation counts against the email
+            applyRateLimiter.chargeEmail(req.getEmail(), () -> resumeIngestor.deleteTemp(safeFileName));
 
             // Save the uploaded file temporarily
             CareerApplication app = new CareerApplication();
@@ -89,26 +127,46 @@ public class CareerService {
             app.setQualification(req.getQualification());
             app.setPassoutYear(req.getPassoutYear());
             app.setResumeFileName(safeFileName);
+            app.setResumeSha256(resume.sha256());
             app.setDomain(req.getDomain());
             app.setGender(req.getGender());
       
             // Store in pendingApplications for later verification
-            pendingApplications.put(req.getEmail(), app);
+            String verificationCode;
+            try (StageLimiter.Permit register = submissionStages.enter("register", () -> resumeIngestor.deleteTemp(safeFileName))) {
+                if (!pendingApplications.offer(req.getEmail(), app)) {
+                    resumeIngestor.deleteTemp(safeFileName);
+                    response.put("status", "error");
+                    response.put("message", "Too many pending applications, please try again later.");
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+                }
 
-            // Generate verification code and send via email
-            String verificationCode = verificationService.generateCode(req.getEmail());
+                // Generate verification code and send via email
+                verificationCode = verificationService.generateCode(req.getEmail());
+            }
 
             // Send verification mail
-            String subject = "Verify your email for career application";
-            String text = "Hello " + req.getFirstName() + ",\n\n" +
-                    "Please verify your email by entering this code:\n\n" +
-                    verificationCode + "\n\nThis code is valid for 10 minutes.\n\nHR Team";
-            emailService.sendApplicationMail(req.getEmail(), subject, text);
+            MailTemplateService.Mail mail = mailTemplateService.renderRequired("career", "verification", null, null,
+                    "firstName", req.getFirstName(), "code", verificationCode);
+            boolean queued;
+            try (StageLimiter.Permit notify = submissionStages.enter("notify", () -> discardPending(req.getEmail(), safeFileName))) {
+                queued = emailService.sendApplicationMail(req.getEmail(), mail.subject(), mail.body());
+            }
+            if (!queued) {
+                discardPending(req.getEmail(), safeFileName);
+                response.put("status", "error");
+                response.put("message", "Could not send the verification email, please try again later.");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            }
 
             response.put("status", "pending");
             response.put("message", "Verification code sent to your email.");
             return ResponseEntity.ok(response);
 
+        } catch (InvalidFileFormatException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (IOException e) {
             response.put("status", "error");
             response.put("message", "File upload failed: " + e.getMessage());
@@ -124,125 +182,123 @@ public class CareerService {
 
     public ResponseEntity<?> verifyApplication(String email, String code) {
         Map<String, Object> response = new HashMap<>();
+
+        // An email whose wrong codes used up its attempts is refused before the code is checked
+        applyRateLimiter.checkEmail(email);
             
         // Check if there is a pending application for the email
-        if (!pendingApplications.containsKey(email)) {
+        CareerApplication app = pendingApplications.get(email);
+        if (app == null) {
             response.put("status", "error");
             response.put("message", "No pending application found for this email.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
        
         // Verify the provided code
-        if (!verificationService.verifyCode(email, code)) {
+        if (!submissionStages.call("validate", () -> verificationService.verifyCode(email, code))) {
+            applyRateLimiter.chargeEmail(email);
             response.put("status", "error");
             response.put("message", "Invalid or expired verification code.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-        CareerApplication app = pendingApplications.get(email);
-        
-        // Prevent duplicate applications for the same email
-        if (careerRepository.existsByEmail(app.getEmail())) {
+        // Reject a known email before storing anything; the filter spares the query for new emails
+        if (applicantEmailFilter.alreadyApplied("career", app.getEmail(), careerRepository::existsByEmail)) {
             response.put("status", "error");
             response.put("message", "This email has already been used to submit an application.");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
-         // Move resume file from temporary to final uploads directory
-        File tempFile = new File(System.getProperty("user.dir") + "/uploads_temp/" + app.getResumeFileName());
-        File finalDir = new File(System.getProperty("user.dir") + "/uploads");
-        if (!finalDir.exists()) finalDir.mkdirs();
-        tempFile.renameTo(new File(finalDir, app.getResumeFileName()));
-
-        // Set application submission time and save to database
-        app.setAppliedAt(Instant.now());
-        CareerApplication savedApp = careerRepository.save(app);
-        
-        // Cleanup
-        pendingApplications.remove(email);
-        verificationService.removeCode(email);
+        // Admitted to 'register' and 'store' before anything is claimed, so an overload
+        // leaves the pending application and its code intact for a retry
+        StageLimiter.Permit register = submissionStages.enter("register");
+        CareerApplication claimed = null;
+        String tempFileName = null;
+        String blobName = null;
+        CareerApplication saved;
+        try {
+            try (StageLimiter.Permit store = submissionStages.enter("store")) {
+                // Take the application out of the store; a concurrent verification for
+                // the same email finds nothing and stops here. The code stays until done
+                claimed = pendingApplications.remove(email);
+                if (claimed == null) {
+                    response.put("status", "error");
+                    response.put("message", "No pending application found for this email.");
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+                }
 
-        // Send confirmation + assessment emails
-        String subject = "NEBULYTIX | Java Intern Assessment";
-        String text = "Hello " + app.getFirstName() + ",\n\n" +
-                "Your application has been successfully submitted.\n\nBest regards,\nHR Team";
-        emailService.sendApplicationMail(email, subject, text);
-        
-       // If role is intern, send domain-specific assessment email
-         if(app.getRole().equalsIgnoreCase("intern"))
-        {
-       
-             //checking the domain for intern
-        	switch(app.getDomain())
-        	{
-        	    case "Java":
-        	    { 
-        	    	System.out.println(" ===>" + app.getDomain());
-        	    	String assessmentSubject = "NEBULYTIX | Assessment for " + app.getRole() + " Position";
-        	    	String assessmentText = "Hello " + app.getFirstName() + ",\n" +
-        	    	        "Domain " + app.getDomain() + ",\n" +
-        	    	        "Role " + app.getRole() + ",\n\n" +
-        	    	        "Thank you for your interest in Software Development Engineering Internship opportunities at Nebulytix technologies pvt ltd! We are excited to move you forward to the next step of the application process, the Online Assessment.\n\n" +
-        	    	        "Please complete the assessment:\n" +
-        	    	        "https://www.hackerrank.com/test/dce0c7o3ks8/96b0bccd128199aa249a5d878252c7c8?try_test=true&email=hr%40nebulytixtechnologies.com\n\n" +
-        	    	        "Once you are ready, set aside a block 1:45 hour of uninterrupted time to complete it in its entirety.\n\n" +
-        	    	        "For technical and online assessment support, please review the Preparation Guide for resources or contact your recruiting team for any questions.\n\n" +
-        	    	        "Thank you,\nNebulytix technologies pvt ltd";
-
-        	    	emailService.sendApplicationMail(app.getEmail(), assessmentSubject, assessmentText);
-        	    	break;
-
-                 }
-        	     	
-        	    case "Python":
-        	    {
-        	    	System.out.println(" ===>" + app.getDomain());
-        	    	String assessmentSubject = "NEBULYTIX |Assessment for " + app.getRole() + " Position";
-
-        	    	String assessmentText = "Hello " + app.getFirstName() + ",\n" +
-        	    	        "Domain " + app.getDomain() + ",\n" +
-        	    	        "Role " + app.getRole() + ",\n\n" +
-        	    	        "Thank you for your interest in Software Development Engineering Internship opportunities at Nebulytix technologies pvt ltd! We are excited to move you forward to the next step of the application process, the Online Assessment.\n\n" +
-        	    	        "Please complete the assessment:\n" +
-        	    	        "https://www.hackerrank.com/test/dce0c7o3ks8/96b0bccd128199aa249a5d878252c7c8?try_test=true&email=hr%40nebulytixtechnologies.com\n\n" +
-        	    	        "Once you are ready, set aside a block of 1:45 hour of uninterrupted time to complete it in its entirety.\n\n" +
-        	    	        "For technical and online assessment support, please review the Preparation Guide for resources or contact your recruiting team for any questions.\n\n" +
-        	    	        "Thank you,\nNebulytix technologies pvt ltd Student Programs";
-
-        	    	emailService.sendApplicationMail(app.getEmail(), assessmentSubject, assessmentText);
-        	    	break;
-
-        	    }
-        	    
-        	    case ".NET":
-        	    {
-        	    	System.out.println(" ===>" + app.getDomain());
-        	    	String assessmentSubject = "NEBULYTIX |Assessment for " + app.getRole() + " Position";
-        	    	String assessmentText = "Hello " + app.getFirstName() + ",\n" +
-        	    	        "Domain " + app.getDomain() + ",\n" +
-        	    	        "Role " + app.getRole() + ",\n\n" +
-        	    	        "Thank you for your interest in Software Development Engineering Internship opportunities at Nebulytix technologies pvt ltd! We are excited to move you forward to the next step of the application process, the Online Assessment.\n\n" +
-        	    	        "Please complete the assessment:\n" +
-        	    	        "https://www.hackerrank.com/test/dce0c7o3ks8/96b0bccd128199aa249a5d878252c7c8?try_test=true&email=hr%40nebulytixtechnologies.com\n\n" +
-        	    	        "Once you are ready, set aside a block of 1 :45 hour of uninterrupted time to complete it in its entirety.\n\n" +
-        	    	        "For technical and online assessment support, please review the Preparation Guide for resources or contact your recruiting team for any questions.\n\n" +
-        	    	        "Thank you,\nNebulytix technologies pvt ltd Student Programs";
-
-        	    	emailService.sendApplicationMail(app.getEmail(), assessmentSubject, assessmentText);
-        	    	break;
-        	    }
-        	    
-        	    default:
-                  // No assessment email for other domains
-                   break;
-        		
-        	}// end of switch case for domain
-        	
-        	
-        }// end of if condition
+                // Move resume file from temporary folder into the content-addressed store
+                tempFileName = claimed.getResumeFileName();
+                blobName = resumeBlobService.store(tempFileName, claimed.getResumeSha256());
+            }
+
+            // The claimed application is no longer reachable through the pending store
+            CareerApplication application = claimed;
+            application.setResumeFileName(blobName);
+
+            // Set application submission time, save to database and queue the mails in one transaction.
+            // A second application for the same email is rejected by the unique constraint.
+            application.setAppliedAt(Instant.now());
+            transactionTemplate.executeWithoutResult(status -> {
+                careerRepository.save(application);
+
+                // Queue confirmation + assessment emails in the outbox; assessments
+                // exist for interns of some domains (templates under mail-templates/career)
+                enqueueMail(email, "confirmation", application);
+                enqueueMail(application.getEmail(), "assessment", application);
+            });
+            saved = application;
+        } catch (RuntimeException e) {
+            if (!(e instanceof DataIntegrityViolationException violation)
+                    || !UniqueConstraints.isViolated(violation, "uk_career_applications_email")) {
+                if (claimed != null) restorePending(email, claimed, tempFileName, blobName, e);
+                throw e;
+            }
+            // Only a saved application refers to the moved resume
+            resumeBlobService.release(blobName);
+            verificationService.removeCode(email);
+            applicantEmailFilter.add("career", app.getEmail());
+            response.put("status", "error");
+            response.put("message", "This email has already been used to submit an application.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } finally {
+            register.close();
+        }
+        verificationService.removeCode(email);
+        applicantEmailFilter.add("career", saved.getEmail());
+        resumeIndexService.submit("career", saved.getId(), saved.getResumeFileName());
  
          response.put("status", "success");
          response.put("message", "Your Application Submitted Successfully. Check your email to start the assessment.");
          return ResponseEntity.ok(response);
     }
+
+    // Puts a claimed application back after a failure that was not its fault (a database
+    // or storage error), with its resume back in the temporary area, so the same code can be
+    // retried. An application whose resume cannot be put back is dropped
+    private void restorePending(String email, CareerApplication claimed, String tempFileName, String blobName,
+                                RuntimeException failure) {
+        try {
+            if (blobName != null && !resumeBlobService.unstore(blobName, tempFileName)) return;
+            claimed.setId(null);
+            claimed.setResumeFileName(tempFileName);
+            pendingApplications.put(email, claimed);
+        } catch (RuntimeException restoreFailure) {
+            failure.addSuppressed(restoreFailure);
+        }
+    }
+
+    // Undoes an apply that cannot send its verification mail, so a retry starts clean
+    private void discardPending(String email, String resumeFileName) {
+        pendingApplications.remove(email);
+        verificationService.removeCode(email);
+        resumeIngestor.deleteTemp(resumeFileName);
+    }
+
+    // Queues the template of this kind for the application's role and domain, if one applies
+    private void enqueueMail(String to, String kind, CareerApplication app) {
+        MailTemplateService.Mail mail = mailTemplateService.render("career", kind, app.getRole(), app.getDomain(),
+                "firstName", app.getFirstName(), "role", app.getRole(), "domain", app.getDomain());
+        if (mail != null) emailOutboxService.enqueue(to, mail.subject(), mail.body());
+    }
 }
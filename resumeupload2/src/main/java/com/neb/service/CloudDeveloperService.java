@@ -3,20 +3,24 @@ package com.neb.service;
 import com.neb.dto.CloudDeveloperRequest;
 import com.neb.entity.CloudDeveloper;
 import com.neb.repo.CloudDeveloperRepository;
+import com.neb.exception.InvalidFileFormatException;
 import com.neb.util.CloudDeveloperVerificationManager;
+import com.neb.util.ResumeIngestor;
+import com.neb.util.StageLimiter;
+import com.neb.util.UniqueConstraints;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Service class to manage Cloud Developer job applications.
@@ -36,6 +40,33 @@ public class CloudDeveloperService {
 
     @Autowired
     private CloudDeveloperVerificationManager cloudDeveloperVerificationManager;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ResumeIngestor resumeIngestor;
+
+    @Autowired
+    private ResumeBlobService resumeBlobService;
+
+    @Autowired
+    private ResumeIndexService resumeIndexService;
+
+    @Autowired
+    private ApplicantEmailFilter applicantEmailFilter;
+
+    @Autowired
+    private SubmissionStages submissionStages;
+
+    @Autowired
+    private ApplyRateLimiter applyRateLimiter;
+
+    @Autowired
+    private MailTemplateService mailTemplateService;
     
  
     /**
@@ -55,31 +86,61 @@ public class CloudDeveloperService {
             }
 
             // STEP 2: APPLICATION PHASE (resume + email must be provided)
-            if (req.getEmail() == null || req.getResume() == null) {
-                response.put("status", "error");
-                response.put("message", "Email and resume are required.");
-                return ResponseEntity.badRequest().body(response);
+            try (StageLimiter.Permit validate = submissionStages.enter("validate")) {
+                if (req.getEmail() == null || req.getResume() == null) {
+                    response.put("status", "error");
+                    response.put("message", "Email and resume are required.");
+                    return ResponseEntity.badRequest().body(response);
+                }
             }
 
+            // A throttled email is refused before its resume is read and stored
+            applyRateLimiter.checkEmail(req.getEmail());
+
             // Save resume temporarily
-            String safeFileName = saveTempResume(req.getResume());
+            ResumeIngestor.IngestedResume resume = submissionStages.call("store", () -> saveTempResume(req.getResume()));
+            String safeFileName = resume.fileName();
+
+            // Only an apply that passed validation counts against the email
+            applyRateLimiter.chargeEmail(req.getEmail(), () -> resumeIngestor.deleteTemp(safeFileName));
             
             // Map request to entity and store as pending
             CloudDeveloper app = mapToEntity(req, safeFileName);
-            cloudDeveloperVerificationManager.addPendingApplication(app);
+            app.setResumeSha256(resume.sha256());
+            String code;
+            try (StageLimiter.Permit register = submissionStages.enter("register", () -> resumeIngestor.deleteTemp(safeFileName))) {
+                if (!cloudDeveloperVerificationManager.addPendingApplication(app)) {
+                    resumeIngestor.deleteTemp(safeFileName);
+                    response.put("status", "error");
+                    response.put("message", "Too many pending applications, please try again later.");
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+                }
 
-            // Generate and send verification code
-            String code = cloudDeveloperVerificationManager.generateCode(req.getEmail());
-            emailService.sendApplicationMail(req.getEmail(),
-                    "Verify Your Cloud Developer Application",
-                    "Hello " + req.getFirstName() + ",\n\nPlease verify using this code:\n\n" +
-                            code + "\n\nValid for 10 minutes.\n\nBest Regards,\nHR Team");
+                // Generate and send verification code
+                code = cloudDeveloperVerificationManager.generateCode(req.getEmail());
+            }
+            MailTemplateService.Mail mail = mailTemplateService.renderRequired("cloud-developer", "verification", null, null,
+                    "firstName", req.getFirstName(), "code", code);
+            boolean queued;
+            try (StageLimiter.Permit notify = submissionStages.enter("notify", () -> discardPending(req.getEmail(), safeFileName))) {
+                queued = emailService.sendApplicationMail(req.getEmail(), mail.subject(), mail.body());
+            }
+            if (!queued) {
+                discardPending(req.getEmail(), safeFileName);
+                response.put("status", "error");
+                response.put("message", "Could not send the verification email, please try again later.");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            }
 
             response.put("status", "pending");
             response.put("message", "Verification code sent to your email.");
             
             return ResponseEntity.ok(response);
 
+        } catch (InvalidFileFormatException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (IOException e) {
             response.put("status", "error");
             response.put("message", "File upload failed: " + e.getMessage());
@@ -98,60 +159,80 @@ public class CloudDeveloperService {
 
     // responseEntity for verify mail
     private ResponseEntity<?> verifyCloudDeveloper(String email, String code, Map<String, Object> response) {
-    	
-    	CloudDeveloper app = cloudDeveloperVerificationManager.verifyCloudDeveloperCode(email, code);
+        // An email whose wrong codes used up its attempts is refused before the code is checked
+        applyRateLimiter.checkEmail(email);
+    	CloudDeveloper app = submissionStages.call("validate", () -> cloudDeveloperVerificationManager.verifyCloudDeveloperCode(email, code));
 
         if (app == null) {
+            applyRateLimiter.chargeEmail(email);
             response.put("status", "error");
             response.put("message", "Invalid or expired verification code.");
             return ResponseEntity.badRequest().body(response);
         }
 
-        if (repo.existsByEmail(email)) {
+        // Reject a known email before storing anything; the filter spares the query for new emails
+        if (applicantEmailFilter.alreadyApplied("cloud-developer", email, repo::existsByEmail)) {
             response.put("status", "error");
             response.put("message", "You have already submitted your application.");
             cloudDeveloperVerificationManager.clear(email);
             return ResponseEntity.badRequest().body(response);
         }
 
-        // Move file from temp → uploads
-        moveResumeToFinal(app.getResumePath());
-        
-        // Save finalized application
-        app.setCreatedAt(Instant.now());
-        repo.save(app);
-        
-        // Cleanup
-        cloudDeveloperVerificationManager.clear(email);
+        // Admitted to 'register' and 'store' before anything is claimed, so an overload
+        // leaves the pending application and its code intact for a retry
+        StageLimiter.Permit register = submissionStages.enter("register");
+        CloudDeveloper claimed = null;
+        String tempFileName = null;
+        String blobName = null;
+        CloudDeveloper saved;
+        try {
+            try (StageLimiter.Permit store = submissionStages.enter("store")) {
+                // A concurrent verification for the same email finds nothing to claim and stops here
+                claimed = cloudDeveloperVerificationManager.claim(email);
+                if (claimed == null) {
+                    response.put("status", "error");
+                    response.put("message", "No pending application found for this email.");
+                    return ResponseEntity.badRequest().body(response);
+                }
+
+                // Move file from temp → content-addressed store
+                tempFileName = claimed.getResumePath();
+                blobName = resumeBlobService.store(tempFileName, claimed.getResumeSha256());
+            }
 
-        // Send confirmation email
-        emailService.sendApplicationMail(email,
-                "Application Received - " + app.getRole(),
-                "Hello " + app.getFirstName() + ",\n\nYour cloud developer application has been successfully submitted.\n\nHR Team");
-      
-        // Send domain-specific assessment email
-        System.out.println(" ===>"+app.getDomain());
-        String assessmentSubject = "NEBULYTIX | Assessment for " + app.getRole() + " Position";
-
-        String assessmentText =
-                "Hello " + app.getFirstName() + ",\n\n" +
-                "Thank you for applying for the *" + app.getRole() + "* position in the *" + app.getDomain() + "* domain at Nebulytix Technologies.\n\n" +
-                "We appreciate your interest in joining our team! To proceed with your application, please complete the following technical assessment.\n\n" +
-                "🧠 This test helps us evaluate your problem-solving skills and technical expertise relevant to the position.\n\n" +
-                "👉 Click the link below to start your assessment:\n" +
-                "https://www.hackerrank.com/test/8klibn6rbkb/a3a6de3b23b7b9bed5680f79be40ece4?try_test=true&email=hr%40nebulytixtechnologies.com\n\n" +
-                "📌 *Important Notes:*\n" +
-                "• The link is valid for **48 hours** from the time of this email.\n" +
-                "• Please ensure a stable internet connection before starting.\n" +
-                "• Once completed, our HR team will review your results and contact you regarding the next steps.\n\n" +
-                "We wish you the best of luck with your assessment!\n\n" +
-                "Warm regards,\n" +
-                "HR Team\n" +
-                "Nebulytix Technologies";
-
-        emailService.sendApplicationMail(app.getEmail(), assessmentSubject, assessmentText);
+            // The claimed application is no longer reachable through the pending store
+            CloudDeveloper application = claimed;
+            application.setResumePath(blobName);
 
+            // Save finalized application together with its outbox mails
+            application.setCreatedAt(Instant.now());
+            transactionTemplate.executeWithoutResult(status -> {
+                repo.save(application);
 
+                // Queue confirmation + assessment emails (templates under mail-templates/cloud-developer)
+                enqueueMail(email, "confirmation", application);
+                enqueueMail(application.getEmail(), "assessment", application);
+            });
+            saved = application;
+        } catch (RuntimeException e) {
+            if (!(e instanceof DataIntegrityViolationException violation)
+                    || !UniqueConstraints.isViolated(violation, "uk_cloud_developers1_email")) {
+                if (claimed != null) restorePending(claimed, tempFileName, blobName, e);
+                throw e;
+            }
+            // Only a saved application refers to the moved resume
+            resumeBlobService.release(blobName);
+            cloudDeveloperVerificationManager.removeCode(email);
+            applicantEmailFilter.add("cloud-developer", email);
+            response.put("status", "error");
+            response.put("message", "You have already submitted your application.");
+            return ResponseEntity.badRequest().body(response);
+        } finally {
+            register.close();
+        }
+        cloudDeveloperVerificationManager.removeCode(email);
+        applicantEmailFilter.add("cloud-developer", email);
+        resumeIndexService.submit("cloud-developer", saved.getId(), saved.getResumePath());
 
         response.put("status", "success");
         response.put("message", "Application submitted successfully!");
@@ -159,34 +240,36 @@ public class CloudDeveloperService {
     }
 
     /**
-     * Saves the uploaded resume file to a temporary folder.
+     * Validates the uploaded resume and saves it to a temporary folder.
      *
      * @param file The uploaded file
-     * @return The safe file name generated
+     * @return The safe file name generated, with size and SHA-256 digest
      * @throws IOException if the file could not be saved
      */
-    private String saveTempResume(MultipartFile file) throws IOException {
-        String tempDir = System.getProperty("user.dir") + "/uploads_temp";
-        File dir = new File(tempDir);
-        if (!dir.exists()) dir.mkdirs();
-
-        String safeName = UUID.randomUUID() + "_" +
-                file.getOriginalFilename().replaceAll("[^a-zA-Z0-9\\.\\-]", "_");
-        file.transferTo(new File(dir, safeName));
-        return safeName;
+    private ResumeIngestor.IngestedResume saveTempResume(MultipartFile file) throws IOException {
+        return resumeIngestor.ingest(file);
     }
     
-    /**
-     * Moves resume from temporary folder to permanent folder.
-     * @param resumeName The file name of the resume
-     */
-    private void moveResumeToFinal(String resumeName) {
-        File tempFile = new File(System.getProperty("user.dir") + "/uploads_temp/" + resumeName);
-        File finalDir = new File(System.getProperty("user.dir") + "/uploads");
-        if (!finalDir.exists()) finalDir.mkdirs();
-        tempFile.renameTo(new File(finalDir, resumeName));
+    // Puts a claimed application back after a failure that was not its fault (a database
+    // or storage error), with its resume back in the temporary area, so the same code can be
+    // retried. An application whose resume cannot be put back is dropped
+    private void restorePending(CloudDeveloper claimed, String tempFileName, String blobName, RuntimeException failure) {
+        try {
+            if (blobName != null && !resumeBlobService.unstore(blobName, tempFileName)) return;
+            claimed.setId(null);
+            claimed.setResumePath(tempFileName);
+            cloudDeveloperVerificationManager.restore(claimed);
+        } catch (RuntimeException restoreFailure) {
+            failure.addSuppressed(restoreFailure);
+        }
     }
-     
+
+    // Undoes an apply that cannot send its verification mail, so a retry starts clean
+    private void discardPending(String email, String resumeFileName) {
+        cloudDeveloperVerificationManager.clear(email);
+        resumeIngestor.deleteTemp(resumeFileName);
+    }
+
     /**
      * Converts request DTO to CloudDeveloper entity.
      *
@@ -215,4 +298,11 @@ public class CloudDeveloperService {
         
         return app;
     }
+
+    // Queues the template of this kind for the application's role and domain, if one applies
+    private void enqueueMail(String to, String kind, CloudDeveloper app) {
+        MailTemplateService.Mail mail = mailTemplateService.render("cloud-developer", kind, app.getRole(), app.getDomain(),
+                "firstName", app.getFirstName(), "role", app.getRole(), "domain", app.getDomain());
+        if (mail != null) emailOutboxService.enqueue(to, mail.subject(), mail.body());
+    }
 }
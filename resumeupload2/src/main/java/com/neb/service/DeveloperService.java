@@ -3,16 +3,21 @@ package com.neb.service;
 import com.neb.dto.DeveloperRequest;
 import com.neb.entity.DeveloperApplication;
 import com.neb.repo.DeveloperRepository;
+import com.neb.exception.InvalidFileFormatException;
 import com.neb.util.VerificationManager;
+import com.neb.util.ResumeIngestor;
+import com.neb.util.StageLimiter;
+import com.neb.util.UniqueConstraints;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
@@ -33,6 +38,33 @@ public class DeveloperService {
 
     @Autowired
     private VerificationManager verificationManager;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ResumeIngestor resumeIngestor;
+
+    @Autowired
+    private ResumeBlobService resumeBlobService;
+
+    @Autowired
+    private ResumeIndexService resumeIndexService;
+
+    @Autowired
+    private ApplicantEmailFilter applicantEmailFilter;
+
+    @Autowired
+    private SubmissionStages submissionStages;
+
+    @Autowired
+    private ApplyRateLimiter applyRateLimiter;
+
+    @Autowired
+    private MailTemplateService mailTemplateService;
     
     /**
      * Handles both phases of the developer application process:
@@ -52,30 +84,60 @@ public class DeveloperService {
             }
 
             // STEP 2: APPLY PHASE
-            if (req.getEmail() == null || req.getResume() == null) {
-                response.put("status", "error");
-                response.put("message", "Email and resume are required.");
-                return ResponseEntity.badRequest().body(response);
+            try (StageLimiter.Permit validate = submissionStages.enter("validate")) {
+                if (req.getEmail() == null || req.getResume() == null) {
+                    response.put("status", "error");
+                    response.put("message", "Email and resume are required.");
+                    return ResponseEntity.badRequest().body(response);
+                }
             }
 
+            // A throttled email is refused before its resume is read and stored
+            applyRateLimiter.checkEmail(req.getEmail());
+
             // Save resume to temp folder
-            String safeFileName = saveTempResume(req.getResume());
+            ResumeIngestor.IngestedResume resume = submissionStages.call("store", () -> saveTempResume(req.getResume()));
+            String safeFileName = resume.fileName();
+
+            // Only an apply that passed validation counts against the email
+            applyRateLimiter.chargeEmail(req.getEmail(), () -> resumeIngestor.deleteTemp(safeFileName));
             
             // Map to entity and save as pending
             DeveloperApplication app = mapToEntity(req, safeFileName);
-            verificationManager.addPendingApplication(app);
+            app.setResumeSha256(resume.sha256());
+            String code;
+            try (StageLimiter.Permit register = submissionStages.enter("register", () -> resumeIngestor.deleteTemp(safeFileName))) {
+                if (!verificationManager.addPendingApplication(app)) {
+                    resumeIngestor.deleteTemp(safeFileName);
+                    response.put("status", "error");
+                    response.put("message", "Too many pending applications, please try again later.");
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+                }
 
-            // Generate and send email verification code
-            String code = verificationManager.generateCode(req.getEmail());
-            emailService.sendApplicationMail(req.getEmail(),
-                    "Verify Your Developer Application",
-                    "Hello " + req.getFirstName() + ",\n\nPlease verify using this code:\n\n" +
-                            code + "\n\nValid for 10 minutes.\n\nBest Regards,\nHR Team");
+                // Generate and send email verification code
+                code = verificationManager.generateCode(req.getEmail());
+            }
+            MailTemplateService.Mail mail = mailTemplateService.renderRequired("developer", "verification", null, null,
+                    "firstName", req.getFirstName(), "code", code);
+            boolean queued;
+            try (StageLimiter.Permit notify = submissionStages.enter("notify", () -> discardPending(req.getEmail(), safeFileName))) {
+                queued = emailService.sendApplicationMail(req.getEmail(), mail.subject(), mail.body());
+            }
+            if (!queued) {
+                discardPending(req.getEmail(), safeFileName);
+                response.put("status", "error");
+                response.put("message", "Could not send the verification email, please try again later.");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            }
 
             response.put("status", "pending");
             response.put("message", "Verification code sent to your email.");
             return ResponseEntity.ok(response);
 
+        } catch (InvalidFileFormatException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (IOException e) {
             response.put("status", "error");
             response.put("message", "File upload failed: " + e.getMessage());
@@ -92,107 +154,82 @@ public class DeveloperService {
      * @return ResponseEntity with result status and message
      */
     private ResponseEntity<?> verifyDeveloper(String email, String code, Map<String, Object> response) {
-        DeveloperApplication app = verificationManager.verifyCode(email, code);
+        // An email whose wrong codes used up its attempts is refused before the code is checked
+        applyRateLimiter.checkEmail(email);
+        DeveloperApplication app = submissionStages.call("validate", () -> verificationManager.verifyCode(email, code));
 
         if (app == null) {
+            applyRateLimiter.chargeEmail(email);
             response.put("status", "error");
             response.put("message", "Invalid or expired verification code.");
             return ResponseEntity.badRequest().body(response);
         }
 
-        if (repo.existsByEmail(email)) {
+        // Reject a known email before storing anything; the filter spares the query for new emails
+        if (applicantEmailFilter.alreadyApplied("developer", email, repo::existsByEmail)) {
             response.put("status", "error");
             response.put("message", "You have already submitted your application.");
             verificationManager.clear(email);
             return ResponseEntity.badRequest().body(response);
         }
 
-        // Move resume from temp to uploads folder
-        moveResumeToFinal(app.getResumePath());
-        
-        // Finalize and persist application
-        app.setCreatedAt(Instant.now());
-        repo.save(app);
-        verificationManager.clear(email);
+        // Admitted to 'register' and 'store' before anything is claimed, so an overload
+        // leaves the pending application and its code intact for a retry
+        StageLimiter.Permit register = submissionStages.enter("register");
+        DeveloperApplication claimed = null;
+        String tempFileName = null;
+        String blobName = null;
+        DeveloperApplication saved;
+        try {
+            try (StageLimiter.Permit store = submissionStages.enter("store")) {
+                // A concurrent verification for the same email finds nothing to claim and stops here
+                claimed = verificationManager.claim(email);
+                if (claimed == null) {
+                    response.put("status", "error");
+                    response.put("message", "No pending application found for this email.");
+                    return ResponseEntity.badRequest().body(response);
+                }
+
+                // Move resume from temp into the content-addressed store
+                tempFileName = claimed.getResumePath();
+                blobName = resumeBlobService.store(tempFileName, claimed.getResumeSha256());
+            }
+
+            // The claimed application is no longer reachable through the pending store
+            DeveloperApplication application = claimed;
+            application.setResumePath(blobName);
+
+            // Finalize and persist application together with its outbox mails
+            application.setCreatedAt(Instant.now());
+            transactionTemplate.executeWithoutResult(status -> {
+                repo.save(application);
+
+                // Queue confirmation + assessment emails; assessments exist for developers
+                // of some domains (templates under mail-templates/developer)
+                enqueueMail(email, "confirmation", application);
+                enqueueMail(application.getEmail(), "assessment", application);
+            });
+            saved = application;
+        } catch (RuntimeException e) {
+            if (!(e instanceof DataIntegrityViolationException violation)
+                    || !UniqueConstraints.isViolated(violation, "uk_developer_application_email")) {
+                if (claimed != null) restorePending(claimed, tempFileName, blobName, e);
+                throw e;
+            }
+            // Only a saved application refers to the moved resume
+            resumeBlobService.release(blobName);
+            verificationManager.removeCode(email);
+            applicantEmailFilter.add("developer", email);
+            response.put("status", "error");
+            response.put("message", "You have already submitted your application.");
+            return ResponseEntity.badRequest().body(response);
+        } finally {
+            register.close();
+        }
+        verificationManager.removeCode(email);
+        applicantEmailFilter.add("developer", email);
+        resumeIndexService.submit("developer", saved.getId(), saved.getResumePath());
 
-        // Send confirmation email
-        emailService.sendApplicationMail(email,
-                "Application Received - " + app.getRole(),
-                "Hello " + app.getFirstName() + ",\n\nYour developer application has been successfully submitted.\n\nHR Team");
-        // checking of role
-        if(app.getRole().equalsIgnoreCase("developer"))
-        {
-           //checking the domain for developer
-    	switch(app.getDevdomain())
-    	{
-    	    case "Java":
-    	    { 
-    	    	
-    	    	System.out.println(" ===>"+app.getDevdomain());
-            	 String assessmentSubject = "NEBULYTIX | Java Developer Assessment";
-            	 String assessmentText = "Hi " + app.getFirstName() + ",\n\n" +
-            			    "Thanks for showing interest in the " + app.getRole() + " role at Nebulytix!\n" +
-            			    "We’re excited to move you to the next step — the Online Assessment.\n\n" +
-            			    "To move forward in the process, please complete the assessment within 1 days using the link below:\n\n" +
-            			    "https://www.hackerrank.com/test/9eht0gma42h/666cfbe6ce1da32d0c3cf7a5a4d22af1?try_test=true&email=careers@nebulytix.com\n\n" +
-            			    "Before you start, make sure you have 2 hours of quiet, uninterrupted time.\n" +
-            			    "Once started, you won’t be able to pause or restart the test — so get ready before you begin.\n\n" +
-            			    "If you face any technical issues, feel free to reach out to us at careers@nebulytix.com.\n\n" +
-            			    "Good luck — we can’t wait to see what you build!\n\n" +
-            			    "Cheers,\n" +
-            			    "Team Nebulytix\n" +
-            			    "www.nebulytixtechnologies.com";
-
-                 emailService.sendApplicationMail(app.getEmail(), assessmentSubject, assessmentText);
-                 break;
-             }
-    	     	
-    	    case "Python":
-    	    {
-    	    	System.out.println(" ===>"+app.getDomain());
-    	    	System.out.println(" ===>"+app.getDevdomain());
-            	 String assessmentSubject = "NEBULYTIX | Python Developer Assessment";
-            	 String assessmentText = "Hi " + app.getFirstName() + ",\n\n" +
-            			    "Thanks for showing interest in the " + app.getRole() + " role at Nebulytix!\n" +
-            			    "We’re excited to move you to the next step — the Online Assessment.\n\n" +
-            			    "To move forward in the process, please complete the assessment within 1 day using the link below:\n\n" +
-            			    "https://www.hackerrank.com/test/9eht0gma42h/666cfbe6ce1da32d0c3cf7a5a4d22af1?try_test=true&email=careers@nebulytix.com\n\n" +
-            			    "Before you start, make sure you have 2 hours of quiet, uninterrupted time.\n" +
-            			    "Once started, you won’t be able to pause or restart the test — so get ready before you begin.\n\n" +
-            			    "If you face any technical issues, feel free to reach out to us at careers@nebulytix.com.\n\n" +
-            			    "Good luck — we can’t wait to see what you build!\n\n" +
-            			    "Cheers,\n" +
-            			    "Team Nebulytix\n" +
-            			    "www.nebulytixtechnologies.com";
-
-                 emailService.sendApplicationMail(app.getEmail(), assessmentSubject, assessmentText);
-                 break;
-    	    }
-    	    
-    	    case ".NET":
-    	    {
-    	    	System.out.println(" ===>"+app.getDomain());
-    	    	System.out.println(" ===>"+app.getDevdomain());
-            	 String assessmentSubject = "NEBULYTIX | .NET Developer Assessment";
-            	 String assessmentText = "Hi " + app.getFirstName() + ",\n\n" +
-            			    "Thanks for showing interest in the " + app.getRole() + " role at Nebulytix!\n" +
-            			    "We’re excited to move you to the next step — the Online Assessment.\n\n" +
-            			    "To move forward in the process, please complete the assessment within 1 day  using the link below:\n\n" +
-            			    "https://www.hackerrank.com/test/9eht0gma42h/666cfbe6ce1da32d0c3cf7a5a4d22af1?try_test=true&email=careers@nebulytix.com\n\n" +
-            			    "Before you start, make sure you have 2 hours of quiet, uninterrupted time.\n" +
-            			    "Once started, you won’t be able to pause or restart the test — so get ready before you begin.\n\n" +
-            			    "If you face any technical issues, feel free to reach out to us at careers@nebulytix.com.\n\n" +
-            			    "Good luck — we can’t wait to see what you build!\n\n" +
-            			    "Cheers,\n" +
-            			    "Team Nebulytix\n" +
-            			    "www.nebulytixtechnologies.com";
-
-                 emailService.sendApplicationMail(app.getEmail(), assessmentSubject, assessmentText);
-                 break;
-    	    }
-    		
-    	 }// end of switch case for domain
-        }// end of if condition
         response.put("status", "success");
         response.put("message", "Application submitted successfully! check your mail for the assessment");
         return ResponseEntity.ok(response);
@@ -200,35 +237,36 @@ public class DeveloperService {
     }
     
     /**
-     * Saves the resume file to a temporary folder with a safe name.
+     * Validates the resume and saves it to a temporary folder with a safe name.
      *
      * @param file Multipart resume file
-     * @return Safe file name for the saved resume
+     * @return Safe file name, size and SHA-256 digest of the saved resume
      * @throws IOException if saving fails
      */
-    private String saveTempResume(MultipartFile file) throws IOException {
-        String tempDir = System.getProperty("user.dir") + "/uploads_temp";
-        File dir = new File(tempDir);
-        if (!dir.exists()) dir.mkdirs();
-
-        String safeName = UUID.randomUUID() + "_" +
-                file.getOriginalFilename().replaceAll("[^a-zA-Z0-9\\.\\-]", "_");
-        file.transferTo(new File(dir, safeName));
-        return safeName;
+    private ResumeIngestor.IngestedResume saveTempResume(MultipartFile file) throws IOException {
+        return resumeIngestor.ingest(file);
     }
 
-    /**
-     * Moves resume from temporary to final uploads folder.
-     *
-     * @param resumeName The name of the resume file
-     */
-    private void moveResumeToFinal(String resumeName) {
-        File tempFile = new File(System.getProperty("user.dir") + "/uploads_temp/" + resumeName);
-        File finalDir = new File(System.getProperty("user.dir") + "/uploads");
-        if (!finalDir.exists()) finalDir.mkdirs();
-        tempFile.renameTo(new File(finalDir, resumeName));
+    // Puts a claimed application back after a failure that was not its fault (a database
+    // or storage error), with its resume back in the temporary area, so the same code can be
+    // retried. An application whose resume cannot be put back is dropped
+    private void restorePending(DeveloperApplication claimed, String tempFileName, String blobName, RuntimeException failure) {
+        try {
+            if (blobName != null && !resumeBlobService.unstore(blobName, tempFileName)) return;
+            claimed.setId(null);
+            claimed.setResumePath(tempFileName);
+            verificationManager.restore(claimed);
+        } catch (RuntimeException restoreFailure) {
+            failure.addSuppressed(restoreFailure);
+        }
     }
-    
+
+    // Undoes an apply that cannot send its verification mail, so a retry starts clean
+    private void discardPending(String email, String resumeFileName) {
+        verificationManager.clear(email);
+        resumeIngestor.deleteTemp(resumeFileName);
+    }
+
     /**
      * Maps a DeveloperRequest DTO to DeveloperApplication entity.
      *
@@ -257,4 +295,11 @@ public class DeveloperService {
         
         return app;
     }
+
+    // Queues the template of this kind for the application's role and domain, if one applies
+    private void enqueueMail(String to, String kind, DeveloperApplication app) {
+        MailTemplateService.Mail mail = mailTemplateService.render("developer", kind, app.getRole(), app.getDevdomain(),
+                "firstName", app.getFirstName(), "role", app.getRole(), "domain", app.getDomain());
+        if (mail != null) emailOutboxService.enqueue(to, mail.subject(), mail.body());
+    }
 }
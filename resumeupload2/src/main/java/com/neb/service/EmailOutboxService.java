@@ -0,0 +1,155 @@
+package com.neb.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.neb.entity.EmailOutbox;
+import com.neb.repo.EmailOutboxRepository;
+import com.neb.util.MetricsSource;
+import com.neb.util.SmtpSession;
+
+import jakarta.mail.MessagingException;
+
+/**
+ * Transactional email outbox.
+ * --
+ * Mails are written to the 'email_outbox' table inside the caller's transaction,
+ * so they are only queued when the application itself was saved. A scheduled
+ * relay drains the table in batches, sending each batch over a single SMTP
+ * session, and retries failed deliveries with exponential backoff until the
+ * attempt limit is reached.
+ * --
+ */
+@Service
+public class EmailOutboxService implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${mail.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Adds a mail to the outbox. Must be called inside the transaction that
+     * saves the application the mail belongs to.
+     *
+     * @param to      Recipient email address
+     * @param subject Subject of the email
+     * @param text    Body content of the email
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String to, String subject, String text) {
+        EmailOutbox mail = new EmailOutbox();
+        mail.setRecipient(to);
+        mail.setSubject(subject);
+        mail.setBody(text);
+        mail.setStatus(EmailOutbox.Status.PENDING);
+        mail.setCreatedAt(Instant.now());
+        mail.setNextAttemptAt(mail.getCreatedAt());
+        outboxRepository.save(mail);
+    }
+
+    /**
+     * Drains due outbox rows batch by batch until a batch comes back short.
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-millis:5000}")
+    public void relay() {
+        Integer processed;
+        do {
+            processed = transactionTemplate.execute(status -> relayBatch());
+        } while (processed != null && processed == batchSize);
+    }
+
+    // Sends one batch of due mails; delivered rows are deleted, failed ones rescheduled
+    private int relayBatch() {
+        Instant now = Instant.now();
+        List<EmailOutbox> batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                EmailOutbox.Status.PENDING, now, PageRequest.of(0, batchSize));
+
+        try (SmtpSession session = emailService.openSession()) {
+            for (EmailOutbox mail : batch) {
+                try {
+                    emailService.sendNow(session, mail.getRecipient(), mail.getSubject(), mail.getBody());
+                    outboxRepository.delete(mail);
+                    delivered.incrementAndGet();
+                } catch (MessagingException | MailException e) {
+                    reschedule(mail, e, now);
+                }
+            }
+        }
+        return batch.size();
+    }
+
+    private void reschedule(EmailOutbox mail, Exception e, Instant now) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        String error = String.valueOf(e.getMessage());
+        mail.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+
+        if (attempts >= maxAttempts) {
+            mail.setStatus(EmailOutbox.Status.FAILED);
+            failed.incrementAndGet();
+            log.error("Giving up on outbox mail {} to {} after {} attempts", mail.getId(), mail.getRecipient(), attempts, e);
+            return;
+        }
+
+        // 30s, 60s, 120s, ... capped at the configured maximum
+        long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(attempts - 1, 20));
+        mail.setNextAttemptAt(now.plus(Duration.ofSeconds(backoff)));
+        retried.incrementAndGet();
+        log.warn("Outbox mail {} to {} failed (attempt {}), retrying in {}s", mail.getId(), mail.getRecipient(), attempts, backoff);
+    }
+
+    @Override
+    public String metricsName() {
+        return "mailOutbox";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pending", outboxRepository.countByStatus(EmailOutbox.Status.PENDING));
+        metrics.put("failedRows", outboxRepository.countByStatus(EmailOutbox.Status.FAILED));
+        metrics.put("delivered", delivered.get());
+        metrics.put("retried", retried.get());
+        metrics.put("givenUp", failed.get());
+        return metrics;
+    }
+}
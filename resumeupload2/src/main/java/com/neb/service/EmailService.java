@@ -2,32 +2,227 @@ package com.neb.service;
 
 
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+
+import com.neb.util.MetricsSource;
+import com.neb.util.SmtpSession;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
 /**
  * Service responsible for sending application-related emails.
+ * --
+ * Mails are put on a bounded in-process queue and delivered by a small pool
+ * of worker threads, so the request thread never waits for the SMTP round trip.
+ * When the queue is full the mail is refused and counted, and the caller decides
+ * how to report it. Each worker keeps its
+ * own authenticated SMTP session and sends everything queued in one go over it;
+ * sessions idle for too long are closed and reopened on demand.
+ * --
  */
 @Service
-public class EmailService {
+public class EmailService implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
 
     @Autowired
     private JavaMailSender mailSender;
-    
+
+    @Value("${mail.dispatch.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${mail.dispatch.workers:2}")
+    private int workers;
+
+    @Value("${mail.dispatch.drain-timeout-seconds:30}")
+    private long drainTimeoutSeconds;
+
+    @Value("${mail.dispatch.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.dispatch.session-idle-seconds:60}")
+    private long sessionIdleSeconds;
+
+    @Value("${mail.dispatch.session-check-after-idle-millis:5000}")
+    private long sessionCheckAfterIdleMillis;
+
+    private BlockingQueue<QueuedMail> queue;
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /** A mail waiting for delivery together with the time it was queued */
+    private record QueuedMail(SimpleMailMessage message, long enqueuedAtNanos) {}
+
+    /**
+     * Starts the dispatch workers.
+     * Workers are platform threads on purpose: the SMTP transport is synchronized
+     * internally and would pin a carrier thread in virtual-thread mode.
+     */
+    @PostConstruct
+    void startWorkers() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::dispatchLoop, "mail-dispatch-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workerThreads.add(worker);
+        }
+    }
+
     /**
-     * Sends a plain-text email to a specified recipient.
+     * Queues a plain-text email for asynchronous delivery to a specified recipient.
      *
      * @param to      Recipient email address
      * @param subject Subject of the email
      * @param text    Body content of the email
+     * @return false if the mail was not queued because the queue is full or stopped
      */
-    public void sendApplicationMail(String to, String subject, String text) 
+    public boolean sendApplicationMail(String to, String subject, String text)
     {
+        SimpleMailMessage message = buildMessage(to, subject, text);
+        if (!running || !queue.offer(new QueuedMail(message, System.nanoTime()))) {
+            dropped.incrementAndGet();
+            log.warn("Mail dispatch queue full or stopped, refusing mail '{}' to {}", subject, to);
+            return false;
+        }
+        enqueued.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Sends a plain-text email synchronously on the calling thread over the given session.
+     *
+     * @throws MessagingException if the mail could not be delivered
+     */
+    public void sendNow(SmtpSession session, String to, String subject, String text) throws MessagingException {
+        session.send(buildMessage(to, subject, text));
+    }
+
+    /**
+     * Opens an SMTP session for sending several mails over one connection.
+     * The caller must close it when done.
+     */
+    public SmtpSession openSession() {
+        return new SmtpSession(mailSender, connections, TimeUnit.MILLISECONDS.toNanos(sessionCheckAfterIdleMillis));
+    }
+
+    private SimpleMailMessage buildMessage(String to, String subject, String text) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(to);
         message.setSubject(subject);
         message.setText(text);
-        mailSender.send(message);
+        return message;
+    }
+
+    // Worker loop: delivers queued mails in batches over its own SMTP session
+    // until stopped and the queue is drained
+    private void dispatchLoop() {
+        long idleLimitNanos = TimeUnit.SECONDS.toNanos(sessionIdleSeconds);
+        List<QueuedMail> batch = new ArrayList<>(batchSize);
+        try (SmtpSession session = openSession()) {
+            while (running || !queue.isEmpty()) {
+                QueuedMail first;
+                try {
+                    first = queue.poll(250, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (first == null) {
+                    // Evict the connection instead of letting the server time it out
+                    if (session.isOpen() && session.idleNanos() > idleLimitNanos) session.close();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batches.incrementAndGet();
+                for (QueuedMail mail : batch) {
+                    deliver(session, mail);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(SmtpSession session, QueuedMail mail) {
+        try {
+            session.send(mail.message());
+            sent.incrementAndGet();
+        } catch (MessagingException | MailException e) {
+            failed.incrementAndGet();
+            log.error("Failed to send mail '{}'", mail.message().getSubject(), e);
+        } finally {
+            long latency = System.nanoTime() - mail.enqueuedAtNanos();
+            totalLatencyNanos.addAndGet(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    /**
+     * Stops accepting new mails and waits for the queued ones to be delivered.
+     */
+    @PreDestroy
+    void drain() throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+        for (Thread worker : workerThreads) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+            }
+            worker.interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Mail dispatch drain timed out, {} mails were not sent", queue.size());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "mailDispatch";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long completed = sent.get() + failed.get();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("enqueued", enqueued.get());
+        metrics.put("sent", sent.get());
+        metrics.put("failed", failed.get());
+        metrics.put("dropped", dropped.get());
+        metrics.put("batches", batches.get());
+        metrics.put("smtpConnections", connections.get());
+        metrics.put("avgLatencyMillis", completed == 0 ? 0 : totalLatencyNanos.get() / completed / 1_000_000);
+        metrics.put("maxLatencyMillis", maxLatencyNanos.get() / 1_000_000);
+        return metrics;
     }
 }
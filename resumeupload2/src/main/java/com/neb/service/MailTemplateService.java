@@ -0,0 +1,218 @@
+package com.neb.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.neb.util.MailTemplate;
+import com.neb.util.MetricsSource;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Registry of the compiled mail templates, keyed by application type, mail kind,
+ * role and domain.
+ * --
+ * A mail of kind 'assessment' for an intern in the Java domain of a career
+ * application is looked up as 'career/assessment-intern-Java', then
+ * 'career/assessment-intern', then 'career/assessment'; the first that exists is
+ * used, and none means no mail. Roles are matched in lower case, domains as given.
+ * --
+ * Each template is read from 'mail.templates.location' if the file exists there,
+ * otherwise from 'mail-templates/' on the classpath, compiled once and cached,
+ * misses included. Files in the template directory are checked for changes every
+ * 'mail.templates.reload-interval-millis' and recompiled, so texts can be edited
+ * without a restart. Rendering appends into a per-thread buffer.
+ * --
+ */
+@Service
+public class MailTemplateService implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(MailTemplateService.class);
+
+    private static final String CLASSPATH_ROOT = "mail-templates/";
+
+    // Role and domain come from the applicant; anything else is never looked up as a file
+    private static final Pattern SAFE_PART = Pattern.compile("[A-Za-z0-9+#._ -]{1,64}");
+
+    // Misses for unknown roles/domains are cached only up to this many entries
+    private static final int MAX_CACHED = 1000;
+
+    // Source stamps: modification time of an override file, or one of these
+    private static final long FROM_CLASSPATH = -1;
+    private static final long MISSING = -2;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    @Value("${mail.templates.location:mail-templates}")
+    private String location;
+
+    private Path directory;
+
+    /** Compiled template (null if none exists) and the stamp of its source */
+    private record Entry(MailTemplate template, long stamp) {}
+
+    /** A rendered mail */
+    public record Mail(String subject, String body) {}
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong compiles = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        directory = Path.of(System.getProperty("user.dir")).resolve(location);
+    }
+
+    /**
+     * Renders the most specific template for the role and domain.
+     *
+     * @param values placeholder name/value pairs, e.g. "firstName", app.getFirstName()
+     * @return the mail, or null if no template of this kind applies
+     */
+    public Mail render(String type, String kind, String role, String domain, String... values) {
+        MailTemplate template = find(type, kind, role, domain);
+        if (template == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        renders.incrementAndGet();
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        template.renderSubject(buffer, values);
+        String subject = buffer.toString();
+        buffer.setLength(0);
+        template.renderBody(buffer, values);
+        String body = buffer.toString();
+        // Don't keep an unusually long mail's buffer around
+        if (buffer.capacity() > 64 * 1024) BUFFER.remove();
+        return new Mail(subject, body);
+    }
+
+    /**
+     * Like {@link #render} for mails that must always be sent.
+     *
+     * @throws IllegalStateException if no template of this kind exists
+     */
+    public Mail renderRequired(String type, String kind, String role, String domain, String... values) {
+        Mail mail = render(type, kind, role, domain, values);
+        if (mail == null) throw new IllegalStateException("No mail template " + type + "/" + kind);
+        return mail;
+    }
+
+    private MailTemplate find(String type, String kind, String role, String domain) {
+        List<String> names = new ArrayList<>(3);
+        if (role != null && SAFE_PART.matcher(role).matches() && !role.contains("..")) {
+            String lowerRole = role.toLowerCase(Locale.ROOT);
+            if (domain != null && SAFE_PART.matcher(domain).matches() && !domain.contains("..")) {
+                names.add(type + "/" + kind + "-" + lowerRole + "-" + domain);
+            }
+            names.add(type + "/" + kind + "-" + lowerRole);
+        }
+        names.add(type + "/" + kind);
+        for (String name : names) {
+            Entry entry = cache.get(name);
+            if (entry == null) {
+                entry = load(name);
+                if (entry.template() != null || cache.size() < MAX_CACHED) cache.put(name, entry);
+            }
+            if (entry.template() != null) return entry.template();
+        }
+        return null;
+    }
+
+    private Entry load(String name) {
+        Path file = directory.resolve(name + ".txt");
+        long stamp = stamp(file);
+        if (stamp != MISSING) {
+            try {
+                MailTemplate template = MailTemplate.compile(Files.readString(file, StandardCharsets.UTF_8));
+                compiles.incrementAndGet();
+                return new Entry(template, stamp);
+            } catch (IOException | IllegalArgumentException e) {
+                // Keep serving the packaged text until the file is fixed
+                failures.incrementAndGet();
+                log.warn("Mail template {} could not be compiled, using the packaged one: {}", file, e.getMessage());
+                Entry packaged = loadPackaged(name);
+                return new Entry(packaged.template(), stamp);
+            }
+        }
+        return loadPackaged(name);
+    }
+
+    private Entry loadPackaged(String name) {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(CLASSPATH_ROOT + name + ".txt")) {
+            if (in == null) return new Entry(null, MISSING);
+            MailTemplate template = MailTemplate.compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            compiles.incrementAndGet();
+            return new Entry(template, FROM_CLASSPATH);
+        } catch (IOException | IllegalArgumentException e) {
+            failures.incrementAndGet();
+            log.error("Packaged mail template {} could not be compiled", name, e);
+            return new Entry(null, MISSING);
+        }
+    }
+
+    private static long stamp(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return MISSING;
+        }
+    }
+
+    /**
+     * Recompiles the cached templates whose file in the template directory was
+     * added, changed or removed since it was loaded.
+     */
+    @Scheduled(fixedDelayString = "${mail.templates.reload-interval-millis:10000}")
+    void reload() {
+        cache.forEach((name, entry) -> {
+            long stamp = stamp(directory.resolve(name + ".txt"));
+            // Without a file only an entry that was loaded from one is stale
+            boolean changed = stamp == MISSING ? entry.stamp() >= 0 : stamp != entry.stamp();
+            if (!changed) return;
+            cache.put(name, load(name));
+            reloads.incrementAndGet();
+            log.info("Reloaded mail template {}", name);
+        });
+    }
+
+    @Override
+    public String metricsName() {
+        return "mailTemplates";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("directory", directory.toString());
+        metrics.put("cached", cache.size());
+        metrics.put("renders", renders.get());
+        metrics.put("misses", misses.get());
+        metrics.put("compiles", compiles.get());
+        metrics.put("reloads", reloads.get());
+        metrics.put("failures", failures.get());
+        return metrics;
+    }
+}
@@ -0,0 +1,296 @@
+package com.neb.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.neb.dto.ResumeRef;
+import com.neb.repo.CareerRepository;
+import com.neb.repo.CloudDeveloperRepository;
+import com.neb.repo.DeveloperRepository;
+import com.neb.util.MetricsSource;
+import com.neb.util.ResumeBackfillStep;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bulk reprocessing of the resumes already stored, e.g. after a new
+ * {@link ResumeBackfillStep} such as text extraction was added.
+ * --
+ * Enabled with 'resume.backfill.enabled=true'. After startup a background thread
+ * walks the applications of each type in id order, a batch at a time, and hands
+ * every resume to the configured steps. The resumes of a batch are processed on
+ * virtual threads, at most 'resume.backfill.concurrency' at once, and the start
+ * rate can be capped with 'resume.backfill.max-files-per-second' so the live apply
+ * endpoints keep their share of disk and CPU.
+ * --
+ * After each batch the last processed id per type is written to a checkpoint file,
+ * so a restarted backfill continues where it stopped. The checkpoint records the
+ * step names; changing the steps starts over, and steps skip resumes that are
+ * already up to date. Progress and throughput are published under
+ * 'resumeBackfill' in the metrics.
+ * --
+ */
+@Service
+public class ResumeBackfillService implements ApplicationRunner, MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumeBackfillService.class);
+
+    private static final List<String> TYPES = List.of("career", "developer", "cloud-developer");
+
+    @Autowired
+    private List<ResumeBackfillStep> allSteps;
+
+    @Autowired
+    private ResumeBlobService resumeBlobService;
+
+    @Autowired
+    private CareerRepository careerRepository;
+
+    @Autowired
+    private DeveloperRepository developerRepository;
+
+    @Autowired
+    private CloudDeveloperRepository cloudDeveloperRepository;
+
+    @Value("${resume.backfill.enabled:false}")
+    private boolean enabled;
+
+    @Value("${resume.backfill.steps:}")
+    private List<String> stepNames;
+
+    @Value("${resume.backfill.checkpoint:resume-backfill/checkpoint.properties}")
+    private String checkpointLocation;
+
+    @Value("${resume.backfill.batch-size:200}")
+    private int batchSize;
+
+    @Value("${resume.backfill.concurrency:4}")
+    private int concurrency;
+
+    @Value("${resume.backfill.max-files-per-second:0}")
+    private double maxFilesPerSecond;
+
+    private List<ResumeBackfillStep> steps;
+    private Path checkpointFile;
+    private final Properties checkpoint = new Properties();
+    private Thread runner;
+    private volatile boolean running;
+    private volatile boolean finished;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong upToDate = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!enabled) return;
+        steps = allSteps.stream()
+                .filter(s -> stepNames.isEmpty() || stepNames.contains(s.backfillName()))
+                .toList();
+        if (steps.isEmpty()) {
+            log.warn("Resume backfill enabled but no step matches {}", stepNames);
+            return;
+        }
+        checkpointFile = Path.of(System.getProperty("user.dir")).resolve(checkpointLocation);
+        loadCheckpoint();
+
+        running = true;
+        runner = new Thread(this::backfill, "resume-backfill");
+        runner.setDaemon(true);
+        runner.start();
+    }
+
+    private void backfill() {
+        startedNanos = System.nanoTime();
+        log.info("Resume backfill started with steps {}", stepSignature());
+        try {
+            for (String type : TYPES) {
+                long after = Long.parseLong(checkpoint.getProperty(type, "0"));
+                while (running) {
+                    List<ResumeRef> batch = fetch(type, after);
+                    if (batch.isEmpty()) break;
+                    processBatch(type, batch);
+                    if (!running) return; // interrupted batches are redone after a restart
+                    after = batch.get(batch.size() - 1).id();
+                    checkpoint.setProperty(type, Long.toString(after));
+                    saveCheckpoint();
+                }
+            }
+            if (running) {
+                finished = true;
+                finishedNanos = System.nanoTime();
+                log.info("Resume backfill finished: {} files, {} processed, {} failed, {} files/s, {} MB/s",
+                        files.get(), processed.get(), failed.get(), filesPerSecond(), megabytesPerSecond());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Resume backfill stopped, it continues from the checkpoint on the next start", e);
+        } finally {
+            running = false;
+        }
+    }
+
+    private List<ResumeRef> fetch(String type, long after) {
+        PageRequest page = PageRequest.of(0, batchSize);
+        return switch (type) {
+            case "career" -> careerRepository.findResumesAfter(after, page);
+            case "developer" -> developerRepository.findResumesAfter(after, page);
+            case "cloud-developer" -> cloudDeveloperRepository.findResumesAfter(after, page);
+            default -> List.of();
+        };
+    }
+
+    // Runs the batch on virtual threads, bounded by the semaphore and paced by the
+    // rate limit; returns when every resume of the batch is done
+    private void processBatch(String type, List<ResumeRef> batch) {
+        Semaphore permits = new Semaphore(concurrency);
+        long intervalNanos = maxFilesPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / maxFilesPerSecond) : 0;
+        long next = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ResumeRef ref : batch) {
+                if (!running) break;
+                try {
+                    if (intervalNanos > 0) {
+                        long wait = next - System.nanoTime();
+                        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+                        next = Math.max(next, System.nanoTime() - intervalNanos) + intervalNanos;
+                    }
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                    break;
+                }
+                executor.submit(() -> {
+                    try {
+                        process(type, ref);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void process(String type, ResumeRef ref) {
+        files.incrementAndGet();
+        try {
+            boolean worked = false;
+            for (ResumeBackfillStep step : steps) {
+                worked |= step.backfill(type, ref.id(), ref.fileName());
+            }
+            if (worked) {
+                processed.incrementAndGet();
+                ResumeBlobService.StoredFile stored = resumeBlobService.locate(ref.fileName());
+                if (stored != null) bytes.addAndGet(stored.length());
+            } else {
+                upToDate.incrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Backfill of resume {} of {}:{} failed", ref.fileName(), type, ref.id(), e);
+        }
+    }
+
+    private String stepSignature() {
+        return String.join(",", steps.stream().map(ResumeBackfillStep::backfillName).sorted().toList());
+    }
+
+    private void loadCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) return;
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            checkpoint.load(in);
+        }
+        if (!stepSignature().equals(checkpoint.getProperty("steps"))) {
+            log.info("Resume backfill steps changed from {}, starting over", checkpoint.getProperty("steps"));
+            checkpoint.clear();
+        }
+    }
+
+    private void saveCheckpoint() throws IOException {
+        checkpoint.setProperty("steps", stepSignature());
+        Files.createDirectories(checkpointFile.toAbsolutePath().getParent());
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            checkpoint.store(out, "Resume backfill progress: last processed id per application type");
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stops the backfill after the resumes in progress; the current batch is redone
+     * on the next start.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (runner == null) return;
+        running = false;
+        runner.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private double elapsedSeconds() {
+        if (startedNanos == 0) return 0;
+        long end = finished ? finishedNanos : System.nanoTime();
+        return (end - startedNanos) / 1e9;
+    }
+
+    private double filesPerSecond() {
+        double seconds = elapsedSeconds();
+        return seconds == 0 ? 0 : Math.round(files.get() / seconds * 10) / 10.0;
+    }
+
+    private double megabytesPerSecond() {
+        double seconds = elapsedSeconds();
+        return seconds == 0 ? 0 : Math.round(bytes.get() / (1024.0 * 1024.0) / seconds * 100) / 100.0;
+    }
+
+    @Override
+    public String metricsName() {
+        return "resumeBackfill";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("running", running);
+        metrics.put("finished", finished);
+        metrics.put("steps", steps == null ? List.of() : steps.stream().map(ResumeBackfillStep::backfillName).toList());
+        metrics.put("files", files.get());
+        metrics.put("processed", processed.get());
+        metrics.put("upToDate", upToDate.get());
+        metrics.put("failed", failed.get());
+        metrics.put("bytes", bytes.get());
+        metrics.put("filesPerSecond", filesPerSecond());
+        metrics.put("mbPerSecond", megabytesPerSecond());
+        Map<String, Object> lastIds = new LinkedHashMap<>();
+        for (String type : TYPES) lastIds.put(type, checkpoint.getProperty(type, "0"));
+        metrics.put("checkpoint", lastIds);
+        return metrics;
+    }
+}
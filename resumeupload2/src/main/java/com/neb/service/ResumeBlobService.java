@@ -0,0 +1,544 @@
+package com.neb.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.neb.entity.ResumeBlob;
+import com.neb.exception.FileStorageException;
+import com.neb.repo.ResumeBlobRepository;
+import com.neb.util.MetricsSource;
+import com.neb.util.ResumePackStore;
+import com.neb.util.ResumeStorage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Content-addressed resume storage.
+ * --
+ * Verified resumes are stored once per SHA-256 and the applications reference the
+ * blob name '<sha256>.pdf'. A 'resume_blob' row counts the references; when an
+ * identical resume is already stored the uploaded copy is dropped instead of being
+ * moved into place. Updates for the same hash lock the blob row, so two nodes
+ * verifying the same file cannot both create the blob and a store cannot race the
+ * deletion of the last reference; a striped lock keeps threads of one node from
+ * queueing on the database for the same row. Files of unreferenced blobs are only
+ * deleted after the release has committed.
+ * --
+ * The files themselves live in the configured {@link ResumeStorage}. Blobs are
+ * fanned out over two levels of hex prefix keys ('ab/cd/abcd....pdf') so no
+ * directory grows beyond a few hundred entries. Blobs still lying at the top level
+ * are moved into their shard by a background job in small batches; until then
+ * they are found at the old key.
+ * --
+ * With 'resume.storage.pack.enabled' blobs older than the configured age are moved
+ * into append-only pack segments ('packs' below the storage root) to save inodes
+ * and speed up backups. Packing needs a storage on the local disk. {@link #locate}
+ * hides where a blob lives: it returns the storage key or file plus the offset and
+ * length of the content, which is the whole object for loose blobs.
+ * --
+ */
+@Service
+public class ResumeBlobService implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumeBlobService.class);
+
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}\\.pdf");
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private ResumeBlobRepository blobRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ResumeStorage storage;
+
+    @Value("${resume.storage.reshard-batch-size:500}")
+    private int reshardBatchSize;
+
+    @Value("${resume.storage.pack.enabled:false}")
+    private boolean packEnabled;
+
+    @Value("${resume.storage.pack.min-age-days:30}")
+    private long packMinAgeDays;
+
+    @Value("${resume.storage.pack.segment-size-mb:256}")
+    private long packSegmentSizeMb;
+
+    @Value("${resume.storage.pack.batch-size:200}")
+    private int packBatchSize;
+
+    @Value("${resume.storage.pack.compact-min-live-ratio:0.5}")
+    private double packCompactMinLiveRatio;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong purged = new AtomicLong();
+    private final AtomicLong failedMoves = new AtomicLong();
+    private final AtomicLong resharded = new AtomicLong();
+    private final AtomicLong packMissing = new AtomicLong();
+    private volatile boolean flatTreeMigrated;
+
+    private ResumePackStore packStore;
+
+    /**
+     * Where the content of a stored resume lies: a whole loose object or a range of a
+     * pack segment. 'key' is null for packed resumes, 'path' is null when the object
+     * is not on the local disk.
+     */
+    public record StoredFile(String key, Path path, long offset, long length, long lastModified) {}
+
+    public ResumeBlobService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new ReentrantLock();
+    }
+
+    @PostConstruct
+    void openPacks() throws IOException {
+        if (!packEnabled) return;
+        Path packs = storage.localPath("packs");
+        if (packs == null) {
+            log.warn("resume.storage.pack.enabled is ignored: the resume storage is not on the local disk");
+            return;
+        }
+        packStore = new ResumePackStore(packs, packSegmentSizeMb * 1024 * 1024);
+    }
+
+    @PreDestroy
+    void closePacks() throws IOException {
+        if (packStore != null) packStore.close();
+    }
+
+    /**
+     * Moves a verified resume from the temporary folder into the blob store and
+     * adds a reference to it.
+     *
+     * @param tempFileName name of the resume in the temporary area
+     * @param sha256       digest computed when the resume was ingested
+     * @return the blob name to store on the application
+     */
+    public String store(String tempFileName, String sha256) {
+        return withLock(sha256, () -> inTransaction(() -> link(tempFileName, true, sha256, 1)));
+    }
+
+    /**
+     * Takes an existing file into the blob store, e.g. during the uploads migration.
+     *
+     * @param key    key of the object to adopt; it is moved or, if the content is
+     *               already stored, deleted
+     * @param relink points the existing references to the blob (given its hash) and
+     *               returns how many were updated; runs in the same transaction
+     * @return the blob name
+     */
+    public String adopt(String key, ToIntFunction<String> relink) {
+        String sha256 = hash(key);
+        return withLock(sha256, () -> inTransaction(() -> link(key, false, sha256, relink.applyAsInt(sha256))));
+    }
+
+    /**
+     * Undoes {@link #store} for an application that goes back to pending: copies the
+     * resume back into the temporary area under its former name and drops the reference.
+     *
+     * @return false if the resume could not be copied back; the reference is dropped anyway
+     */
+    public boolean unstore(String blobName, String tempFileName) {
+        try {
+            ByteBuffer content = read(blobName);
+            if (content == null) return false;
+            byte[] bytes = new byte[content.remaining()];
+            content.get(bytes);
+            storage.writeTemp(tempFileName, Channels.newChannel(new ByteArrayInputStream(bytes))).join();
+            return true;
+        } catch (CompletionException | FileStorageException e) {
+            log.warn("Could not put resume {} back into the temporary area as {}", blobName, tempFileName, e);
+            return false;
+        } finally {
+            release(blobName);
+        }
+    }
+
+    /**
+     * Drops one reference to a blob. When none are left the file is deleted once the
+     * transaction that dropped the last reference has committed; a rolled back release
+     * leaves the file in place.
+     */
+    public void release(String blobName) {
+        if (!isBlobName(blobName)) return;
+        String sha256 = blobName.substring(0, 64);
+        withLock(sha256, () -> transactionTemplate.execute(status -> {
+            blobRepository.findForUpdate(sha256).ifPresent(blob -> {
+                blob.setRefCount(blob.getRefCount() - 1);
+                if (blob.getRefCount() <= 0) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            purge(sha256);
+                        }
+                    });
+                }
+            });
+            released.incrementAndGet();
+            return blobName;
+        }));
+    }
+
+    /**
+     * Deletes a blob that has no references left, with its row locked so a concurrent
+     * store on any node waits and then adds the content anew. A store that took the
+     * lock first and referenced the blob again keeps it. A failure leaves the
+     * unreferenced row for the next {@link #purgeUnreferenced} run.
+     */
+    private void purge(String sha256) {
+        String blobName = sha256 + ".pdf";
+        // Runs after the commit of a release, whose transaction is still bound to the thread
+        TransactionTemplate purgeTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        purgeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            withLock(sha256, () -> purgeTransaction.execute(status -> {
+                blobRepository.findForUpdate(sha256).filter(b -> b.getRefCount() <= 0).ifPresent(blob -> {
+                    blobRepository.delete(blob);
+                    if (packStore != null) packStore.delete(sha256);
+                    try {
+                        storage.delete(shardKey(blobName));
+                        storage.delete(blobName);
+                    } catch (IOException e) {
+                        throw new FileStorageException("Could not delete resume " + blobName, e);
+                    }
+                    purged.incrementAndGet();
+                });
+                return blobName;
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Could not delete unreferenced resume {}, will retry", blobName, e);
+        }
+    }
+
+    /**
+     * Deletes blobs left unreferenced by a release whose deletion did not run, e.g.
+     * because the node stopped right after the commit.
+     */
+    @Scheduled(fixedDelayString = "${resume.storage.purge-interval-millis:3600000}")
+    public void purgeUnreferenced() {
+        for (ResumeBlob blob : blobRepository.findByRefCountLessThanEqual(0, PageRequest.of(0, packBatchSize))) {
+            purge(blob.getSha256());
+        }
+    }
+
+    /**
+     * Storage key of a stored resume. Blob names resolve into their shard, unless the
+     * blob has not been moved there yet; legacy names resolve to the top level.
+     */
+    public String resolve(String fileName) {
+        if (!isBlobName(fileName)) return fileName;
+        String sharded = shardKey(fileName);
+        if (storage.stat(sharded) == null && storage.stat(fileName) != null) return fileName;
+        return sharded;
+    }
+
+    /**
+     * Locates the content of a stored resume, whether loose or packed.
+     *
+     * @return the location, or null if the resume does not exist
+     */
+    public StoredFile locate(String fileName) {
+        if (packStore != null && isBlobName(fileName)) {
+            ResumePackStore.Location packed = packStore.locate(fileName.substring(0, 64));
+            if (packed != null) {
+                // Packed resumes are always blobs, whose name carries the hash used as ETag
+                return new StoredFile(null, packStore.segmentPath(packed.segment()), packed.offset(), packed.length(), 0);
+            }
+        }
+        String key = resolve(fileName);
+        ResumeStorage.ObjectInfo info = storage.stat(key);
+        if (info == null) return null;
+        return new StoredFile(key, storage.localPath(key), 0, info.size(), info.lastModified());
+    }
+
+    /**
+     * Returns the content of a stored resume, or null if the resume does not exist.
+     * Local files are memory mapped read-only; remote objects are copied to the heap.
+     */
+    public ByteBuffer read(String fileName) {
+        StoredFile stored = locate(fileName);
+        if (stored == null) return null;
+        if (stored.key() == null) return packStore.read(fileName.substring(0, 64));
+        if (stored.path() != null) {
+            try (FileChannel in = FileChannel.open(stored.path(), StandardOpenOption.READ)) {
+                return in.map(FileChannel.MapMode.READ_ONLY, 0, stored.length());
+            } catch (IOException e) {
+                throw new FileStorageException("Could not read resume " + fileName, e);
+            }
+        }
+        try (ReadableByteChannel in = storage.open(stored.key())) {
+            ByteBuffer content = ByteBuffer.allocate(Math.toIntExact(stored.length()));
+            while (content.hasRemaining() && in.read(content) >= 0) {
+                // keep reading
+            }
+            return content.flip().asReadOnlyBuffer();
+        } catch (IOException e) {
+            throw new FileStorageException("Could not read resume " + fileName, e);
+        }
+    }
+
+    /**
+     * Opens the content of a stored object for reading.
+     */
+    public ReadableByteChannel open(String key) throws IOException {
+        return storage.open(key);
+    }
+
+    private boolean exists(String blobName) {
+        return storage.stat(resolve(blobName)) != null
+                || (packStore != null && packStore.locate(blobName.substring(0, 64)) != null);
+    }
+
+    // ab/cd/abcd....pdf
+    private static String shardKey(String blobName) {
+        return blobName.substring(0, 2) + "/" + blobName.substring(2, 4) + "/" + blobName;
+    }
+
+    /**
+     * Moves blobs left at the top level of the storage into their shard, a batch per
+     * run. Stops scanning once a run finds nothing left to move.
+     */
+    @Scheduled(fixedDelayString = "${resume.storage.reshard-interval-millis:60000}")
+    public void reshard() {
+        if (flatTreeMigrated) return;
+        int moved = 0;
+        try {
+            for (ResumeStorage.ObjectInfo object : storage.listTopLevel()) {
+                String name = object.name();
+                if (!isBlobName(name)) continue;
+                withLock(name.substring(0, 64), () -> moveIntoShard(name));
+                if (++moved == reshardBatchSize) return;
+            }
+        } catch (IOException | FileStorageException e) {
+            log.warn("Moving flat resumes into shards failed, will retry", e);
+            return;
+        }
+        flatTreeMigrated = true;
+        if (moved > 0) log.info("Flat uploads tree migrated, {} blobs moved into shards in total", resharded.get());
+    }
+
+    private String moveIntoShard(String blobName) {
+        String target = shardKey(blobName);
+        try {
+            storage.move(blobName, target);
+            resharded.incrementAndGet();
+            return target;
+        } catch (IOException e) {
+            failedMoves.incrementAndGet();
+            throw new FileStorageException("Could not move resume " + blobName + " into its shard", e);
+        }
+    }
+
+    /**
+     * Moves loose blobs older than the configured age into the pack segments.
+     */
+    @Scheduled(fixedDelayString = "${resume.storage.pack.interval-millis:3600000}")
+    public void packColdBlobs() {
+        if (packStore == null) return;
+        Instant cutoff = Instant.now().minus(Duration.ofDays(packMinAgeDays));
+        List<ResumeBlob> cold = blobRepository.findByPackedFalseAndCreatedAtBefore(cutoff, PageRequest.of(0, packBatchSize));
+        for (ResumeBlob blob : cold) {
+            String blobName = blob.getSha256() + ".pdf";
+            withLock(blob.getSha256(), () -> {
+                Path loose = storage.localPath(resolve(blobName));
+                if (!Files.exists(loose)) {
+                    // Already packed before a crash, or lost; either way the row is taken out
+                    // of the candidates so the same rows are not selected on every run.
+                    // A loose copy that turns up later is still found by locate()
+                    if (packStore.locate(blob.getSha256()) == null) {
+                        packMissing.incrementAndGet();
+                        log.warn("Resume {} has no loose copy to pack", blobName);
+                    }
+                    markPacked(blob.getSha256());
+                    return null;
+                }
+                packStore.append(blob.getSha256(), loose);
+                packStore.force();
+                markPacked(blob.getSha256());
+                try {
+                    Files.delete(loose);
+                } catch (IOException e) {
+                    log.warn("Packed resume {} but could not delete the loose copy", blobName, e);
+                }
+                return null;
+            });
+        }
+        if (!cold.isEmpty()) log.info("Packed {} cold resumes", cold.size());
+    }
+
+    private void markPacked(String sha256) {
+        transactionTemplate.executeWithoutResult(status -> {
+            blobRepository.findById(sha256).ifPresent(b -> b.setPacked(true));
+        });
+    }
+
+    /**
+     * Rewrites pack segments that are mostly made of deleted resumes.
+     */
+    @Scheduled(fixedDelayString = "${resume.storage.pack.interval-millis:3600000}")
+    public void compactPacks() {
+        if (packStore == null) return;
+        int compacted = packStore.compact(packCompactMinLiveRatio);
+        if (compacted > 0) log.info("Compacted {} resume pack segments", compacted);
+    }
+
+    /** Bytes not stored because an identical resume was already present */
+    public long bytesSaved() {
+        return bytesSaved.get();
+    }
+
+    /** Whether a file name is a blob name rather than a legacy upload name */
+    public static boolean isBlobName(String fileName) {
+        return fileName != null && BLOB_NAME.matcher(fileName).matches();
+    }
+
+    // Adds references to the blob with this content, moving the object into place
+    // unless an identical one is already stored. The source is either a temporary
+    // object or a permanent key (migration). The blob row is locked, or inserted and
+    // flushed, before any file is touched, so a release or purge on another node
+    // cannot delete the file in between.
+    private String link(String source, boolean fromTemp, String sha256, int references) {
+        String blobName = sha256 + ".pdf";
+        String blob = shardKey(blobName);
+        try {
+            ResumeStorage.ObjectInfo info = fromTemp ? storage.statTemp(source) : storage.stat(source);
+            if (info == null) throw new IOException("Resume " + source + " does not exist");
+            long size = info.size();
+            ResumeBlob entry = blobRepository.findForUpdate(sha256).orElse(null);
+            if (entry != null) {
+                entry.setRefCount(entry.getRefCount() + references);
+            } else {
+                entry = new ResumeBlob();
+                entry.setSha256(sha256);
+                entry.setSize(size);
+                entry.setRefCount(references);
+                entry.setCreatedAt(Instant.now());
+                blobRepository.saveAndFlush(entry);
+            }
+            if (entry.getRefCount() > references && exists(blobName)) {
+                if (fromTemp) storage.deleteTemp(source); else storage.delete(source);
+                deduplicated.incrementAndGet();
+                bytesSaved.addAndGet(size);
+            } else {
+                if (fromTemp) promote(source, blob); else storage.move(source, blob);
+                stored.incrementAndGet();
+            }
+            return blobName;
+        } catch (IOException e) {
+            failedMoves.incrementAndGet();
+            throw new FileStorageException("Could not store resume " + source, e);
+        }
+    }
+
+    private void promote(String tempName, String key) throws IOException {
+        try {
+            storage.promote(tempName, key).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw e;
+        }
+    }
+
+    // Two nodes storing the same new content race on inserting its row. The loser's
+    // insert fails on the primary key before its file was moved, and the retry finds
+    // the winner's row and deduplicates against it
+    private String inTransaction(Supplier<String> link) {
+        try {
+            return transactionTemplate.execute(status -> link.get());
+        } catch (DataIntegrityViolationException e) {
+            return transactionTemplate.execute(status -> link.get());
+        }
+    }
+
+    // Serializes the work on one hash within this node; across nodes the blob row lock does
+    private <T> T withLock(String sha256, Supplier<T> action) {
+        ReentrantLock lock = locks[Math.floorMod(sha256.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String hash(String key) {
+        try (ReadableByteChannel in = storage.open(key)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new FileStorageException("Could not read resume " + key, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "resumeBlobs";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("blobs", blobRepository.count());
+        metrics.put("stored", stored.get());
+        metrics.put("deduplicated", deduplicated.get());
+        metrics.put("bytesSaved", bytesSaved.get());
+        metrics.put("released", released.get());
+        metrics.put("purged", purged.get());
+        metrics.put("failedMoves", failedMoves.get());
+        metrics.put("resharded", resharded.get());
+        metrics.put("packMissing", packMissing.get());
+        metrics.put("flatTreeMigrated", flatTreeMigrated);
+        if (packStore != null) metrics.put("packs", packStore.metrics());
+        return metrics;
+    }
+}
@@ -0,0 +1,71 @@
+package com.neb.service;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.neb.repo.CareerRepository;
+import com.neb.repo.CloudDeveloperRepository;
+import com.neb.repo.DeveloperRepository;
+import com.neb.util.ResumeStorage;
+
+/**
+ * One-off migration of the legacy 'uploads' tree into the content-addressed store.
+ * --
+ * Enabled with 'resume.storage.dedup-migration=true'. On startup every object at
+ * the top level of the resume storage that is not yet a blob is hashed; the first copy of each content is
+ * renamed to its blob name, later copies are deleted, and the applications that
+ * referenced any of the copies are pointed at the blob. The migration is
+ * idempotent, so it can be left enabled for one restart and then switched off.
+ * --
+ */
+@Component
+@ConditionalOnProperty(name = "resume.storage.dedup-migration", havingValue = "true")
+public class ResumeDedupMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumeDedupMigration.class);
+
+    @Autowired
+    private ResumeBlobService resumeBlobService;
+
+    @Autowired
+    private ResumeStorage resumeStorage;
+
+    @Autowired
+    private CareerRepository careerRepository;
+
+    @Autowired
+    private DeveloperRepository developerRepository;
+
+    @Autowired
+    private CloudDeveloperRepository cloudDeveloperRepository;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<ResumeStorage.ObjectInfo> legacy = resumeStorage.listTopLevel().stream()
+                .filter(o -> !ResumeBlobService.isBlobName(o.name()))
+                .toList();
+        long savedBefore = resumeBlobService.bytesSaved();
+
+        for (ResumeStorage.ObjectInfo object : legacy) {
+            String name = object.name();
+            String blobName = resumeBlobService.adopt(name, sha256 -> {
+                String blob = sha256 + ".pdf";
+                return careerRepository.relinkResume(name, blob, sha256)
+                        + developerRepository.relinkResume(name, blob, sha256)
+                        + cloudDeveloperRepository.relinkResume(name, blob, sha256);
+            });
+            log.debug("Adopted {} as {}", name, blobName);
+        }
+
+        log.info("Resume dedup migration: {} legacy files, {} bytes reclaimed",
+                legacy.size(), resumeBlobService.bytesSaved() - savedBefore);
+    }
+}
@@ -0,0 +1,242 @@
+package com.neb.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.neb.repo.CareerRepository;
+import com.neb.repo.CloudDeveloperRepository;
+import com.neb.repo.DeveloperRepository;
+import com.neb.util.MetricsSource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves stored resumes by application id.
+ * --
+ * The file is handed to Tomcat's sendfile support when the connector offers it,
+ * so the bytes go from the page cache to the socket without passing through the
+ * heap; otherwise it is copied with FileChannel.transferTo. Resumes kept by a
+ * remote storage backend are streamed through a buffer. Single byte ranges
+ * ('Range: bytes=a-b') are answered with 206, and the resume hash is used as
+ * ETag so 'If-None-Match' and 'If-Range' revalidations avoid a full download.
+ * Legacy uploads without a hash get a weak ETag, which 'If-Range' does not accept.
+ * --
+ */
+@Service
+public class ResumeDownloadService implements MetricsSource {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d{0,18})-(\\d{0,18})");
+
+    @Autowired
+    private CareerRepository careerRepository;
+
+    @Autowired
+    private DeveloperRepository developerRepository;
+
+    @Autowired
+    private CloudDeveloperRepository cloudDeveloperRepository;
+
+    @Autowired
+    private ResumeBlobService resumeBlobService;
+
+    private final AtomicLong sendfile = new AtomicLong();
+    private final AtomicLong transferred = new AtomicLong();
+    private final AtomicLong streamed = new AtomicLong();
+    private final AtomicLong partial = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+
+    /** Location and hash of a stored resume */
+    private record StoredResume(String fileName, String sha256) {}
+
+    /**
+     * Writes the resume of an application to the response.
+     *
+     * @param type 'career', 'developer' or 'cloud-developer'
+     * @param id   application id
+     */
+    public void send(String type, Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<StoredResume> stored = lookup(type, id);
+        ResumeBlobService.StoredFile content = stored.map(s -> resumeBlobService.locate(s.fileName())).orElse(null);
+        if (content == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Resume not found");
+            return;
+        }
+
+        // Packed resumes are a range of a segment file; 'base' is where the content starts
+        Path file = content.path();
+        long base = content.offset();
+        long length = content.length();
+        String etag = etag(stored.get(), content);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            notModified.incrementAndGet();
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // If-Range needs a strong comparison: a weak ETag never validates a partial response
+        boolean strong = !etag.startsWith("W/");
+        if (range != null && (ifRange == null || (strong && ifRange.equals(etag)))) {
+            Matcher m = SINGLE_RANGE.matcher(range.trim());
+            // Multiple ranges are not supported: the whole file is sent instead
+            if (m.matches() && !(m.group(1).isEmpty() && m.group(2).isEmpty())) {
+                if (m.group(1).isEmpty()) {
+                    start = Math.max(0, length - Long.parseLong(m.group(2)));
+                } else {
+                    start = Long.parseLong(m.group(1));
+                    if (!m.group(2).isEmpty()) end = Math.min(end, Long.parseLong(m.group(2)));
+                }
+                if (start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                partial.incrementAndGet();
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType("application/pdf");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"resume-" + type + "-" + id + ".pdf\"");
+        response.setContentLengthLong(count);
+        bytesServed.addAndGet(count);
+
+        if ("HEAD".equals(request.getMethod())) return;
+
+        if (file == null) {
+            stream(content.key(), start, count, response);
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file itself after the request returns; the end offset is exclusive
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, base + start);
+            request.setAttribute(SENDFILE_END, base + end + 1);
+            sendfile.incrementAndGet();
+            return;
+        }
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = base + start;
+            while (position <= base + end) {
+                position += in.transferTo(position, base + end + 1 - position, target);
+            }
+            transferred.incrementAndGet();
+        }
+    }
+
+    // Copies a range of an object that is not on the local disk
+    private void stream(String key, long start, long count, HttpServletResponse response) throws IOException {
+        try (ReadableByteChannel in = resumeBlobService.open(key)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long skipped = 0;
+            long written = 0;
+            while (written < count) {
+                buffer.clear();
+                int read = in.read(buffer);
+                if (read < 0) break;
+                buffer.flip();
+                if (skipped < start) {
+                    int skip = (int) Math.min(read, start - skipped);
+                    skipped += skip;
+                    buffer.position(skip);
+                }
+                if (buffer.remaining() > count - written) buffer.limit(buffer.position() + (int) (count - written));
+                written += buffer.remaining();
+                while (buffer.hasRemaining()) target.write(buffer);
+            }
+            streamed.incrementAndGet();
+        }
+    }
+
+    // The content hash when it is known, from the application or the blob name; only legacy
+    // uploads without a hash get a weak tag from their size and modification time
+    private static String etag(StoredResume stored, ResumeBlobService.StoredFile content) {
+        String sha256 = stored.sha256();
+        if (sha256 == null && ResumeBlobService.isBlobName(stored.fileName())) sha256 = stored.fileName().substring(0, 64);
+        if (sha256 != null) return "\"" + sha256 + "\"";
+        return "W/\"" + content.length() + "-" + content.lastModified() + "\"";
+    }
+
+    private Optional<StoredResume> lookup(String type, Long id) {
+        Optional<StoredResume> stored = switch (type) {
+            case "career" -> careerRepository.findById(id)
+                    .map(a -> new StoredResume(a.getResumeFileName(), a.getResumeSha256()));
+            case "developer" -> developerRepository.findById(id)
+                    .map(a -> new StoredResume(a.getResumePath(), a.getResumeSha256()));
+            case "cloud-developer" -> cloudDeveloperRepository.findById(id)
+                    .map(a -> new StoredResume(a.getResumePath(), a.getResumeSha256()));
+            default -> Optional.empty();
+        };
+        return stored.filter(s -> s.fileName() != null);
+    }
+
+    // Weak comparison as required for If-None-Match; also accepts '*' and lists
+    private static boolean matches(String header, String etag) {
+        if (header == null) return false;
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(opaque)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String metricsName() {
+        return "resumeDownloads";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("sendfile", sendfile.get());
+        metrics.put("transferTo", transferred.get());
+        metrics.put("streamed", streamed.get());
+        metrics.put("partial", partial.get());
+        metrics.put("notModified", notModified.get());
+        metrics.put("bytesServed", bytesServed.get());
+        return metrics;
+    }
+}
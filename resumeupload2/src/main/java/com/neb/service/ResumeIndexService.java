@@ -0,0 +1,294 @@
+package com.neb.service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.neb.repo.CareerRepository;
+import com.neb.repo.CloudDeveloperRepository;
+import com.neb.repo.DeveloperRepository;
+import com.neb.util.MetricsSource;
+import com.neb.util.ResumeBackfillStep;
+import com.neb.util.ResumeIndex;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Full-text search over the verified resumes.
+ * --
+ * Verified applications are queued for indexing; a background worker reads the
+ * stored PDF, extracts its text with PDFBox and adds it to the in-process
+ * {@link ResumeIndex} under the key '<type>:<id>', where type is 'career',
+ * 'developer' or 'cloud-developer' as in the download endpoint. When the queue is
+ * full the job is dropped and counted. The index is saved to disk periodically and
+ * on shutdown, and loaded at startup. Resumes verified before the index existed
+ * are picked up by the backfill through the 'index' step.
+ * --
+ * The worker is a platform thread: text extraction is CPU-bound and would only
+ * hold a carrier thread in virtual-thread mode.
+ * --
+ */
+@Service
+public class ResumeIndexService implements MetricsSource, ResumeBackfillStep {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumeIndexService.class);
+
+    @Autowired
+    private ResumeBlobService resumeBlobService;
+
+    @Autowired
+    private CareerRepository careerRepository;
+
+    @Autowired
+    private DeveloperRepository developerRepository;
+
+    @Autowired
+    private CloudDeveloperRepository cloudDeveloperRepository;
+
+    @Value("${resume.index.location:resume-index/resumes.idx}")
+    private String location;
+
+    @Value("${resume.index.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${resume.index.max-text-chars:200000}")
+    private int maxTextChars;
+
+    @Value("${resume.index.max-results:100}")
+    private int maxResults;
+
+    private Path indexFile;
+    private volatile ResumeIndex index = new ResumeIndex();
+    private BlockingQueue<IndexJob> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong extractNanos = new AtomicLong();
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong searchNanos = new AtomicLong();
+
+    /** A resume waiting to be indexed */
+    private record IndexJob(String type, Long id, String fileName) {}
+
+    @PostConstruct
+    void start() {
+        indexFile = Path.of(System.getProperty("user.dir")).resolve(location);
+        if (Files.exists(indexFile)) {
+            long started = System.nanoTime();
+            try {
+                index = ResumeIndex.load(indexFile);
+                log.info("Loaded resume index in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            } catch (IOException e) {
+                log.warn("Could not load resume index {}, starting empty", indexFile, e);
+            }
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::indexLoop, "resume-index");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queues the resume of a verified application for indexing.
+     *
+     * @param type     'career', 'developer' or 'cloud-developer'
+     * @param id       application id
+     * @param fileName stored resume name as kept on the application
+     * @return false if the queue is full or stopped
+     */
+    public boolean submit(String type, Long id, String fileName) {
+        if (id == null || fileName == null) return false;
+        if (!running || !queue.offer(new IndexJob(type, id, fileName))) {
+            dropped.incrementAndGet();
+            log.warn("Resume index queue full or stopped, not indexing {}:{}", type, id);
+            return false;
+        }
+        queued.incrementAndGet();
+        return true;
+    }
+
+    /** Whether the resume of an application is already in the index */
+    public boolean isIndexed(String type, Long id) {
+        return index.contains(type + ":" + id);
+    }
+
+    private void indexLoop() {
+        while (running || !queue.isEmpty()) {
+            IndexJob job;
+            try {
+                job = queue.poll(250, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (job != null) index(job);
+        }
+    }
+
+    private void index(IndexJob job) {
+        try {
+            indexNow(job.type(), job.id(), job.fileName());
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Could not index resume {} of {}:{}", job.fileName(), job.type(), job.id(), e);
+        }
+    }
+
+    private void indexNow(String type, Long id, String fileName) throws IOException {
+        ByteBuffer content = resumeBlobService.read(fileName);
+        if (content == null) throw new FileNotFoundException("Resume " + fileName + " not found");
+        long started = System.nanoTime();
+        String text = extractText(content);
+        extractNanos.addAndGet(System.nanoTime() - started);
+        index.put(type + ":" + id, text);
+        indexed.incrementAndGet();
+    }
+
+    @Override
+    public String backfillName() {
+        return "index";
+    }
+
+    @Override
+    public boolean backfill(String type, Long id, String fileName) throws IOException {
+        if (isIndexed(type, id)) return false;
+        indexNow(type, id, fileName);
+        return true;
+    }
+
+    private String extractText(ByteBuffer content) throws IOException {
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(content))) {
+            String text = new PDFTextStripper().getText(document);
+            return text.length() > maxTextChars ? text.substring(0, maxTextChars) : text;
+        }
+    }
+
+    /**
+     * Finds the applications whose resumes best match a free-text query.
+     *
+     * @return type, id, score and contact details per hit, best match first
+     */
+    public List<Map<String, Object>> search(String query, int limit) {
+        long started = System.nanoTime();
+        List<ResumeIndex.Hit> hits = index.search(query, Math.min(limit, maxResults));
+
+        // Load the applications with one query per type
+        Map<String, List<Long>> idsByType = new HashMap<>();
+        for (ResumeIndex.Hit hit : hits) {
+            int colon = hit.key().indexOf(':');
+            idsByType.computeIfAbsent(hit.key().substring(0, colon), t -> new ArrayList<>())
+                    .add(Long.valueOf(hit.key().substring(colon + 1)));
+        }
+        Map<String, Map<String, Object>> applicants = new HashMap<>();
+        idsByType.forEach((type, ids) -> {
+            switch (type) {
+                case "career" -> careerRepository.findAllById(ids).forEach(a -> applicants.put("career:" + a.getId(),
+                        applicant(a.getFirstName(), a.getLastName(), a.getEmail(), a.getRole(), a.getDomain())));
+                case "developer" -> developerRepository.findAllById(ids).forEach(a -> applicants.put("developer:" + a.getId(),
+                        applicant(a.getFirstName(), a.getLastName(), a.getEmail(), a.getRole(), a.getDomain())));
+                case "cloud-developer" -> cloudDeveloperRepository.findAllById(ids).forEach(a -> applicants.put("cloud-developer:" + a.getId(),
+                        applicant(a.getFirstName(), a.getLastName(), a.getEmail(), a.getRole(), a.getDomain())));
+                default -> { }
+            }
+        });
+
+        List<Map<String, Object>> results = new ArrayList<>(hits.size());
+        for (ResumeIndex.Hit hit : hits) {
+            Map<String, Object> applicant = applicants.get(hit.key());
+            if (applicant == null) continue; // application deleted since it was indexed
+            int colon = hit.key().indexOf(':');
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("type", hit.key().substring(0, colon));
+            result.put("id", Long.valueOf(hit.key().substring(colon + 1)));
+            result.put("score", Math.round(hit.score() * 1000) / 1000.0);
+            result.putAll(applicant);
+            results.add(result);
+        }
+        searches.incrementAndGet();
+        searchNanos.addAndGet(System.nanoTime() - started);
+        return results;
+    }
+
+    private static Map<String, Object> applicant(String firstName, String lastName, String email, String role, String domain) {
+        Map<String, Object> applicant = new LinkedHashMap<>();
+        applicant.put("firstName", firstName);
+        applicant.put("lastName", lastName);
+        applicant.put("email", email);
+        applicant.put("role", role);
+        applicant.put("domain", domain);
+        return applicant;
+    }
+
+    /**
+     * Saves the index if it changed since the last save.
+     */
+    @Scheduled(fixedDelayString = "${resume.index.flush-interval-millis:60000}")
+    public void flush() {
+        if (!index.isDirty()) return;
+        try {
+            index.save(indexFile);
+        } catch (IOException e) {
+            log.warn("Could not save resume index {}", indexFile, e);
+        }
+    }
+
+    /**
+     * Stops the worker after the queued resumes are indexed and saves the index.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+        worker.interrupt();
+        flush();
+    }
+
+    @Override
+    public String metricsName() {
+        return "resumeIndex";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>(index.metrics());
+        metrics.put("queueSize", queue.size());
+        metrics.put("queued", queued.get());
+        metrics.put("indexed", indexed.get());
+        metrics.put("failed", failed.get());
+        metrics.put("dropped", dropped.get());
+        long done = indexed.get();
+        metrics.put("avgExtractMillis", done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(extractNanos.get() / done));
+        long count = searches.get();
+        metrics.put("searches", count);
+        metrics.put("avgSearchMicros", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(searchNanos.get() / count));
+        return metrics;
+    }
+}
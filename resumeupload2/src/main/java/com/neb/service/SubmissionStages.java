@@ -0,0 +1,127 @@
+package com.neb.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.neb.exception.StageOverloadedException;
+import com.neb.util.MetricsSource;
+import com.neb.util.StageLimiter;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * The stages of the apply and verify flows, each with its own worker budget and
+ * bounded queue (see {@link StageLimiter}).
+ * --
+ * validate - request checks and the verification code check
+ * store    - writing the upload to the temp area, moving it into the resume store
+ * register - pending-store insert and code generation; the database transaction on verify
+ * notify   - handing the verification mail to the mail dispatcher
+ * --
+ * A slow stage, e.g. a busy disk under 'store', fills only its own queue; further
+ * requests for it get 503 with Retry-After while the other stages keep serving.
+ * On apply, a submission turned away by 'register' or 'notify' removes what the
+ * earlier stages left behind (temp upload, pending entry) right away. On verify
+ * 'register' and 'store' are entered before the pending application is claimed,
+ * so an overload never leaves a half-finished verification behind and the
+ * applicant can retry with the same code. Wait and run time
+ * histograms per stage are published under 'submissionStages' in the metrics.
+ * --
+ */
+@Service
+public class SubmissionStages implements MetricsSource {
+
+    @Value("${submission.stages.validate.workers:64}")
+    private int validateWorkers;
+
+    @Value("${submission.stages.validate.queue-capacity:256}")
+    private int validateQueue;
+
+    @Value("${submission.stages.store.workers:8}")
+    private int storeWorkers;
+
+    @Value("${submission.stages.store.queue-capacity:32}")
+    private int storeQueue;
+
+    @Value("${submission.stages.register.workers:16}")
+    private int registerWorkers;
+
+    @Value("${submission.stages.register.queue-capacity:64}")
+    private int registerQueue;
+
+    @Value("${submission.stages.notify.workers:8}")
+    private int notifyWorkers;
+
+    @Value("${submission.stages.notify.queue-capacity:64}")
+    private int notifyQueue;
+
+    @Value("${submission.stages.max-wait-millis:2000}")
+    private long maxWaitMillis;
+
+    @Value("${submission.stages.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    private final Map<String, StageLimiter> stages = new LinkedHashMap<>();
+
+    /** Work of a stage that returns a value */
+    @FunctionalInterface
+    public interface StageTask<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @PostConstruct
+    void init() {
+        add("validate", validateWorkers, validateQueue);
+        add("store", storeWorkers, storeQueue);
+        add("register", registerWorkers, registerQueue);
+        add("notify", notifyWorkers, notifyQueue);
+    }
+
+    private void add(String name, int workers, int queueCapacity) {
+        stages.put(name, new StageLimiter(name, workers, queueCapacity, maxWaitMillis, retryAfterSeconds));
+    }
+
+    /**
+     * Enters a stage; use in try-with-resources around the work of the stage.
+     *
+     * @throws com.neb.exception.StageOverloadedException if the stage is overloaded
+     */
+    public StageLimiter.Permit enter(String stage) {
+        return stages.get(stage).enter();
+    }
+
+    /**
+     * Enters a stage like {@link #enter(String)}, but runs the cleanup before the
+     * overload is rethrown, e.g. to drop what earlier stages of the request left behind.
+     */
+    public StageLimiter.Permit enter(String stage, Runnable onOverload) {
+        try {
+            return enter(stage);
+        } catch (StageOverloadedException e) {
+            onOverload.run();
+            throw e;
+        }
+    }
+
+    /** Runs the task within the stage and returns its result */
+    public <T, E extends Exception> T call(String stage, StageTask<T, E> task) throws E {
+        try (StageLimiter.Permit permit = enter(stage)) {
+            return task.call();
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "submissionStages";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        stages.forEach((name, stage) -> metrics.put(name, stage.metrics()));
+        return metrics;
+    }
+}
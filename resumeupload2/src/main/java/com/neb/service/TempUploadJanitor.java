@@ -0,0 +1,161 @@
+package com.neb.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.neb.entity.CareerApplication;
+import com.neb.entity.CloudDeveloper;
+import com.neb.entity.DeveloperApplication;
+import com.neb.util.MetricsSource;
+import com.neb.util.PendingStoreRegistry;
+import com.neb.util.ResumeStorage;
+
+/**
+ * Removes orphaned resumes from the temporary area of the {@link ResumeStorage}.
+ * --
+ * A resume stays in the temporary area until its application is verified. Files
+ * of abandoned applications are deleted once they are older than the configured
+ * minimum age (longer than the pending-application expiry) and no live pending
+ * entry references them. Deletes run in batches with a pause in between so a large
+ * backlog does not saturate the disk.
+ * --
+ */
+@Service
+public class TempUploadJanitor implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(TempUploadJanitor.class);
+
+    @Autowired
+    private PendingStoreRegistry pendingStoreRegistry;
+
+    @Autowired
+    private ResumeStorage resumeStorage;
+
+    @Value("${uploads.temp.janitor.min-age-minutes:15}")
+    private long minAgeMinutes;
+
+    @Value("${uploads.temp.janitor.batch-size:100}")
+    private int batchSize;
+
+    @Value("${uploads.temp.janitor.batch-pause-millis:100}")
+    private long batchPauseMillis;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+    private final AtomicLong failedDeletes = new AtomicLong();
+    private final AtomicLong skippedLive = new AtomicLong();
+    private volatile long tempFiles;
+    private volatile long tempBytes;
+
+    /** An old object in the temporary area */
+    private record Candidate(String name, long size) {}
+
+    /**
+     * Deletes expired temporary resumes.
+     */
+    @Scheduled(fixedDelayString = "${uploads.temp.janitor.interval-millis:300000}")
+    public void sweep() {
+        runs.incrementAndGet();
+
+        List<Candidate> candidates = new ArrayList<>();
+        long cutoff = System.currentTimeMillis() - minAgeMinutes * 60_000;
+        long files = 0;
+        long bytes = 0;
+        try {
+            for (ResumeStorage.ObjectInfo object : resumeStorage.listTemp()) {
+                files++;
+                bytes += object.size();
+                if (object.lastModified() < cutoff) candidates.add(new Candidate(object.name(), object.size()));
+            }
+        } catch (IOException e) {
+            log.warn("Could not list the temporary resumes", e);
+            return;
+        }
+        tempFiles = files;
+        tempBytes = bytes;
+        if (candidates.isEmpty()) return;
+
+        Set<String> live = liveTempFiles();
+        int inBatch = 0;
+        long reclaimed = 0;
+        for (Candidate candidate : candidates) {
+            if (live.contains(candidate.name())) {
+                skippedLive.incrementAndGet();
+                continue;
+            }
+            try {
+                if (resumeStorage.deleteTemp(candidate.name())) {
+                    deleted.incrementAndGet();
+                    reclaimed += candidate.size();
+                }
+            } catch (IOException e) {
+                failedDeletes.incrementAndGet();
+                log.warn("Could not delete orphaned resume {}", candidate.name(), e);
+            }
+            if (++inBatch == batchSize) {
+                inBatch = 0;
+                if (!pause()) break;
+            }
+        }
+        reclaimedBytes.addAndGet(reclaimed);
+        tempBytes -= reclaimed;
+        if (reclaimed > 0) log.info("Removed orphaned temporary resumes, reclaimed {} bytes", reclaimed);
+    }
+
+    // Names of the temporary files still referenced by pending applications
+    private Set<String> liveTempFiles() {
+        Set<String> live = new HashSet<>();
+        pendingStoreRegistry.forEachLiveValue(value -> {
+            String fileName = switch (value) {
+                case CareerApplication app -> app.getResumeFileName();
+                case DeveloperApplication app -> app.getResumePath();
+                case CloudDeveloper app -> app.getResumePath();
+                default -> null;
+            };
+            if (fileName != null) live.add(fileName);
+        });
+        return live;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "tempUploads";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("files", tempFiles);
+        metrics.put("bytes", tempBytes);
+        metrics.put("runs", runs.get());
+        metrics.put("deleted", deleted.get());
+        metrics.put("reclaimedBytes", reclaimedBytes.get());
+        metrics.put("failedDeletes", failedDeletes.get());
+        metrics.put("skippedLive", skippedLive.get());
+        return metrics;
+    }
+}
@@ -1,9 +1,12 @@
 package com.neb.service;
 //verification service class
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.neb.util.VerificationCodeStrategy;
+import com.neb.util.VerificationCodeStrategyFactory;
+
+import jakarta.annotation.PostConstruct;
 
 /**
  * Service to manage email verification codes for user authentication and validation.
@@ -11,23 +14,18 @@ import java.util.Map;
 @Service
 public class VerificationService {
     
-	// Stores verification codes mapped by email
-    private final Map<String, VerificationEntry> verificationCodes = new HashMap<>();
+    @Autowired
+    private VerificationCodeStrategyFactory verificationCodeStrategyFactory;
+
+	// Issues and checks the verification codes (stored per email or HMAC-derived)
+    private VerificationCodeStrategy verificationCodes;
     
     // Code validity duration: 10 minutes in milliseconds
     private static final long CODE_EXPIRY_MILLIS = 10 * 60 * 1000;
 
-    /**
-     * Inner class to hold a verification code and its creation timestamp.
-     */
-    private static class VerificationEntry {
-        String code;
-        long timestamp;
-
-        VerificationEntry(String code, long timestamp) {
-            this.code = code;
-            this.timestamp = timestamp;
-        }
+    @PostConstruct
+    void init() {
+        verificationCodes = verificationCodeStrategyFactory.create("career", CODE_EXPIRY_MILLIS);
     }
 
     /**
@@ -37,9 +35,7 @@ public class VerificationService {
      * @return The generated verification code
      */
     public String generateCode(String email) {
-        String code = String.valueOf((int) (Math.random() * 900000) + 100000);
-        verificationCodes.put(email, new VerificationEntry(code, System.currentTimeMillis()));
-        return code;
+        return verificationCodes.generate(email);
     }
     
     /**
@@ -50,10 +46,8 @@ public class VerificationService {
      * @return true if the code is correct and not expired; false otherwise
      */
     public boolean verifyCode(String email, String code) {
-        if (!verificationCodes.containsKey(email)) return false;
-        VerificationEntry entry = verificationCodes.get(email);
-        boolean valid = entry.code.equals(code) && (System.currentTimeMillis() - entry.timestamp < CODE_EXPIRY_MILLIS);
-        if (!valid) verificationCodes.remove(email);
+        boolean valid = verificationCodes.verify(email, code);
+        if (!valid) verificationCodes.invalidate(email);
         return valid;
     }
 
@@ -63,6 +57,6 @@ public class VerificationService {
      * @param email The user's email address
      */
     public void removeCode(String email) {
-        verificationCodes.remove(email);
+        verificationCodes.invalidate(email);
     }
 }
@@ -1,11 +1,11 @@
 package com.neb.util;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.neb.entity.CloudDeveloper;
 
-import java.util.HashMap;
-import java.util.Map;
+import jakarta.annotation.PostConstruct;
 /**
  * Manages verification process for Cloud Developer applications.
  * Stores pending applications and verification codes, and handles verification logic.
@@ -13,65 +13,80 @@ import java.util.Map;
 @Component
 public class CloudDeveloperVerificationManager {
 	
+    @Autowired
+    private PendingStoreRegistry pendingStoreRegistry;
+
+    @Autowired
+    private VerificationCodeStrategyFactory verificationCodeStrategyFactory;
+
 	/** Stores pending applications waiting for verification */
-    private final Map<String, CloudDeveloper> pendingApps = new HashMap<>();
+    private PendingStore<CloudDeveloper> pendingApps;
     
-    /** Stores verification codes and timestamps associated with each email */
-    private final Map<String, VerificationEntry> codes = new HashMap<>();
+    /** Issues and checks the verification codes associated with each email */
+    private VerificationCodeStrategy codes;
     
     /** Code expiry time: 10 minutes (in milliseconds) */
     private static final long EXPIRY = 10 * 60 * 1000; // 10 minutes
-    
-    /** Inner class to store verification code and timestamp */
-    private static class VerificationEntry {
-        String code;
-        long timestamp;
 
-        VerificationEntry(String code, long timestamp) {
-            this.code = code;
-            this.timestamp = timestamp;
-        }
+    @PostConstruct
+    void init() {
+        pendingApps = pendingStoreRegistry.create("cloudDeveloperApplications", EXPIRY, CloudDeveloper.class);
+        codes = verificationCodeStrategyFactory.create("cloudDeveloper", EXPIRY);
     }
 
-    // Add a pending cloud developer application
-    public void addPendingApplication(CloudDeveloper app) {
-        pendingApps.put(app.getEmail(), app);
+    // Add a pending cloud developer application; false if too many applications are pending
+    public boolean addPendingApplication(CloudDeveloper app) {
+        return pendingApps.offer(app.getEmail(), app);
     }
 
     // Generate verification code for email
     public String generateCode(String email) {
-        String code = String.valueOf((int) (Math.random() * 900000) + 100000); // 6-digit code
-        codes.put(email, new VerificationEntry(code, System.currentTimeMillis()));
-        return code;
+        return codes.generate(email); // 6-digit code
     }
 
      // Verify the given code for the given email
     public CloudDeveloper verifyCloudDeveloperCode(String email, String code) {
-        VerificationEntry entry = codes.get(email);
-          /** If no entry found or code expired, clear data and return null */
-        if (entry == null || System.currentTimeMillis() - entry.timestamp > EXPIRY) {
+        CloudDeveloper app = pendingApps.get(email);
+          /** If no pending application found or it expired, clear data and return null */
+        if (app == null) {
             clear(email);
             return null;
         }
-          /** If code doesn't match, return null */
-        if (!entry.code.equals(code)) {
+          /** If code doesn't match or expired, return null */
+        if (!codes.verify(email, code)) {
             return null;
         }
          /** Return the pending application if code is valid */
-        return pendingApps.get(email);
+        return app;
+    }
+
+    // Take the verified application out of the pending list, so only one verification can
+    // complete it; null if another one took it first. The code stays until removeCode
+    public CloudDeveloper claim(String email) {
+        return pendingApps.remove(email);
+    }
+
+    // Put a claimed application back after its completion failed, so the same code can be retried
+    public void restore(CloudDeveloper app) {
+        pendingApps.put(app.getEmail(), app);
+    }
+
+    // Burn the code of an email once its application is completed or rejected
+    public void removeCode(String email) {
+        codes.invalidate(email);
     }
 
     // Remove pending application and verification code
     public void clear(String email) {
         pendingApps.remove(email);
-        codes.remove(email);
+        codes.invalidate(email);
     }
     // Getter for pending applications (used for inspection/testing)
-	public Map<String, CloudDeveloper> getPendingApps() {
+	public PendingStore<CloudDeveloper> getPendingApps() {
 		return pendingApps;
 	}
 	// Getter for verification codes (used for inspection/testing)
-	public Map<String, VerificationEntry> getCodes() {
+	public VerificationCodeStrategy getCodes() {
 		return codes;
 	}
     // Getter for expiry duration
@@ -0,0 +1,140 @@
+package com.neb.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Derives verification codes from an HMAC of the email, the flow, the time window
+ * and the email's current epoch.
+ * --
+ * Codes themselves are not stored: any node sharing the secret can check a code.
+ * Time is cut into windows, and a code is accepted in the window it was issued in,
+ * the next one and 'skew' further windows on either side, for nodes whose clocks
+ * differ by up to that many windows. The window length is the validity divided by
+ * (2 + skew), so on agreeing clocks a code never lives longer than the validity.
+ * --
+ * Invalidating a code (after a wrong guess or its use) advances the email's epoch
+ * in a {@link PendingStore}, which changes every code derived for that email, so
+ * each code allows one attempt as with the stored strategy. The epoch is the only
+ * shared state read, once per well-formed code. Its entry must outlive every code
+ * it burned, or the epoch would fall back to 0 and revive them: the store is kept
+ * for {@link #retentionMillis} and the entry is refreshed on every issue.
+ * --
+ */
+public class HmacVerificationCodeStrategy implements VerificationCodeStrategy {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final byte[] secret;
+    private final String scope;
+    private final long windowMillis;
+    private final int skewWindows;
+    private final PendingStore<Long> epochs;
+    private final LongSupplier clock;
+
+    /**
+     * @param secret         key shared by all nodes
+     * @param scope          flow name, so a code of one flow is not valid in another
+     * @param validityMillis longest time a code is accepted on agreeing clocks
+     * @param skewWindows    windows of clock difference between nodes that are tolerated
+     * @param epochs         per-email epochs, kept for at least {@link #retentionMillis};
+     *                       shared by the nodes for burned codes to be refused everywhere
+     */
+    public HmacVerificationCodeStrategy(byte[] secret, String scope, long validityMillis, int skewWindows,
+                                        PendingStore<Long> epochs) {
+        this(secret, scope, validityMillis, skewWindows, epochs, System::currentTimeMillis);
+    }
+
+    HmacVerificationCodeStrategy(byte[] secret, String scope, long validityMillis, int skewWindows,
+                                 PendingStore<Long> epochs, LongSupplier clock) {
+        if (skewWindows < 0) throw new IllegalArgumentException("skewWindows must not be negative: " + skewWindows);
+        this.secret = secret.clone();
+        this.scope = scope;
+        this.skewWindows = skewWindows;
+        this.windowMillis = windowMillis(validityMillis, skewWindows);
+        this.epochs = epochs;
+        this.clock = clock;
+    }
+
+    /**
+     * How long the epoch of an email has to be kept after a code was last issued or
+     * burned for it: the validity plus the tolerated skew, after which no node
+     * accepts any code derived from an older epoch.
+     */
+    public static long retentionMillis(long validityMillis, int skewWindows) {
+        return validityMillis + (long) skewWindows * windowMillis(validityMillis, skewWindows);
+    }
+
+    private static long windowMillis(long validityMillis, int skewWindows) {
+        return Math.max(1, validityMillis / (2 + skewWindows));
+    }
+
+    @Override
+    public String generate(String email) {
+        Long epoch = epochs.get(key(email));
+        // Keep a burned epoch alive as long as the code issued from it
+        if (epoch != null) epochs.put(key(email), epoch);
+        return codeFor(email, currentWindow(), epoch == null ? 0 : epoch);
+    }
+
+    @Override
+    public boolean verify(String email, String code) {
+        if (code == null || code.length() != 6) return false;
+        byte[] given = code.getBytes(StandardCharsets.US_ASCII);
+        long window = currentWindow();
+        long epoch = epoch(email);
+        // Check every window so the timing does not reveal which one matched
+        boolean matched = false;
+        for (long w = window - 1 - skewWindows; w <= window + skewWindows; w++) {
+            matched |= MessageDigest.isEqual(given, codeFor(email, w, epoch).getBytes(StandardCharsets.US_ASCII));
+        }
+        return matched;
+    }
+
+    @Override
+    public void invalidate(String email) {
+        epochs.put(key(email), epoch(email) + 1);
+    }
+
+    private long epoch(String email) {
+        Long epoch = epochs.get(key(email));
+        return epoch == null ? 0 : epoch;
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private long currentWindow() {
+        return clock.getAsLong() / windowMillis;
+    }
+
+    // HOTP-style dynamic truncation of HMAC(scope | email | window | epoch) to six digits
+    private String codeFor(String email, long window, long epoch) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            mac.update(scope.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(key(email).getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            byte[] hash = mac.doFinal(ByteBuffer.allocate(2 * Long.BYTES).putLong(window).putLong(epoch).array());
+
+            int offset = hash[hash.length - 1] & 0x0f;
+            int binary = ((hash[offset] & 0x7f) << 24)
+                    | ((hash[offset + 1] & 0xff) << 16)
+                    | ((hash[offset + 2] & 0xff) << 8)
+                    | (hash[offset + 3] & 0xff);
+            return String.valueOf(100000 + binary % 900000);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.neb.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe in-heap {@link PendingStore} backed by a ConcurrentHashMap.
+ * Only usable when a single node serves the apply and verify requests.
+ *
+ * @param <V> type of the stored value
+ */
+public class InMemoryPendingStore<V> implements PendingStore<V> {
+
+    /** A stored value together with its absolute expiry time */
+    private record Entry<V>(V value, long expiresAt) {}
+
+    /** Receives the live entries of the store */
+    interface EntryVisitor<V> {
+        void visit(String key, V value, long expiresAt);
+    }
+
+    private final String name;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong removals = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    InMemoryPendingStore(String name, long ttlMillis, int maxEntries) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public boolean offer(String key, V value) {
+        if (!admits(key)) return false;
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Whether an offer for the key would be accepted now; counts a rejection if not.
+     */
+    boolean admits(String key) {
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            sweep(System.currentTimeMillis());
+            if (entries.size() >= maxEntries) {
+                rejections.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void put(String key, V value) {
+        put(key, value, System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * Puts an entry with a given expiry time, e.g. one recovered from the journal.
+     */
+    void restore(String key, V value, long expiresAt) {
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * Puts an entry with a given expiry time and counts it as a put.
+     */
+    void put(String key, V value, long expiresAt) {
+        restore(key, value, expiresAt);
+        puts.incrementAndGet();
+    }
+
+    /**
+     * Visits every entry that has not expired at the given time.
+     */
+    void forEachLive(long now, EntryVisitor<V> visitor) {
+        entries.forEach((key, entry) -> {
+            if (entry.expiresAt() > now) visitor.visit(key, entry.value(), entry.expiresAt());
+        });
+    }
+
+    @Override
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            if (entries.remove(key, entry)) expirations.incrementAndGet();
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public V remove(String key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry == null) return null;
+        removals.incrementAndGet();
+        return entry.value();
+    }
+
+    @Override
+    public void forEachValue(Consumer<? super V> action) {
+        forEachLive(System.currentTimeMillis(), (key, value, expiresAt) -> action.accept(value));
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public int sweep(long now) {
+        int removed = 0;
+        for (Map.Entry<String, Entry<V>> e : entries.entrySet()) {
+            if (e.getValue().expiresAt() <= now && entries.remove(e.getKey(), e.getValue())) {
+                removed++;
+            }
+        }
+        expirations.addAndGet(removed);
+        return removed;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", entries.size());
+        metrics.put("maxEntries", maxEntries);
+        metrics.put("puts", puts.get());
+        metrics.put("removals", removals.get());
+        metrics.put("expirations", expirations.get());
+        metrics.put("rejections", rejections.get());
+        return metrics;
+    }
+}
@@ -0,0 +1,112 @@
+package com.neb.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ResumeStorage} kept in the heap. Meant for tests and local development:
+ * nothing survives a restart and there is no local path for sendfile.
+ */
+public class InMemoryResumeStorage implements ResumeStorage {
+
+    /** Content of an object together with its modification time */
+    private record Blob(byte[] data, long lastModified) {}
+
+    private final Map<String, Blob> temp = new ConcurrentHashMap<>();
+    private final Map<String, Blob> objects = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<Long> writeTemp(String tempName, ReadableByteChannel source) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                out.write(buffer.array(), 0, buffer.limit());
+                buffer.clear();
+            }
+            temp.put(tempName, new Blob(out.toByteArray(), System.currentTimeMillis()));
+            return CompletableFuture.completedFuture((long) out.size());
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> promote(String tempName, String key) {
+        Blob blob = temp.remove(tempName);
+        if (blob == null) return CompletableFuture.failedFuture(new FileNotFoundException(tempName));
+        objects.put(key, blob);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        Blob blob = objects.remove(fromKey);
+        if (blob == null) throw new FileNotFoundException(fromKey);
+        objects.put(toKey, blob);
+    }
+
+    @Override
+    public ReadableByteChannel open(String key) throws IOException {
+        Blob blob = objects.get(key);
+        if (blob == null) throw new FileNotFoundException(key);
+        return Channels.newChannel(new ByteArrayInputStream(blob.data()));
+    }
+
+    @Override
+    public ObjectInfo stat(String key) {
+        return info(key, objects.get(key));
+    }
+
+    @Override
+    public ObjectInfo statTemp(String tempName) {
+        return info(tempName, temp.get(tempName));
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return objects.remove(key) != null;
+    }
+
+    @Override
+    public boolean deleteTemp(String tempName) {
+        return temp.remove(tempName) != null;
+    }
+
+    @Override
+    public List<ObjectInfo> listTemp() {
+        List<ObjectInfo> list = new ArrayList<>();
+        temp.forEach((name, blob) -> list.add(info(name, blob)));
+        return list;
+    }
+
+    @Override
+    public List<ObjectInfo> listTopLevel() {
+        List<ObjectInfo> list = new ArrayList<>();
+        objects.forEach((key, blob) -> {
+            if (key.indexOf('/') < 0) list.add(info(key, blob));
+        });
+        return list;
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return null;
+    }
+
+    private static ObjectInfo info(String name, Blob blob) {
+        return blob == null ? null : new ObjectInfo(name, blob.data().length, blob.lastModified());
+    }
+}
@@ -0,0 +1,201 @@
+package com.neb.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link PendingStore} kept in the shared 'pending_state' table, so a candidate
+ * can apply on one node and verify on another.
+ * --
+ * Values are stored as JSON. Expired rows are ignored by readers and deleted in
+ * batches by the sweep, which only the node holding the sweep lease runs.
+ * The size limit is checked in the statement that inserts a new key, so offering
+ * costs no extra round trip. It is a soft limit: inserts running concurrently, on
+ * one node or several, may each count the rows before the others commit, and the
+ * store can exceed its maximum by the number of such inserts.
+ * --
+ *
+ * @param <V> type of the stored value
+ */
+public class JdbcPendingStore<V> implements PendingStore<V> {
+
+    private final String name;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final int deleteBatchSize;
+    private final Class<V> type;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /** Payload and expiry of a row as read before removing it */
+    private record Row(String payload, long expiresAt) {}
+
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong removals = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    JdbcPendingStore(String name, long ttlMillis, int maxEntries, int deleteBatchSize, Class<V> type,
+            JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.deleteBatchSize = deleteBatchSize;
+        this.type = type;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean offer(String key, V value) {
+        String payload = toJson(value);
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttlMillis;
+        // A key that already has a row replaces it and does not add to the size
+        if (update(key, payload, expiresAt) == 0) {
+            int inserted;
+            try {
+                inserted = jdbcTemplate.update("INSERT INTO pending_state (store_name, pending_key, payload, expires_at) "
+                        + "SELECT CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(320)), CAST(? AS VARCHAR(20000)), CAST(? AS BIGINT) "
+                        + "WHERE (SELECT COUNT(*) FROM pending_state WHERE store_name = ? AND expires_at > ?) < ?",
+                        name, key, payload, expiresAt, name, now, maxEntries);
+            } catch (DuplicateKeyException e) {
+                // Another node inserted the same key in the meantime: last writer wins
+                inserted = update(key, payload, expiresAt);
+            }
+            if (inserted == 0) {
+                rejections.incrementAndGet();
+                return false;
+            }
+        }
+        puts.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public void put(String key, V value) {
+        String payload = toJson(value);
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        if (update(key, payload, expiresAt) == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO pending_state (store_name, pending_key, payload, expires_at) VALUES (?, ?, ?, ?)",
+                        name, key, payload, expiresAt);
+            } catch (DuplicateKeyException e) {
+                // Another node inserted the same key in the meantime: last writer wins
+                update(key, payload, expiresAt);
+            }
+        }
+        puts.incrementAndGet();
+    }
+
+    private int update(String key, String payload, long expiresAt) {
+        return jdbcTemplate.update("UPDATE pending_state SET payload = ?, expires_at = ? WHERE store_name = ? AND pending_key = ?",
+                payload, expiresAt, name, key);
+    }
+
+    @Override
+    public V get(String key) {
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT payload FROM pending_state WHERE store_name = ? AND pending_key = ? AND expires_at > ?",
+                String.class, name, key, System.currentTimeMillis());
+        return rows.isEmpty() ? null : fromJson(rows.get(0));
+    }
+
+    /**
+     * Removes the row only if it still holds the value that was read, so of two
+     * nodes removing the same key at once only the one whose delete hits the row
+     * gets the value; the other gets null, as does one racing a newer put.
+     */
+    @Override
+    public V remove(String key) {
+        long now = System.currentTimeMillis();
+        List<Row> rows = jdbcTemplate.query(
+                "SELECT payload, expires_at FROM pending_state WHERE store_name = ? AND pending_key = ? AND expires_at > ?",
+                (rs, i) -> new Row(rs.getString(1), rs.getLong(2)), name, key, now);
+        if (rows.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM pending_state WHERE store_name = ? AND pending_key = ? AND expires_at <= ?",
+                    name, key, now);
+            return null;
+        }
+        Row row = rows.get(0);
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM pending_state WHERE store_name = ? AND pending_key = ? AND payload = ? AND expires_at = ?",
+                name, key, row.payload(), row.expiresAt());
+        if (deleted == 0) return null;
+        removals.incrementAndGet();
+        return fromJson(row.payload());
+    }
+
+    @Override
+    public void forEachValue(Consumer<? super V> action) {
+        jdbcTemplate.query("SELECT payload FROM pending_state WHERE store_name = ? AND expires_at > ?",
+                rs -> { action.accept(fromJson(rs.getString(1))); }, name, System.currentTimeMillis());
+    }
+
+    @Override
+    public int size() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pending_state WHERE store_name = ?", Integer.class, name);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Deletes expired rows in batches so a large backlog never holds long locks.
+     */
+    @Override
+    public int sweep(long now) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM pending_state WHERE id IN ("
+                    + "SELECT id FROM pending_state WHERE store_name = ? AND expires_at <= ? ORDER BY expires_at LIMIT ?)",
+                    name, now, deleteBatchSize);
+            total += deleted;
+        } while (deleted == deleteBatchSize);
+        expirations.addAndGet(total);
+        return total;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("backend", "jdbc");
+        metrics.put("size", size());
+        metrics.put("maxEntries", maxEntries);
+        metrics.put("puts", puts.get());
+        metrics.put("removals", removals.get());
+        metrics.put("expirations", expirations.get());
+        metrics.put("rejections", rejections.get());
+        return metrics;
+    }
+
+    private String toJson(V value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize pending " + name + " entry", e);
+        }
+    }
+
+    private V fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read pending " + name + " entry", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.neb.util;
+
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link InMemoryPendingStore} whose puts and removes are written to the
+ * {@link PendingStoreJournal}, so pending entries survive a restart.
+ * Expiries are not journaled: replay skips entries that expired meanwhile.
+ * Each change is appended to the journal before it is applied in memory, so a
+ * change that was acknowledged survives a crash of the JVM; a failed append
+ * (e.g. an oversize key) changes nothing. Both happen under the journal lock, so a
+ * compaction, which rebuilds the journal from memory, cannot fall in between. Losing the machine can still lose the
+ * pages written since the last journal flush.
+ *
+ * @param <V> type of the stored value
+ */
+class JournaledPendingStore<V> implements PendingStore<V> {
+
+    private final InMemoryPendingStore<V> delegate;
+    private final PendingStoreJournal journal;
+    private final long ttlMillis;
+    private final Function<V, byte[]> serializer;
+    private final PendingStoreRegistry registry;
+
+    JournaledPendingStore(InMemoryPendingStore<V> delegate, PendingStoreJournal journal, long ttlMillis,
+            Function<V, byte[]> serializer, PendingStoreRegistry registry) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.ttlMillis = ttlMillis;
+        this.serializer = serializer;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean offer(String key, V value) {
+        if (!delegate.admits(key)) return false;
+        put(key, value);
+        return true;
+    }
+
+    @Override
+    public void put(String key, V value) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        byte[] payload = serializer.apply(value);
+        journal.withLock(() -> {
+            journal.append(PendingStoreJournal.PUT, name(), key, expiresAt, payload, registry::writeSnapshot);
+            delegate.put(key, value, expiresAt);
+            return null;
+        });
+    }
+
+    @Override
+    public V get(String key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public V remove(String key) {
+        return journal.withLock(() -> {
+            if (delegate.get(key) == null) return null;
+            journal.append(PendingStoreJournal.REMOVE, name(), key, 0, new byte[0], registry::writeSnapshot);
+            return delegate.remove(key);
+        });
+    }
+
+    @Override
+    public void forEachValue(Consumer<? super V> action) {
+        delegate.forEachValue(action);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public int sweep(long now) {
+        return delegate.sweep(now);
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = delegate.metrics();
+        metrics.put("journaled", true);
+        return metrics;
+    }
+
+    /**
+     * Writes every live entry of this store into a journal snapshot.
+     */
+    void snapshot(long now, PendingStoreJournal.Snapshot snapshot) {
+        delegate.forEachLive(now, (key, value, expiresAt) -> snapshot.put(name(), key, expiresAt, serializer.apply(value)));
+    }
+}
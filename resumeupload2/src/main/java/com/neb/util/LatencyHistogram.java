@@ -0,0 +1,72 @@
+package com.neb.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram.
+ * --
+ * Durations are counted in buckets with upper bounds from 1 ms to 30 s, roughly
+ * 1-2-5 spaced, plus an overflow bucket. Recording is lock-free; percentiles are
+ * read from the buckets and therefore reported as the bucket's upper bound.
+ * --
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MILLIS.length + 1];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    public void record(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int i = 0;
+        while (i < BOUNDS_MILLIS.length && millis >= BOUNDS_MILLIS[i]) i++;
+        buckets[i].increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /** Count, mean, p50/p95/p99, max and the bucket counts keyed by upper bound ('+Inf' for the overflow) */
+    public Map<String, Object> snapshot() {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", count);
+        snapshot.put("meanMillis", count == 0 ? 0.0 : Math.round(totalNanos.sum() / 1e6 / count * 100) / 100.0);
+        snapshot.put("p50Millis", percentile(counts, count, 0.50));
+        snapshot.put("p95Millis", percentile(counts, count, 0.95));
+        snapshot.put("p99Millis", percentile(counts, count, 0.99));
+        snapshot.put("maxMillis", Math.round(maxNanos.get() / 1e6 * 100) / 100.0);
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            histogram.put(i < BOUNDS_MILLIS.length ? "<" + BOUNDS_MILLIS[i] + "ms" : "+Inf", counts[i]);
+        }
+        snapshot.put("buckets", histogram);
+        return snapshot;
+    }
+
+    // Upper bound of the bucket holding the given quantile; the maximum for the overflow bucket
+    private long percentile(long[] counts, long count, double quantile) {
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(count * quantile);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return BOUNDS_MILLIS[i];
+        }
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+}
@@ -0,0 +1,178 @@
+package com.neb.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link ResumeStorage} on the local file system.
+ * Temporary and permanent objects live in two folders of the same volume, so a
+ * promotion is an atomic rename. Everything runs on the calling thread. Keys and
+ * temp names that would resolve outside their folder (e.g. '../x' or an absolute
+ * path) are refused.
+ */
+public class LocalResumeStorage implements ResumeStorage {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tempRoot;
+
+    public LocalResumeStorage(Path root, Path tempRoot) {
+        this.root = root.toAbsolutePath().normalize();
+        this.tempRoot = tempRoot.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public CompletableFuture<Long> writeTemp(String tempName, ReadableByteChannel source) {
+        Path target;
+        try {
+            target = resolve(tempRoot, tempName);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        boolean complete = false;
+        try {
+            Files.createDirectories(tempRoot);
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                long size = 0;
+                while (source.read(buffer) >= 0) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    while (buffer.hasRemaining()) out.write(buffer);
+                    buffer.clear();
+                }
+                complete = true;
+                return CompletableFuture.completedFuture(size);
+            }
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            if (!complete) deleteQuietly(target);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> promote(String tempName, String key) {
+        try {
+            moveFile(resolve(tempRoot, tempName), resolve(root, key));
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException | IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        moveFile(resolve(root, fromKey), resolve(root, toKey));
+    }
+
+    private static void moveFile(Path from, Path to) throws IOException {
+        Files.createDirectories(to.getParent());
+        Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public ReadableByteChannel open(String key) throws IOException {
+        return FileChannel.open(resolve(root, key), StandardOpenOption.READ);
+    }
+
+    @Override
+    public ObjectInfo stat(String key) {
+        return contains(root, key) ? info(root.resolve(key)) : null;
+    }
+
+    @Override
+    public ObjectInfo statTemp(String tempName) {
+        return contains(tempRoot, tempName) ? info(tempRoot.resolve(tempName)) : null;
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(root, key));
+    }
+
+    @Override
+    public boolean deleteTemp(String tempName) throws IOException {
+        return Files.deleteIfExists(resolve(tempRoot, tempName));
+    }
+
+    @Override
+    public List<ObjectInfo> listTemp() throws IOException {
+        return list(tempRoot);
+    }
+
+    @Override
+    public List<ObjectInfo> listTopLevel() throws IOException {
+        return list(root);
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return resolve(root, key);
+    }
+
+    /**
+     * The file of a key below the folder.
+     *
+     * @throws IllegalArgumentException if the key resolves outside the folder
+     */
+    static Path resolve(Path folder, String name) {
+        if (!contains(folder, name)) throw new IllegalArgumentException("Key outside the storage folder: " + name);
+        return folder.resolve(name);
+    }
+
+    // Names come from database rows and imports, so '..' and absolute paths are checked here
+    static boolean contains(Path folder, String name) {
+        if (name == null || name.isEmpty()) return false;
+        try {
+            Path file = folder.resolve(name).normalize();
+            return file.startsWith(folder) && !file.equals(folder);
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
+    private static List<ObjectInfo> list(Path dir) throws IOException {
+        List<ObjectInfo> objects = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return objects;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                ObjectInfo info = info(file);
+                if (info != null) objects.add(info);
+            }
+        }
+        return objects;
+    }
+
+    // Null for missing files and folders; files may vanish between listing and reading
+    private static ObjectInfo info(Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) return null;
+            return new ObjectInfo(file.getFileName().toString(), attrs.size(), attrs.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // left for the uploads_temp janitor
+        }
+    }
+}
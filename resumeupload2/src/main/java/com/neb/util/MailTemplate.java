@@ -0,0 +1,93 @@
+package com.neb.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A mail template compiled into literal and placeholder segments.
+ * --
+ * Source format: a first line 'Subject: ...', an empty line, then the body. A
+ * single line break at the end of the file is not part of the body. Placeholders
+ * are written '{{name}}' and may appear in subject and body.
+ * --
+ * Parsing happens once; rendering only appends the literals and the placeholder
+ * values to the caller's buffer. Values are looked up in name/value pairs and
+ * rendered like string concatenation would, so a null value becomes "null"; a
+ * placeholder without a value renders empty.
+ * --
+ */
+public final class MailTemplate {
+
+    private static final String SUBJECT_PREFIX = "Subject: ";
+
+    private final Segments subject;
+    private final Segments body;
+
+    private MailTemplate(Segments subject, Segments body) {
+        this.subject = subject;
+        this.body = body;
+    }
+
+    /** Literals around the placeholders: literals[i] precedes names[i], the last literal ends the text */
+    private record Segments(String[] literals, String[] names) {
+
+        void renderTo(StringBuilder out, String[] values) {
+            out.append(literals[0]);
+            for (int i = 0; i < names.length; i++) {
+                out.append(lookup(names[i], values));
+                out.append(literals[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Compiles a template source.
+     *
+     * @throws IllegalArgumentException if the subject line is missing or a placeholder is not closed
+     */
+    public static MailTemplate compile(String source) {
+        String text = source.replace("\r\n", "\n");
+        if (!text.startsWith(SUBJECT_PREFIX)) throw new IllegalArgumentException("Template must start with '" + SUBJECT_PREFIX + "'");
+        int endOfSubject = text.indexOf('\n');
+        if (endOfSubject < 0) return new MailTemplate(segments(text.substring(SUBJECT_PREFIX.length())), segments(""));
+        String body = text.substring(endOfSubject + 1);
+        if (!body.startsWith("\n") && !body.isEmpty()) throw new IllegalArgumentException("Subject must be followed by an empty line");
+        body = body.isEmpty() ? body : body.substring(1);
+        if (body.endsWith("\n")) body = body.substring(0, body.length() - 1);
+        return new MailTemplate(segments(text.substring(SUBJECT_PREFIX.length(), endOfSubject)), segments(body));
+    }
+
+    private static Segments segments(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = text.indexOf("{{", position);
+            if (open < 0) break;
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            literals.add(text.substring(position, open));
+            names.add(text.substring(open + 2, close).trim());
+            position = close + 2;
+        }
+        literals.add(text.substring(position));
+        return new Segments(literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    private static String lookup(String name, String[] values) {
+        for (int i = 0; i + 1 < values.length; i += 2) {
+            if (values[i].equals(name)) return String.valueOf(values[i + 1]);
+        }
+        return "";
+    }
+
+    /** Appends the subject to the buffer; values are name/value pairs */
+    public void renderSubject(StringBuilder out, String... values) {
+        subject.renderTo(out, values);
+    }
+
+    /** Appends the body to the buffer; values are name/value pairs */
+    public void renderBody(StringBuilder out, String... values) {
+        body.renderTo(out, values);
+    }
+}
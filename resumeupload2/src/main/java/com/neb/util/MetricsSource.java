@@ -0,0 +1,16 @@
+package com.neb.util;
+
+import java.util.Map;
+
+/**
+ * Implemented by components that publish runtime counters.
+ * All sources are collected and exposed by the metrics endpoint.
+ */
+public interface MetricsSource {
+
+    /** Name under which the metrics of this source are grouped */
+    String metricsName();
+
+    /** Snapshot of the current counter values */
+    Map<String, Object> metrics();
+}
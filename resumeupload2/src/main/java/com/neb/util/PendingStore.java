@@ -0,0 +1,67 @@
+package com.neb.util;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Store for entries that wait for email verification, keyed by email.
+ * --
+ * Every entry expires a fixed time after it was put. Expired entries are invisible
+ * to readers immediately and physically removed by the periodic sweep of the
+ * {@link PendingStoreRegistry}, so abandoned applications do not pile up.
+ * New applications are refused once the store holds its maximum number of entries.
+ * --
+ *
+ * @param <V> type of the stored value
+ */
+public interface PendingStore<V> {
+
+    /**
+     * Adds or replaces the entry for a key unless the store is full.
+     *
+     * @return false if the entry was refused because the store reached its maximum size
+     */
+    boolean offer(String key, V value);
+
+    /**
+     * Adds or replaces the entry for a key regardless of the size limit.
+     * Used for data that only exists alongside an already admitted entry.
+     */
+    void put(String key, V value);
+
+    /**
+     * Returns the value for a key, or null if there is none or it has expired.
+     */
+    V get(String key);
+
+    /**
+     * Removes the entry for a key. Of several concurrent removes of the same entry,
+     * on this node or others, exactly one gets the value, so a remove can be used to
+     * claim the entry.
+     *
+     * @return the removed value, or null if there was none or another remove took it
+     */
+    V remove(String key);
+
+    /**
+     * Passes every value that has not expired to the action. Meant for maintenance
+     * jobs: on a shared backend this reads the whole store.
+     */
+    void forEachValue(Consumer<? super V> action);
+
+    /** Number of entries currently held, including expired ones not yet swept */
+    int size();
+
+    /**
+     * Removes all entries that expired at or before the given time.
+     *
+     * @return number of removed entries
+     */
+    int sweep(long now);
+
+    /** Name used in the metrics */
+    String name();
+
+    /** Snapshot of the store counters */
+    Map<String, Object> metrics();
+}
@@ -0,0 +1,294 @@
+package com.neb.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of pending-store changes.
+ * --
+ * Every put and remove of a journaled store is appended as a record
+ * [length][crc32][op][expiresAt][store][key][payload]. Writes go to a mapped
+ * region, so they cost a memory copy and survive a crash of the JVM. On startup
+ * the journal is replayed; a torn last record is detected by its checksum and
+ * dropped, and replay also stops at a record that cannot be parsed. Store names and
+ * keys are limited to 65535 UTF-8 bytes; longer ones are refused before anything is
+ * written. Compaction rewrites only the live entries into a fresh file and
+ * swaps it in atomically. A ReentrantLock (not synchronized) guards appends so
+ * virtual request threads are not pinned. Stores apply each change in memory
+ * within {@link #withLock(Supplier)}, the lock compaction also takes, so a
+ * compaction never sees a change that is journaled but not yet in memory.
+ * --
+ */
+public class PendingStoreJournal implements AutoCloseable {
+
+    public static final byte PUT = 1;
+    public static final byte REMOVE = 2;
+
+    // length + crc
+    private static final int HEADER = 8;
+
+    /** Longest store name or key, in UTF-8 bytes (stored as an unsigned short) */
+    public static final int MAX_STRING_BYTES = 0xffff;
+
+    /** A live entry recovered from the journal */
+    public record Record(String key, long expiresAt, byte[] payload) {}
+
+    /** Receives the live entries to write during compaction */
+    public interface Snapshot {
+        void put(String store, String key, long expiresAt, byte[] payload);
+    }
+
+    private final Path path;
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private long recovered;
+
+    /**
+     * Opens (or creates) the journal file and maps at least the given number of bytes.
+     */
+    public PendingStoreJournal(Path path, int initialSize) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(initialSize, channel.size()));
+    }
+
+    /**
+     * Reads all records, applies puts and removes in order and positions the
+     * journal after the last valid record.
+     *
+     * @return live (not expired) entries per store name
+     */
+    public Map<String, Map<String, Record>> replay(long now) {
+        lock.lock();
+        try {
+            Map<String, Map<String, Record>> live = new HashMap<>();
+            buffer.position(0);
+            while (buffer.remaining() >= HEADER) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                int crc = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    buffer.position(start);
+                    break;
+                }
+                byte[] body = new byte[length];
+                buffer.get(body);
+                if (checksum(body) != crc) {
+                    // Torn write from a crash: everything after it is unreliable
+                    buffer.position(start);
+                    break;
+                }
+                try {
+                    apply(live, body);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    // Intact but unreadable record; treated like a torn write so startup still succeeds
+                    buffer.position(start);
+                    break;
+                }
+            }
+            live.values().forEach(entries -> entries.values().removeIf(r -> r.expiresAt() <= now));
+            recovered = live.values().stream().mapToLong(Map::size).sum();
+            return live;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Parses the whole record before applying it, so a bad record changes nothing
+    private void apply(Map<String, Map<String, Record>> live, byte[] body) {
+        ByteBuffer in = ByteBuffer.wrap(body);
+        byte op = in.get();
+        if (op != PUT && op != REMOVE) throw new IllegalArgumentException("Unknown journal op " + op);
+        long expiresAt = in.getLong();
+        String store = readString(in);
+        String key = readString(in);
+        byte[] payload = new byte[in.remaining()];
+        in.get(payload);
+        Map<String, Record> entries = live.computeIfAbsent(store, s -> new HashMap<>());
+        if (op == PUT) {
+            entries.put(key, new Record(key, expiresAt, payload));
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Appends one record. Compacts, and if needed grows, the journal when it is full.
+     *
+     * @param compaction supplies the live entries if the journal has to be compacted
+     * @throws IllegalArgumentException if the store name or key is longer than {@link #MAX_STRING_BYTES}
+     */
+    public void append(byte op, String store, String key, long expiresAt, byte[] payload, Consumer<Snapshot> compaction) {
+        byte[] body = encode(op, store, key, expiresAt, payload);
+        lock.lock();
+        try {
+            if (buffer.remaining() < HEADER + body.length + HEADER) {
+                try {
+                    compact(compaction);
+                } catch (IllegalStateException e) {
+                    // Live entries alone exceed the mapped size: grow instead
+                }
+                if (buffer.remaining() < HEADER + body.length + HEADER) {
+                    remap(buffer.capacity() * 2L + body.length);
+                }
+            }
+            write(buffer, body);
+            appends.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the action under the journal lock, the same lock appends and compactions
+     * take. A store appends its record and applies the change in memory within one
+     * action, so the snapshot a compaction takes always matches the journal.
+     */
+    public <T> T withLock(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the journal so it only contains the live entries.
+     */
+    public void compact(Consumer<Snapshot> compaction) {
+        lock.lock();
+        try {
+            Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+            int size = buffer.capacity();
+            int end;
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                compaction.accept((store, key, expiresAt, payload) -> {
+                    byte[] body = encode(PUT, store, key, expiresAt, payload);
+                    if (target.remaining() < HEADER + body.length + HEADER) {
+                        throw new IllegalStateException("Live pending entries exceed the journal size");
+                    }
+                    write(target, body);
+                });
+                target.force();
+                end = target.position();
+            }
+            channel.close();
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            // Continue after the last record written by the compaction
+            buffer.position(end);
+            compactions.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Pending store journal compaction failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Maps a larger region of the same file, keeping the write position
+    private void remap(long size) {
+        try {
+            int position = buffer.position();
+            buffer.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(size, Integer.MAX_VALUE));
+            buffer.position(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Pending store journal could not grow", e);
+        }
+    }
+
+    private static void write(MappedByteBuffer target, byte[] body) {
+        int start = target.position();
+        // Body and checksum first, length last: a record only becomes visible once complete
+        target.position(start + 4);
+        target.putInt(checksum(body));
+        target.put(body);
+        target.putInt(start, body.length);
+    }
+
+    private static byte[] encode(byte op, String store, String key, long expiresAt, byte[] payload) {
+        byte[] storeBytes = store.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (storeBytes.length > MAX_STRING_BYTES || keyBytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Pending store name or key longer than " + MAX_STRING_BYTES + " bytes");
+        }
+        ByteBuffer body = ByteBuffer.allocate(1 + 8 + 2 + storeBytes.length + 2 + keyBytes.length + payload.length);
+        body.put(op).putLong(expiresAt);
+        body.putShort((short) storeBytes.length).put(storeBytes);
+        body.putShort((short) keyBytes.length).put(keyBytes);
+        body.put(payload);
+        return body.array();
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xffff];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Flushes the mapped pages to disk.
+     */
+    public void force() {
+        lock.lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("path", path.toString());
+        metrics.put("mappedBytes", buffer.capacity());
+        metrics.put("usedBytes", buffer.position());
+        metrics.put("appends", appends.get());
+        metrics.put("compactions", compactions.get());
+        metrics.put("recoveredEntries", recovered);
+        return metrics;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.neb.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Creates the {@link PendingStore}s used by the application flows,
+ * sweeps their expired entries periodically and publishes their counters.
+ * --
+ * 'pending.store.backend' selects the backend: 'memory' keeps entries in the heap
+ * of this node, 'jdbc' keeps them in the shared 'pending_state' table so several
+ * nodes can serve the same candidate. With 'jdbc' only the node holding the sweep
+ * lease deletes expired rows. With 'memory' and 'pending.store.journal.enabled' the
+ * stores are journaled to disk and restored on startup.
+ * --
+ */
+@Component
+public class PendingStoreRegistry implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingStoreRegistry.class);
+
+    private static final String SWEEP_LEASE = "pending-state-sweep";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${pending.store.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${pending.store.backend:memory}")
+    private String backend;
+
+    @Value("${pending.store.jdbc.delete-batch-size:500}")
+    private int deleteBatchSize;
+
+    @Value("${pending.store.sweep-interval-millis:30000}")
+    private long sweepIntervalMillis;
+
+    @Value("${pending.store.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${pending.store.journal.path:data/pending.journal}")
+    private String journalPath;
+
+    @Value("${pending.store.journal.size-mb:16}")
+    private int journalSizeMb;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<PendingStore<?>> stores = new CopyOnWriteArrayList<>();
+
+    private PendingStoreJournal journal;
+    private Map<String, Map<String, PendingStoreJournal.Record>> recovered = new HashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!isJdbc()) {
+            if (journalEnabled) openJournal();
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS pending_state ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "store_name VARCHAR(100) NOT NULL, "
+                + "pending_key VARCHAR(320) NOT NULL, "
+                + "payload VARCHAR(20000) NOT NULL, "
+                + "expires_at BIGINT NOT NULL, "
+                + "CONSTRAINT uk_pending_state_key UNIQUE (store_name, pending_key))");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_pending_state_expiry ON pending_state (store_name, expires_at)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS pending_state_lease ("
+                + "lease_name VARCHAR(100) PRIMARY KEY, "
+                + "owner VARCHAR(100), "
+                + "lease_until BIGINT NOT NULL)");
+        try {
+            jdbcTemplate.update("INSERT INTO pending_state_lease (lease_name, owner, lease_until) VALUES (?, NULL, 0)", SWEEP_LEASE);
+        } catch (DuplicateKeyException e) {
+            // Created by another node
+        }
+    }
+
+    private void openJournal() throws IOException {
+        long start = System.nanoTime();
+        journal = new PendingStoreJournal(Path.of(journalPath), journalSizeMb * 1024 * 1024);
+        recovered = journal.replay(System.currentTimeMillis());
+        log.info("Replayed pending store journal {} in {} ms", journalPath, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Creates and registers a new store.
+     *
+     * @param name      name used in the metrics and to tell the stores apart in the shared table
+     * @param ttlMillis time after which an entry expires
+     * @param type      value type, needed to read entries back from the shared table
+     */
+    public <V> PendingStore<V> create(String name, long ttlMillis, Class<V> type) {
+        PendingStore<V> store;
+        if (isJdbc()) {
+            store = new JdbcPendingStore<>(name, ttlMillis, maxEntries, deleteBatchSize, type, jdbcTemplate, objectMapper);
+        } else if (journal != null) {
+            InMemoryPendingStore<V> memory = new InMemoryPendingStore<>(name, ttlMillis, maxEntries);
+            for (PendingStoreJournal.Record r : recovered.getOrDefault(name, Map.of()).values()) {
+                memory.restore(r.key(), read(r.payload(), type), r.expiresAt());
+            }
+            store = new JournaledPendingStore<>(memory, journal, ttlMillis, this::write, this);
+        } else {
+            store = new InMemoryPendingStore<>(name, ttlMillis, maxEntries);
+        }
+        stores.add(store);
+        return store;
+    }
+
+    /**
+     * Rewrites the journal with the live entries only.
+     */
+    @Scheduled(fixedDelayString = "${pending.store.journal.compact-interval-millis:600000}")
+    public void compactJournal() {
+        if (journal == null) return;
+        journal.compact(this::writeSnapshot);
+        journal.force();
+    }
+
+    // Feeds the live entries of every journaled store into a compaction
+    void writeSnapshot(PendingStoreJournal.Snapshot snapshot) {
+        long now = System.currentTimeMillis();
+        for (PendingStore<?> store : stores) {
+            if (store instanceof JournaledPendingStore<?> journaled) journaled.snapshot(now, snapshot);
+        }
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot journal pending entry", e);
+        }
+    }
+
+    private <V> V read(byte[] payload, Class<V> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot restore journaled pending entry", e);
+        }
+    }
+
+    @PreDestroy
+    void closeJournal() throws IOException {
+        if (journal != null) journal.close();
+    }
+
+    /**
+     * Removes expired entries from all stores.
+     */
+    @Scheduled(fixedDelayString = "${pending.store.sweep-interval-millis:30000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        if (isJdbc() && !acquireSweepLease(now)) return;
+        for (PendingStore<?> store : stores) {
+            store.sweep(now);
+        }
+    }
+
+    // Takes or renews the sweep lease; it lapses if the holder stops renewing it
+    private boolean acquireSweepLease(long now) {
+        return jdbcTemplate.update("UPDATE pending_state_lease SET owner = ?, lease_until = ? "
+                + "WHERE lease_name = ? AND (lease_until < ? OR owner = ?)",
+                nodeId, now + 2 * sweepIntervalMillis, SWEEP_LEASE, now, nodeId) == 1;
+    }
+
+    /**
+     * Passes every live value of every store to the action, e.g. to find the
+     * files that pending applications still reference.
+     */
+    public void forEachLiveValue(Consumer<Object> action) {
+        for (PendingStore<?> store : stores) {
+            store.forEachValue(action);
+        }
+    }
+
+    private boolean isJdbc() {
+        return "jdbc".equalsIgnoreCase(backend);
+    }
+
+    @Override
+    public String metricsName() {
+        return "pendingStores";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (PendingStore<?> store : stores) {
+            metrics.put(store.name(), store.metrics());
+        }
+        if (journal != null) metrics.put("journal", journal.metrics());
+        return metrics;
+    }
+}
@@ -0,0 +1,24 @@
+package com.neb.util;
+
+import java.io.IOException;
+
+/**
+ * A processing step the resume backfill applies to every stored resume, e.g.
+ * text extraction for the search index. Steps must be idempotent: the backfill
+ * may hand them a resume again after a restart.
+ */
+public interface ResumeBackfillStep {
+
+    /** Name used in 'resume.backfill.steps' and in the checkpoint */
+    String backfillName();
+
+    /**
+     * Processes the resume of one application.
+     *
+     * @param type     'career', 'developer' or 'cloud-developer'
+     * @param id       application id
+     * @param fileName stored resume name as kept on the application
+     * @return true if work was done, false if the resume was already up to date
+     */
+    boolean backfill(String type, Long id, String fileName) throws IOException;
+}
@@ -0,0 +1,324 @@
+package com.neb.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over resume texts, ranked with BM25.
+ * --
+ * Every document gets a dense int id in the order it was added. A term maps to
+ * its postings: two parallel int arrays of document ids (ascending) and term
+ * frequencies, grown like an ArrayList, so a query walks primitive arrays without
+ * boxing. Re-indexing a document marks its old id deleted and appends a new one;
+ * deleted ids are skipped when scoring and dropped when the index is saved.
+ * --
+ * On disk the postings are delta-encoded varints ('RIX1' format), which keeps the
+ * file a fraction of the in-memory size and lets startup read it sequentially
+ * in one pass. Saving writes a temporary file and renames it over the old one.
+ * --
+ */
+public class ResumeIndex {
+
+    private static final int MAGIC = 0x52495831; // "RIX1"
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N}+#]*");
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /** A ranked search result */
+    public record Hit(String key, double score) {}
+
+    /** Document ids and frequencies of one term */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private String[] docKeys = new String[1024];
+    private int[] docLengths = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int liveDocs;
+    private long liveLength;
+    private volatile boolean dirty;
+
+    /**
+     * Splits a text into lower-case terms. Letters and digits form a term, and
+     * '+' and '#' are kept inside terms so 'c++' and 'c#' stay searchable.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        Matcher m = TOKEN.matcher(text);
+        while (m.find()) {
+            if (m.end() - m.start() <= MAX_TERM_LENGTH) terms.add(m.group().toLowerCase(Locale.ROOT));
+        }
+        return terms;
+    }
+
+    /**
+     * Adds a document, replacing an earlier version with the same key.
+     *
+     * @param key  identifier of the document, e.g. 'career:42'
+     * @param text extracted text
+     */
+    public void put(String key, String text) {
+        List<String> terms = tokenize(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) frequencies.merge(term, 1, Integer::sum);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            int doc = newDoc(key, terms.size());
+            frequencies.forEach((term, freq) -> postings.computeIfAbsent(term, t -> new Postings()).add(doc, freq));
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes a document; does nothing if it is not indexed */
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            if (removeLocked(key)) dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Whether a document with this key is indexed */
+    public boolean contains(String key) {
+        lock.readLock().lock();
+        try {
+            return docIds.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeLocked(String key) {
+        Integer old = docIds.remove(key);
+        if (old == null) return false;
+        deleted.set(old);
+        liveDocs--;
+        liveLength -= docLengths[old];
+        return true;
+    }
+
+    private int newDoc(String key, int length) {
+        if (docCount == docKeys.length) {
+            docKeys = Arrays.copyOf(docKeys, docCount * 2);
+            docLengths = Arrays.copyOf(docLengths, docCount * 2);
+        }
+        int doc = docCount++;
+        docKeys[doc] = key;
+        docLengths[doc] = length;
+        docIds.put(key, doc);
+        liveDocs++;
+        liveLength += length;
+        return doc;
+    }
+
+    /**
+     * Returns the best matching documents for a free-text query, highest score first.
+     * All query terms are optional; documents matching more and rarer terms rank higher.
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> terms = tokenize(query).stream().distinct().toList();
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty() || liveDocs == 0 || limit <= 0) return List.of();
+            double avgLength = Math.max(1.0, (double) liveLength / liveDocs);
+            float[] scores = new float[docCount];
+            int[] touched = new int[0];
+            int touchedCount = 0;
+            for (String term : terms) {
+                Postings p = postings.get(term);
+                if (p == null) continue;
+                // Deleted ids still count until the next save; capping keeps idf positive
+                int df = Math.min(p.size, liveDocs);
+                double idf = Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+                for (int i = 0; i < p.size; i++) {
+                    int doc = p.docs[i];
+                    if (deleted.get(doc)) continue;
+                    double tf = p.freqs[i];
+                    double norm = tf + K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    if (scores[doc] == 0) {
+                        if (touchedCount == touched.length) touched = Arrays.copyOf(touched, Math.max(16, touchedCount * 2));
+                        touched[touchedCount++] = doc;
+                    }
+                    scores[doc] += (float) (idf * tf * (K1 + 1) / norm);
+                }
+            }
+
+            // Min-heap of the best 'limit' documents
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> Float.compare(scores[a], scores[b]));
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                if (top.size() < limit) {
+                    top.add(doc);
+                } else if (scores[doc] > scores[top.peek()]) {
+                    top.poll();
+                    top.add(doc);
+                }
+            }
+            Hit[] hits = new Hit[top.size()];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                int doc = top.poll();
+                hits[i] = new Hit(docKeys[doc], scores[doc]);
+            }
+            return List.of(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Whether documents were added or removed since the index was loaded or saved */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Writes the live documents to a file, replacing it atomically.
+     */
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+            // Live documents are renumbered densely, which drops the deleted ones
+            int[] newIds = new int[docCount];
+            int next = 0;
+            out.writeInt(MAGIC);
+            out.writeInt(liveDocs);
+            for (int doc = 0; doc < docCount; doc++) {
+                if (deleted.get(doc)) {
+                    newIds[doc] = -1;
+                    continue;
+                }
+                newIds[doc] = next++;
+                out.writeUTF(docKeys[doc]);
+                writeVarInt(out, docLengths[doc]);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings p = entry.getValue();
+                int live = 0;
+                for (int i = 0; i < p.size; i++) if (newIds[p.docs[i]] >= 0) live++;
+                out.writeUTF(entry.getKey());
+                writeVarInt(out, live);
+                int previous = 0;
+                for (int i = 0; i < p.size; i++) {
+                    int doc = newIds[p.docs[i]];
+                    if (doc < 0) continue;
+                    writeVarInt(out, doc - previous);
+                    writeVarInt(out, p.freqs[i]);
+                    previous = doc;
+                }
+            }
+            dirty = false;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads an index written by {@link #save}.
+     */
+    public static ResumeIndex load(Path file) throws IOException {
+        ResumeIndex index = new ResumeIndex();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a resume index: " + file);
+            int docs = in.readInt();
+            index.docKeys = new String[Math.max(1024, docs)];
+            index.docLengths = new int[index.docKeys.length];
+            for (int doc = 0; doc < docs; doc++) {
+                index.newDoc(in.readUTF(), readVarInt(in));
+            }
+            int terms = in.readInt();
+            for (int t = 0; t < terms; t++) {
+                String term = in.readUTF();
+                int size = readVarInt(in);
+                Postings p = new Postings();
+                p.docs = new int[Math.max(4, size)];
+                p.freqs = new int[p.docs.length];
+                int doc = 0;
+                for (int i = 0; i < size; i++) {
+                    doc += readVarInt(in);
+                    p.docs[i] = doc;
+                    p.freqs[i] = readVarInt(in);
+                }
+                p.size = size;
+                index.postings.put(term, p);
+            }
+        }
+        return index;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public Map<String, Object> metrics() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("documents", liveDocs);
+            metrics.put("deletedDocuments", docCount - liveDocs);
+            metrics.put("terms", postings.size());
+            return metrics;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.neb.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.neb.exception.InvalidFileFormatException;
+
+/**
+ * Writes uploaded resumes to the temporary area of the {@link ResumeStorage} in a single pass.
+ * --
+ * The upload is read through a channel once: the first bytes are checked for the
+ * PDF magic header before anything is written, and while the storage copies the
+ * bytes their size is enforced and their SHA-256 digest computed. A rejected
+ * upload leaves nothing in the temporary area.
+ * --
+ */
+@Component
+public class ResumeIngestor {
+
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxSize;
+
+    @Autowired
+    private ResumeStorage resumeStorage;
+
+    /** Result of a successful ingestion */
+    public record IngestedResume(String fileName, long size, String sha256) {}
+
+    /**
+     * Validates the upload and stores it in the temporary folder under a unique safe name.
+     *
+     * @param file the uploaded resume
+     * @return the stored file name, size and SHA-256 digest
+     * @throws InvalidFileFormatException if the upload is not a PDF or too large
+     * @throws IOException if the file could not be written
+     */
+    public IngestedResume ingest(MultipartFile file) throws IOException {
+        String originalFileName = file.getOriginalFilename();
+        if (originalFileName == null || !originalFileName.toLowerCase().endsWith(".pdf")) {
+            throw new InvalidFileFormatException("Only PDF resumes are allowed.");
+        }
+
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        try (InputStream in = file.getInputStream(); ReadableByteChannel source = Channels.newChannel(in)) {
+            // Read just enough to check the header before creating the target file
+            while (buffer.position() < PDF_MAGIC.length && source.read(buffer) >= 0) {
+                // keep reading
+            }
+            if (!startsWithMagic(buffer)) {
+                throw new InvalidFileFormatException("Only PDF resumes are allowed.");
+            }
+
+            String safeFileName = UUID.randomUUID() + "_" + originalFileName.replaceAll("[^a-zA-Z0-9\\.\\-_]", "_");
+            buffer.flip();
+            ValidatingChannel validating = new ValidatingChannel(buffer, source, digest, maxSize.toBytes());
+            long size;
+            try {
+                size = resumeStorage.writeTemp(safeFileName, validating).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof InvalidFileFormatException invalid) throw invalid;
+                if (e.getCause() instanceof IOException io) throw io;
+                throw new IOException("Could not store resume", e.getCause());
+            }
+            return new IngestedResume(safeFileName, size, HexFormat.of().formatHex(digest.digest()));
+        }
+    }
+
+    /**
+     * Hands the already read header bytes and then the rest of the upload to the
+     * storage, updating the digest and enforcing the size limit on the way.
+     */
+    private static final class ValidatingChannel implements ReadableByteChannel {
+
+        private final ByteBuffer head;
+        private final ReadableByteChannel source;
+        private final MessageDigest digest;
+        private final long maxBytes;
+        private long size;
+
+        ValidatingChannel(ByteBuffer head, ReadableByteChannel source, MessageDigest digest, long maxBytes) {
+            this.head = head;
+            this.source = source;
+            this.digest = digest;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int start = dst.position();
+            int read;
+            if (head.hasRemaining()) {
+                read = Math.min(head.remaining(), dst.remaining());
+                dst.put(head.slice(head.position(), read));
+                head.position(head.position() + read);
+            } else {
+                read = source.read(dst);
+                if (read < 0) return read;
+            }
+            size += read;
+            if (size > maxBytes) {
+                throw new InvalidFileFormatException("Resume exceeds the maximum size of " + (maxBytes / (1024 * 1024)) + " MB.");
+            }
+            digest.update(dst.duplicate().position(start).limit(start + read));
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return source.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
+
+    /**
+     * Deletes a resume from the temporary folder, e.g. when its application is refused.
+     */
+    public void deleteTemp(String fileName) {
+        try {
+            resumeStorage.deleteTemp(fileName);
+        } catch (IOException ignored) {
+            // the uploads_temp janitor takes care of leftovers
+        }
+    }
+
+    private static boolean startsWithMagic(ByteBuffer buffer) {
+        if (buffer.position() < PDF_MAGIC.length) return false;
+        for (int i = 0; i < PDF_MAGIC.length; i++) {
+            if (buffer.get(i) != PDF_MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.neb.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only segment files holding many resumes each.
+ * --
+ * Every resume is appended to the active segment as a record
+ * [magic][type][sha256 (32 bytes)][length][content]; once a segment reaches its
+ * size limit a new one is started. The offset index (hash -> segment, offset,
+ * length) is kept in memory and rebuilt at startup by walking the record headers,
+ * which only reads a few bytes per resume. Deletes append a tombstone; compaction
+ * copies the live records of mostly-dead segments into the active segment and
+ * removes the old file. Content is read through read-only memory mappings, or
+ * located by file and offset so it can be sent with sendfile.
+ * --
+ */
+public class ResumePackStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x52504B31; // "RPK1"
+    private static final byte BLOB = 1;
+    private static final byte TOMBSTONE = 2;
+    private static final int HEADER = 4 + 1 + 32 + 8;
+
+    /** Where the content of a packed resume lies */
+    public record Location(int segment, long offset, long length) {}
+
+    private final Path dir;
+    private final long segmentSize;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    // segment -> bytes of live content, used to pick compaction candidates
+    private final ConcurrentSkipListMap<Integer, AtomicLong> liveBytes = new ConcurrentSkipListMap<>();
+    private final Map<Integer, MappedByteBuffer> mappings = new ConcurrentHashMap<>();
+
+    private int activeSegment;
+    private FileChannel active;
+
+    private final AtomicLong packed = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong compactedSegments = new AtomicLong();
+
+    /**
+     * Opens the segments in the given folder and rebuilds the index from their headers.
+     */
+    public ResumePackStore(Path dir, long segmentSize) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(dir);
+        List<Integer> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.pack")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Integer.parseInt(name.substring(8, name.length() - 5)));
+            }
+        }
+        // Records are only appended to the highest segment, so segment order is write order
+        segments.sort(null);
+        for (int segment : segments) {
+            scan(segment);
+        }
+        activeSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        active = FileChannel.open(segmentPath(activeSegment), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active.position(active.size());
+    }
+
+    // Walks the record headers of one segment; a torn record at the end is cut off
+    private void scan(int segment) throws IOException {
+        liveBytes.putIfAbsent(segment, new AtomicLong());
+        try (FileChannel in = FileChannel.open(segmentPath(segment), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            long position = 0;
+            long size = in.size();
+            while (position + HEADER <= size) {
+                header.clear();
+                in.read(header, position);
+                header.flip();
+                if (header.getInt() != MAGIC) break;
+                byte type = header.get();
+                byte[] sha = new byte[32];
+                header.get(sha);
+                long length = header.getLong();
+                if (position + HEADER + length > size) break;
+                String key = HexFormat.of().formatHex(sha);
+                if (type == BLOB) {
+                    put(key, new Location(segment, position + HEADER, length));
+                } else {
+                    drop(key);
+                }
+                position += HEADER + length;
+            }
+            if (position < size) in.truncate(position);
+        }
+    }
+
+    /**
+     * Appends the content of a file to the active segment.
+     *
+     * @param sha256 hex digest of the content, used as key
+     */
+    public Location append(String sha256, Path file) {
+        writeLock.lock();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            return appendRecord(sha256, in, 0, in.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not pack " + file, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Location appendRecord(String sha256, FileChannel source, long sourceOffset, long length) throws IOException {
+        if (active.size() > 0 && active.size() + HEADER + length > segmentSize) roll();
+        long position = active.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).put(BLOB).put(HexFormat.of().parseHex(sha256)).putLong(length).flip();
+        while (header.hasRemaining()) active.write(header, position + HEADER - header.remaining());
+        long copied = 0;
+        while (copied < length) {
+            copied += source.transferTo(sourceOffset + copied, length - copied, active.position(position + HEADER + copied));
+        }
+        active.position(position + HEADER + length);
+        Location location = new Location(activeSegment, position + HEADER, length);
+        put(sha256, location);
+        packed.incrementAndGet();
+        return location;
+    }
+
+    /**
+     * Marks a packed resume as deleted; its space is reclaimed by compaction.
+     */
+    public void delete(String sha256) {
+        writeLock.lock();
+        try {
+            if (!index.containsKey(sha256)) return;
+            appendTombstone(sha256);
+            drop(sha256);
+            deleted.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete packed resume " + sha256, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void appendTombstone(String sha256) throws IOException {
+        if (active.size() + HEADER > segmentSize) roll();
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).put(TOMBSTONE).put(HexFormat.of().parseHex(sha256)).putLong(0).flip();
+        long position = active.size();
+        while (header.hasRemaining()) active.write(header, position + HEADER - header.remaining());
+        active.position(position + HEADER);
+    }
+
+    /** Location of a packed resume, or null if it is not packed */
+    public Location locate(String sha256) {
+        return index.get(sha256);
+    }
+
+    /** File of a segment, e.g. to send a packed resume with sendfile */
+    public Path segmentPath(int segment) {
+        return dir.resolve(String.format("segment-%06d.pack", segment));
+    }
+
+    /**
+     * Returns a read-only view of the content of a packed resume, or null if it is not packed.
+     */
+    public ByteBuffer read(String sha256) {
+        Location location = index.get(sha256);
+        if (location == null) return null;
+        MappedByteBuffer mapping = mappings.get(location.segment());
+        if (mapping == null || mapping.capacity() < location.offset() + location.length()) {
+            // Not mapped yet, or mapped before the active segment grew past this record
+            try (FileChannel in = FileChannel.open(segmentPath(location.segment()), StandardOpenOption.READ)) {
+                mapping = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map segment " + location.segment(), e);
+            }
+            mappings.put(location.segment(), mapping);
+        }
+        return mapping.slice((int) location.offset(), (int) location.length()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Rewrites sealed segments whose live content dropped below the given share of
+     * their size: live records are appended to the active segment, then the old file
+     * is deleted. A tombstone is carried over while the record it deletes may still
+     * sit in an older segment, i.e. unless the segment is the oldest one. It is
+     * dropped if the resume was packed again since: carried to the end of the log it
+     * would come after the new record on replay and delete it.
+     *
+     * @return number of compacted segments
+     */
+    public int compact(double minLiveRatio) {
+        int compacted = 0;
+        for (Map.Entry<Integer, AtomicLong> entry : liveBytes.entrySet()) {
+            int segment = entry.getKey();
+            if (segment == activeSegment) continue;
+            Path file = segmentPath(segment);
+            writeLock.lock();
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (in.size() > 0 && entry.getValue().get() >= minLiveRatio * in.size()) continue;
+                boolean oldest = segment == liveBytes.firstKey();
+                ByteBuffer header = ByteBuffer.allocate(HEADER);
+                long position = 0;
+                while (position + HEADER <= in.size()) {
+                    header.clear();
+                    in.read(header, position);
+                    header.flip();
+                    if (header.getInt() != MAGIC) break;
+                    byte type = header.get();
+                    byte[] sha = new byte[32];
+                    header.get(sha);
+                    long length = header.getLong();
+                    String key = HexFormat.of().formatHex(sha);
+                    if (type == BLOB && new Location(segment, position + HEADER, length).equals(index.get(key))) {
+                        appendRecord(key, in, position + HEADER, length);
+                    } else if (type == TOMBSTONE && !oldest && !index.containsKey(key)) {
+                        appendTombstone(key);
+                    }
+                    position += HEADER + length;
+                }
+                active.force(false);
+                liveBytes.remove(segment);
+                mappings.remove(segment);
+                Files.delete(file);
+                compacted++;
+                compactedSegments.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not compact segment " + segment, e);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return compacted;
+    }
+
+    /** Flushes the active segment to disk */
+    public void force() {
+        writeLock.lock();
+        try {
+            active.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not flush pack segment", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        active.force(false);
+        active.close();
+        activeSegment++;
+        liveBytes.putIfAbsent(activeSegment, new AtomicLong());
+        active = FileChannel.open(segmentPath(activeSegment), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void put(String sha256, Location location) {
+        drop(sha256);
+        index.put(sha256, location);
+        liveBytes.computeIfAbsent(location.segment(), s -> new AtomicLong()).addAndGet(location.length());
+    }
+
+    private void drop(String sha256) {
+        Location old = index.remove(sha256);
+        if (old != null) {
+            AtomicLong live = liveBytes.get(old.segment());
+            if (live != null) live.addAndGet(-old.length());
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("packedResumes", index.size());
+        metrics.put("segments", liveBytes.size());
+        metrics.put("activeSegment", activeSegment);
+        metrics.put("packed", packed.get());
+        metrics.put("deleted", deleted.get());
+        metrics.put("compactedSegments", compactedSegments.get());
+        return metrics;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            active.force(false);
+            active.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
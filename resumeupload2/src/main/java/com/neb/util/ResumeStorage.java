@@ -0,0 +1,69 @@
+package com.neb.util;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage for resume files.
+ * --
+ * Resumes are first written to a temporary area when the candidate applies and
+ * promoted to a permanent key once the application is verified. Keys are relative
+ * names such as 'ab/cd/abcd....pdf'. Writes and promotions are asynchronous so
+ * remote backends can overlap the transfer with other work; the local backend
+ * completes them on the calling thread. A failed write leaves nothing behind.
+ * --
+ */
+public interface ResumeStorage {
+
+    /** Name, size and modification time of a stored object */
+    record ObjectInfo(String name, long size, long lastModified) {}
+
+    /**
+     * Writes a temporary object with the bytes read from the source until its end.
+     *
+     * @return future completed with the number of bytes written
+     */
+    CompletableFuture<Long> writeTemp(String tempName, ReadableByteChannel source);
+
+    /**
+     * Moves a temporary object to its permanent key, replacing an existing object.
+     */
+    CompletableFuture<Void> promote(String tempName, String key);
+
+    /**
+     * Moves a permanent object to another key, replacing an existing object.
+     */
+    void move(String fromKey, String toKey) throws IOException;
+
+    /**
+     * Opens a permanent object for reading.
+     */
+    ReadableByteChannel open(String key) throws IOException;
+
+    /** Information about a permanent object, or null if it does not exist */
+    ObjectInfo stat(String key);
+
+    /** Information about a temporary object, or null if it does not exist */
+    ObjectInfo statTemp(String tempName);
+
+    /** Deletes a permanent object; returns false if it did not exist */
+    boolean delete(String key) throws IOException;
+
+    /** Deletes a temporary object; returns false if it did not exist */
+    boolean deleteTemp(String tempName) throws IOException;
+
+    /** Lists the temporary objects */
+    List<ObjectInfo> listTemp() throws IOException;
+
+    /** Lists the permanent objects at the top level, i.e. keys without a folder */
+    List<ObjectInfo> listTopLevel() throws IOException;
+
+    /**
+     * File backing a permanent key, or null if the backend does not keep objects on
+     * the local disk. Used for sendfile, memory mapping and pack segments.
+     */
+    Path localPath(String key);
+}
@@ -0,0 +1,311 @@
+package com.neb.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * {@link ResumeStorage} in an S3-compatible object store (AWS S3, MinIO, LocalStack, ...).
+ * --
+ * Requests are signed with AWS Signature Version 4 and sent with the JDK HttpClient
+ * using path-style URLs, so any local stand-in can be targeted by pointing
+ * 'resume.storage.s3.endpoint' at it. Temporary objects live under the 'tmp/'
+ * prefix; a promotion is a server-side copy followed by a delete of the temporary
+ * object. Writes are buffered in memory (resumes are capped at the multipart limit)
+ * and sent asynchronously.
+ * --
+ */
+public class S3ResumeStorage implements ResumeStorage {
+
+    private static final String TEMP_PREFIX = "tmp/";
+    private static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final Pattern CONTENTS = Pattern.compile(
+            "<Contents>.*?<Key>(.*?)</Key>.*?<LastModified>(.*?)</LastModified>.*?<Size>(\\d+)</Size>.*?</Contents>", Pattern.DOTALL);
+    private static final Pattern NEXT_TOKEN = Pattern.compile("<NextContinuationToken>(.*?)</NextContinuationToken>");
+
+    private final URI endpoint;
+    private final String bucket;
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+    private final HttpClient http;
+
+    public S3ResumeStorage(String endpoint, String bucket, String region, String accessKey, String secretKey) {
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.bucket = bucket;
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    @Override
+    public CompletableFuture<Long> writeTemp(String tempName, ReadableByteChannel source) {
+        byte[] body;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                out.write(buffer.array(), 0, buffer.limit());
+                buffer.clear();
+            }
+            body = out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return sendAsync("PUT", TEMP_PREFIX + tempName, Map.of(), Map.of(), body)
+                .thenApply(response -> {
+                    expect(response, 200);
+                    return (long) body.length;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> promote(String tempName, String key) {
+        return copyAsync(TEMP_PREFIX + tempName, key)
+                .thenCompose(v -> sendAsync("DELETE", TEMP_PREFIX + tempName, Map.of(), Map.of(), null))
+                .thenAccept(response -> expect(response, 204, 200));
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        join(copyAsync(fromKey, toKey));
+        delete(fromKey);
+    }
+
+    private CompletableFuture<Void> copyAsync(String fromKey, String toKey) {
+        return sendAsync("PUT", toKey, Map.of(), Map.of("x-amz-copy-source", "/" + bucket + "/" + encodePath(fromKey)), null)
+                .thenAccept(response -> expect(response, 200));
+    }
+
+    @Override
+    public ReadableByteChannel open(String key) throws IOException {
+        HttpResponse<InputStream> response = send(request("GET", key, Map.of(), Map.of(), null),
+                HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 404) {
+            response.body().close();
+            throw new FileNotFoundException(key);
+        }
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("GET " + key + " failed with status " + response.statusCode());
+        }
+        return Channels.newChannel(response.body());
+    }
+
+    @Override
+    public ObjectInfo stat(String key) {
+        return head(key, key);
+    }
+
+    @Override
+    public ObjectInfo statTemp(String tempName) {
+        return head(TEMP_PREFIX + tempName, tempName);
+    }
+
+    private ObjectInfo head(String key, String name) {
+        try {
+            HttpResponse<Void> response = send(request("HEAD", key, Map.of(), Map.of(), null), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) return null;
+            long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+            long modified = response.headers().firstValue("Last-Modified")
+                    .map(v -> ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                    .orElse(0L);
+            return new ObjectInfo(name, size, modified);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        // S3 answers 204 whether or not the object existed
+        boolean existed = stat(key) != null;
+        expect(send(request("DELETE", key, Map.of(), Map.of(), null), HttpResponse.BodyHandlers.discarding()), 204, 200);
+        return existed;
+    }
+
+    @Override
+    public boolean deleteTemp(String tempName) throws IOException {
+        return delete(TEMP_PREFIX + tempName);
+    }
+
+    @Override
+    public List<ObjectInfo> listTemp() throws IOException {
+        List<ObjectInfo> objects = new ArrayList<>();
+        for (ObjectInfo info : list(TEMP_PREFIX, false)) {
+            objects.add(new ObjectInfo(info.name().substring(TEMP_PREFIX.length()), info.size(), info.lastModified()));
+        }
+        return objects;
+    }
+
+    @Override
+    public List<ObjectInfo> listTopLevel() throws IOException {
+        return list("", true);
+    }
+
+    // ListObjectsV2, following continuation tokens
+    private List<ObjectInfo> list(String prefix, boolean topLevelOnly) throws IOException {
+        List<ObjectInfo> objects = new ArrayList<>();
+        String token = null;
+        do {
+            Map<String, String> query = new TreeMap<>();
+            query.put("list-type", "2");
+            query.put("prefix", prefix);
+            if (topLevelOnly) query.put("delimiter", "/");
+            if (token != null) query.put("continuation-token", token);
+            HttpResponse<String> response = send(request("GET", "", query, Map.of(), null), HttpResponse.BodyHandlers.ofString());
+            expect(response, 200);
+            Matcher m = CONTENTS.matcher(response.body());
+            while (m.find()) {
+                objects.add(new ObjectInfo(m.group(1), Long.parseLong(m.group(3)), Instant.parse(m.group(2)).toEpochMilli()));
+            }
+            Matcher next = NEXT_TOKEN.matcher(response.body());
+            token = next.find() ? next.group(1) : null;
+        } while (token != null);
+        return objects;
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return null;
+    }
+
+    private CompletableFuture<HttpResponse<Void>> sendAsync(String method, String key, Map<String, String> query,
+            Map<String, String> headers, byte[] body) {
+        return http.sendAsync(request(method, key, query, headers, body), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return http.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling the object store", e);
+        }
+    }
+
+    // Builds a SigV4-signed request for the object (or, with an empty key, the bucket)
+    private HttpRequest request(String method, String key, Map<String, String> query, Map<String, String> headers, byte[] body) {
+        String path = "/" + bucket + (key.isEmpty() ? "" : "/" + encodePath(key));
+        StringBuilder canonicalQuery = new StringBuilder();
+        new TreeMap<>(query).forEach((name, value) -> {
+            if (!canonicalQuery.isEmpty()) canonicalQuery.append('&');
+            canonicalQuery.append(encode(name)).append('=').append(encode(value));
+        });
+
+        String amzDate = AMZ_DATE.format(ZonedDateTime.now(ZoneOffset.UTC));
+        String date = amzDate.substring(0, 8);
+        String payloadHash = body == null ? EMPTY_SHA256 : HexFormat.of().formatHex(sha256(body));
+
+        TreeMap<String, String> signed = new TreeMap<>();
+        signed.put("host", endpoint.getAuthority());
+        signed.put("x-amz-content-sha256", payloadHash);
+        signed.put("x-amz-date", amzDate);
+        headers.forEach((name, value) -> signed.put(name.toLowerCase(), value));
+
+        StringBuilder canonicalHeaders = new StringBuilder();
+        signed.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value.trim()).append('\n'));
+        String signedHeaders = String.join(";", signed.keySet());
+
+        String canonicalRequest = method + "\n" + path + "\n" + canonicalQuery + "\n"
+                + canonicalHeaders + "\n" + signedHeaders + "\n" + payloadHash;
+        String scope = date + "/" + region + "/s3/aws4_request";
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n"
+                + HexFormat.of().formatHex(sha256(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, "s3");
+        signingKey = hmac(signingKey, "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(endpoint + path + (canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery)))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope
+                        + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature)
+                .header("x-amz-content-sha256", payloadHash)
+                .header("x-amz-date", amzDate);
+        headers.forEach(builder::header);
+        builder.method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        return builder.build();
+    }
+
+    private static void expect(HttpResponse<?> response, int... statuses) {
+        for (int status : statuses) {
+            if (response.statusCode() == status) return;
+        }
+        throw new UncheckedIOException(new IOException(response.request().method() + " " + response.uri().getPath()
+                + " failed with status " + response.statusCode()));
+    }
+
+    private static void join(CompletableFuture<?> future) throws IOException {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            if (e.getCause() instanceof IOException io) throw io;
+            throw e;
+        }
+    }
+
+    // RFC 3986 encoding as required by SigV4: only unreserved characters stay as they are
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20").replace("*", "%2A").replace("%7E", "~");
+    }
+
+    private static String encodePath(String key) {
+        return encode(key).replace("%2F", "/");
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
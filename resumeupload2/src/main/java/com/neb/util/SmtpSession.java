@@ -0,0 +1,161 @@
+package com.neb.util;
+
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.angus.mail.smtp.SMTPTransport;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.URLName;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * An authenticated SMTP connection that is kept open and reused for several mails.
+ * --
+ * JavaMailSender.send opens, STARTTLS-negotiates and authenticates a new connection
+ * for every call. A session instead connects lazily on the first mail and reuses the
+ * transport for following mails. Mails sent back to back go out without a check;
+ * only a connection idle for longer than the check interval is probed with a NOOP
+ * first, since that is when servers drop it.
+ * --
+ * A mail whose connection dropped while it was sent is resent once on a new
+ * connection, but only if the server had not yet accepted DATA. From then on the
+ * server may already hold the message and a resend could deliver it twice, so the
+ * failure is reported instead and the caller's retry policy applies.
+ * Not thread-safe: each dispatch worker owns its own session.
+ * --
+ */
+public class SmtpSession implements AutoCloseable {
+
+    private final JavaMailSender mailSender;
+    private final AtomicLong connectCounter;
+    private final long checkAfterIdleNanos;
+    private Transport transport;
+    private long lastUsedNanos = System.nanoTime();
+
+    /**
+     * @param mailSender          the configured sender; transports are only pooled for JavaMailSenderImpl
+     * @param connectCounter      incremented on every new SMTP connection
+     * @param checkAfterIdleNanos idle time after which the connection is probed before the next mail
+     */
+    public SmtpSession(JavaMailSender mailSender, AtomicLong connectCounter, long checkAfterIdleNanos) {
+        this.mailSender = mailSender;
+        this.connectCounter = connectCounter;
+        this.checkAfterIdleNanos = checkAfterIdleNanos;
+    }
+
+    /**
+     * Sends a mail over the open connection, connecting or reconnecting when needed.
+     *
+     * @throws MessagingException if the mail could not be delivered
+     */
+    public void send(SimpleMailMessage message) throws MessagingException {
+        try {
+            if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+                mailSender.send(message);
+                return;
+            }
+
+            MimeMessage mime = toMimeMessage(sender, message);
+            Transport current = connection(sender);
+            try {
+                send(current, mime);
+            } catch (MessagingException e) {
+                boolean beforeData = current instanceof TrackingTransport tracking && !tracking.dataAccepted;
+                // Message-level rejection on a healthy connection: nothing to retry
+                if (current.isConnected()) throw e;
+                close();
+                if (!beforeData) throw e;
+                // Connection dropped (idle timeout on the server, network) before the
+                // server took the message: it has nothing, so sending again is safe
+                send(connection(sender), mime);
+            }
+        } finally {
+            lastUsedNanos = System.nanoTime();
+        }
+    }
+
+    /** Nanoseconds since this session last sent a mail */
+    public long idleNanos() {
+        return System.nanoTime() - lastUsedNanos;
+    }
+
+    /** True while a transport is connected */
+    public boolean isOpen() {
+        return transport != null && transport.isConnected();
+    }
+
+    @Override
+    public void close() {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException ignored) {
+                // connection is being discarded anyway
+            }
+            transport = null;
+        }
+    }
+
+    private static void send(Transport transport, MimeMessage mime) throws MessagingException {
+        if (transport instanceof TrackingTransport tracking) tracking.dataAccepted = false;
+        transport.sendMessage(mime, mime.getAllRecipients());
+    }
+
+    private Transport connection(JavaMailSenderImpl sender) throws MessagingException {
+        // isConnected() costs a NOOP round trip, so only a connection that sat idle is probed
+        if (transport != null && idleNanos() > checkAfterIdleNanos && !transport.isConnected()) close();
+        if (transport == null) {
+            Transport t = newTransport(sender);
+            t.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+            connectCounter.incrementAndGet();
+            transport = t;
+        }
+        return transport;
+    }
+
+    private static Transport newTransport(JavaMailSenderImpl sender) throws MessagingException {
+        String protocol = sender.getProtocol() == null ? "smtp" : sender.getProtocol();
+        Session session = sender.getSession();
+        if (!protocol.equals("smtp") && !protocol.equals("smtps")) return session.getTransport(protocol);
+        return new TrackingTransport(session, new URLName(protocol, null, -1, null, null, null), protocol);
+    }
+
+    // Same conversion JavaMailSenderImpl.send(SimpleMailMessage) performs before sending
+    private MimeMessage toMimeMessage(JavaMailSenderImpl sender, SimpleMailMessage message) throws MessagingException {
+        MimeMessage mime = sender.createMimeMessage();
+        message.copyTo(new MimeMailMessage(mime));
+        if (mime.getSentDate() == null) {
+            mime.setSentDate(new Date());
+        }
+        mime.saveChanges();
+        return mime;
+    }
+
+    /**
+     * SMTP transport that records whether the server accepted DATA (replied 354) for
+     * the current mail. CHUNKING (mail.smtp.chunksize) is not used by this application,
+     * so every message goes through DATA.
+     */
+    private static final class TrackingTransport extends SMTPTransport {
+        boolean dataAccepted;
+
+        TrackingTransport(Session session, URLName url, String protocol) {
+            super(session, url, protocol, protocol.equals("smtps"));
+        }
+
+        @Override
+        protected OutputStream data() throws MessagingException {
+            OutputStream out = super.data();
+            dataAccepted = true;
+            return out;
+        }
+    }
+}
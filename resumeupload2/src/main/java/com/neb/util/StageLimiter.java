@@ -0,0 +1,112 @@
+package com.neb.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.neb.exception.StageOverloadedException;
+
+/**
+ * Admission control for one stage of the submission pipeline.
+ * --
+ * At most 'workers' requests run the stage at once and at most 'queueCapacity'
+ * more wait for a worker. A request that finds the queue full, or waits longer
+ * than 'maxWaitMillis', is turned away with {@link StageOverloadedException}
+ * instead of piling up threads behind a slow stage. The stage runs on the calling
+ * thread, which holds the permit until {@link Permit#close()}.
+ * --
+ * Time spent waiting and time spent in the stage are recorded in separate
+ * histograms.
+ * --
+ */
+public class StageLimiter {
+
+    private final String name;
+    private final int workers;
+    private final int queueCapacity;
+    private final long maxWaitNanos;
+    private final long retryAfterSeconds;
+
+    private final Semaphore admitted;
+    private final Semaphore running;
+
+    private final LatencyHistogram waits = new LatencyHistogram();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    /** Held while the stage runs; closing it frees the worker */
+    public final class Permit implements AutoCloseable {
+        private final long started = System.nanoTime();
+        private boolean closed;
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            latency.record(System.nanoTime() - started);
+            running.release();
+            admitted.release();
+        }
+    }
+
+    public StageLimiter(String name, int workers, int queueCapacity, long maxWaitMillis, long retryAfterSeconds) {
+        this.name = name;
+        this.workers = Math.max(1, workers);
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.admitted = new Semaphore(this.workers + this.queueCapacity);
+        this.running = new Semaphore(this.workers, true);
+    }
+
+    /**
+     * Waits for a worker of this stage.
+     *
+     * @throws StageOverloadedException if the queue is full or no worker came free in time
+     */
+    public Permit enter() {
+        if (!admitted.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new StageOverloadedException(name, retryAfterSeconds);
+        }
+        long waitStarted = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = running.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        waits.record(System.nanoTime() - waitStarted);
+        if (!acquired) {
+            admitted.release();
+            timedOut.incrementAndGet();
+            throw new StageOverloadedException(name, retryAfterSeconds);
+        }
+        return new Permit();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        int active = workers - running.availablePermits();
+        metrics.put("workers", workers);
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("active", active);
+        metrics.put("queued", Math.max(0, workers + queueCapacity - admitted.availablePermits() - active));
+        metrics.put("rejected", rejected.get());
+        metrics.put("timedOut", timedOut.get());
+        metrics.put("wait", waits.snapshot());
+        metrics.put("latency", latency.snapshot());
+        return metrics;
+    }
+}
@@ -0,0 +1,31 @@
+package com.neb.util;
+
+/**
+ * Keeps every issued code in a {@link PendingStore} until it is used or expires.
+ */
+public class StoredVerificationCodeStrategy implements VerificationCodeStrategy {
+
+    private final PendingStore<String> codes;
+
+    public StoredVerificationCodeStrategy(PendingStore<String> codes) {
+        this.codes = codes;
+    }
+
+    @Override
+    public String generate(String email) {
+        String code = String.valueOf((int) (Math.random() * 900000) + 100000);
+        codes.put(email, code);
+        return code;
+    }
+
+    @Override
+    public boolean verify(String email, String code) {
+        String stored = codes.get(email);
+        return stored != null && stored.equals(code);
+    }
+
+    @Override
+    public void invalidate(String email) {
+        codes.remove(email);
+    }
+}
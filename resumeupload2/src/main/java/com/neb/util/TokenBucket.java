@@ -0,0 +1,60 @@
+package com.neb.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * --
+ * Implemented as the generic cell rate algorithm: the whole state is one
+ * 'theoretical arrival time' in an AtomicLong, advanced by one emission interval
+ * per admitted request with compare-and-set. A bucket that is full again (the
+ * arrival time lies in the past) carries no information and can be dropped.
+ * --
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong arrival;
+
+    /**
+     * @param capacity        requests allowed in a burst
+     * @param refillPerMinute tokens added per minute
+     */
+    public TokenBucket(int capacity, double refillPerMinute, long nowNanos) {
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.MINUTES.toNanos(1) / refillPerMinute));
+        this.burstNanos = intervalNanos * Math.max(1, capacity);
+        this.arrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) return wait;
+            if (arrival.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    /**
+     * Looks at the bucket without taking a token.
+     *
+     * @return 0 if a token is available, otherwise the nanoseconds until one is
+     */
+    public long waitNanos(long nowNanos) {
+        long next = Math.max(arrival.get(), nowNanos) + intervalNanos;
+        return Math.max(0, next - nowNanos - burstNanos);
+    }
+
+    /** Whether the bucket has refilled completely, i.e. behaves like a new one */
+    public boolean isIdle(long nowNanos) {
+        return arrival.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.neb.util;
+
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Helpers for inserts that rely on a unique constraint instead of a prior lookup.
+ */
+public final class UniqueConstraints {
+
+    private UniqueConstraints() {
+    }
+
+    /**
+     * Whether a failed insert was rejected by the named unique constraint.
+     * The name is matched case-insensitively against the constraint reported by
+     * Hibernate, or against the driver message when Hibernate did not report one.
+     */
+    public static boolean isViolated(DataIntegrityViolationException e, String constraintName) {
+        String name = constraintName.toLowerCase(Locale.ROOT);
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(name);
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(name);
+    }
+}
@@ -0,0 +1,25 @@
+package com.neb.util;
+
+/**
+ * Issues and checks the email verification codes of one application flow.
+ * Implementations either keep the issued codes or derive them statelessly.
+ */
+public interface VerificationCodeStrategy {
+
+    /**
+     * Issues a 6-digit verification code for the given email.
+     */
+    String generate(String email);
+
+    /**
+     * Checks a code entered by the user. Does not consume the code.
+     *
+     * @return true if the code is correct and not expired
+     */
+    boolean verify(String email, String code);
+
+    /**
+     * Forgets the code issued for the given email, if anything is kept for it.
+     */
+    void invalidate(String email);
+}
@@ -0,0 +1,64 @@
+package com.neb.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Creates the {@link VerificationCodeStrategy} of each application flow
+ * according to the 'verification.mode' property ('stored' or 'hmac').
+ */
+@Component
+public class VerificationCodeStrategyFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(VerificationCodeStrategyFactory.class);
+
+    @Autowired
+    private PendingStoreRegistry pendingStoreRegistry;
+
+    @Value("${verification.mode:stored}")
+    private String mode;
+
+    @Value("${verification.hmac.secret:}")
+    private String hmacSecret;
+
+    @Value("${verification.hmac.skew-windows:1}")
+    private int skewWindows;
+
+    private byte[] secret;
+
+    @PostConstruct
+    void init() {
+        if (!"hmac".equalsIgnoreCase(mode)) return;
+        if (hmacSecret == null || hmacSecret.isBlank()) {
+            // Only usable on a single node: codes do not survive a restart and other nodes cannot check them
+            log.warn("verification.hmac.secret is not set, using a random per-process secret");
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = hmacSecret.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Creates the strategy for one flow.
+     *
+     * @param scope        flow name, e.g. "career"
+     * @param expiryMillis validity of a code
+     */
+    public VerificationCodeStrategy create(String scope, long expiryMillis) {
+        if ("hmac".equalsIgnoreCase(mode)) {
+            long retention = HmacVerificationCodeStrategy.retentionMillis(expiryMillis, skewWindows);
+            return new HmacVerificationCodeStrategy(secret, scope, expiryMillis, skewWindows,
+                    pendingStoreRegistry.create(scope + "CodeEpochs", retention, Long.class));
+        }
+        return new StoredVerificationCodeStrategy(pendingStoreRegistry.create(scope + "Codes", expiryMillis, String.class));
+    }
+}
@@ -2,8 +2,11 @@ package com.neb.util;
 
 
 import com.neb.entity.DeveloperApplication;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import java.util.*;
 /**
  * Manages the email verification process for DeveloperApplication submissions.
  * Stores pending applications and temporary verification codes.
@@ -11,55 +14,74 @@ import java.util.*;
 @Component
 public class VerificationManager {
 	
+    @Autowired
+    private PendingStoreRegistry pendingStoreRegistry;
+
+    @Autowired
+    private VerificationCodeStrategyFactory verificationCodeStrategyFactory;
+
 	// Stores applications waiting to be verified, mapped by email
-    private final Map<String, DeveloperApplication> pendingApps = new HashMap<>();
+    private PendingStore<DeveloperApplication> pendingApps;
     
-    // Stores verification codes and their creation timestamps, mapped by email
-    private final Map<String, VerificationEntry> codes = new HashMap<>();
+    // Issues and checks verification codes (stored per email or HMAC-derived)
+    private VerificationCodeStrategy codes;
      
     // Code expiry time: 10 minutes in milliseconds
     private static final long EXPIRY = 10 * 60 * 1000; // 10 min
-  
-    // Internal class to hold verification code and timestamp
-    private static class VerificationEntry {
-        String code;
-        long timestamp;
-        VerificationEntry(String c, long t) { code = c; timestamp = t; }
+
+    @PostConstruct
+    void init() {
+        pendingApps = pendingStoreRegistry.create("developerApplications", EXPIRY, DeveloperApplication.class);
+        codes = verificationCodeStrategyFactory.create("developer", EXPIRY);
     }
 
-    // Add a new application to the pending list
-    public void addPendingApplication(DeveloperApplication app) {
-        pendingApps.put(app.getEmail(), app);
+    // Add a new application to the pending list; false if too many applications are pending
+    public boolean addPendingApplication(DeveloperApplication app) {
+        return pendingApps.offer(app.getEmail(), app);
     }
 
     // Generate a 6-digit verification code for the given email
     public String generateCode(String email) {
-        String code = String.valueOf((int) (Math.random() * 900000) + 100000);
-        codes.put(email, new VerificationEntry(code, System.currentTimeMillis()));
-        return code;
+        return codes.generate(email);
     }
     
     // Verify the code for the given email and return the application if valid
     public DeveloperApplication verifyCode(String email, String code) {
-        VerificationEntry entry = codes.get(email);
+        DeveloperApplication app = pendingApps.get(email);
         
-        // If no entry or code expired, clear data and return null
-        if (entry == null || System.currentTimeMillis() - entry.timestamp > EXPIRY) {
+        // If no pending application or it expired, clear data and return null
+        if (app == null) {
             clear(email);
             return null;
         }
         
-        // If code doesn't match, return null
-        if (!entry.code.equals(code)) return null;
+        // If code doesn't match or expired, return null
+        if (!codes.verify(email, code)) return null;
         
         // Return the verified application
-        return pendingApps.get(email);
+        return app;
     }
     
+    // Take the verified application out of the pending list, so only one verification can
+    // complete it; null if another one took it first. The code stays until removeCode
+    public DeveloperApplication claim(String email) {
+        return pendingApps.remove(email);
+    }
+
+    // Put a claimed application back after its completion failed, so the same code can be retried
+    public void restore(DeveloperApplication app) {
+        pendingApps.put(app.getEmail(), app);
+    }
+
+    // Burn the code of an email once its application is completed or rejected
+    public void removeCode(String email) {
+        codes.invalidate(email);
+    }
+
     // Remove the application and verification code after use or expiry
     public void clear(String email) {
         pendingApps.remove(email);
-        codes.remove(email);
+        codes.invalidate(email);
     }
 }
 
@@ -0,0 +1,81 @@
+package com.neb.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.neb.service.ApplyRateLimiter;
+
+/**
+ * Load test of the apply admission check: many request threads taking IP and email
+ * tokens at once, spread over many clients or all hammering one.
+ * --
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ *     -Dexec.args="ApplyRateLimiterBenchmark"
+ * --
+ * The buckets are sized so nothing is throttled; what is measured is the cost of the
+ * check itself under contention ('hotClient' makes every thread CAS the same bucket).
+ * Run with '-t 1' as well to see the uncontended cost.
+ * --
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ApplyRateLimiterBenchmark {
+
+    @Param({"10000"})
+    public int clients;
+
+    private ApplyRateLimiter limiter;
+    private String[] ips;
+    private String[] emails;
+
+    @Setup
+    public void setUp() {
+        limiter = new ApplyRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 1_000_000);
+        ReflectionTestUtils.setField(limiter, "ipRefillPerMinute", 1e12);
+        ReflectionTestUtils.setField(limiter, "emailCapacity", 1_000_000);
+        ReflectionTestUtils.setField(limiter, "emailRefillPerMinute", 1e12);
+        ReflectionTestUtils.setField(limiter, "maxKeys", clients * 2);
+        ips = new String[clients];
+        emails = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            ips[i] = "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff);
+            emails[i] = "applicant" + i + "@example.com";
+        }
+    }
+
+    /** Apply requests from many clients, each naming its own email */
+    @Benchmark
+    public long manyClients() {
+        int client = ThreadLocalRandom.current().nextInt(clients);
+        limiter.chargeEmail(emails[client]);
+        return limiter.acquireIp(ips[client]);
+    }
+
+    /** Every thread uses the same IP and email bucket */
+    @Benchmark
+    public long hotClient() {
+        limiter.chargeEmail(emails[0]);
+        return limiter.acquireIp(ips[0]);
+    }
+}
@@ -0,0 +1,83 @@
+package com.neb.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.neb.util.MailTemplate;
+
+/**
+ * Render throughput and allocation of the compiled career assessment mail against
+ * the inline string concatenation it replaced.
+ * --
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ *     -Dexec.args="MailTemplateBenchmark -prof gc"
+ * --
+ * '-prof gc' adds gc.alloc.rate.norm, the bytes allocated per rendered mail.
+ * --
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailTemplateBenchmark {
+
+    private MailTemplate template;
+    private final StringBuilder buffer = new StringBuilder(4096);
+
+    // Fields, not constants, so the concatenation cannot be folded at compile time
+    private String firstName = "Ada";
+    private String role = "intern";
+    private String domain = "Java";
+
+    @Setup
+    public void compile() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/mail-templates/career/assessment-intern-Java.txt")) {
+            if (in == null) throw new IOException("Template not on the classpath");
+            template = MailTemplate.compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /** The compiled template rendered into a reused buffer, as MailTemplateService does */
+    @Benchmark
+    public void compiledTemplate(Blackhole blackhole) {
+        buffer.setLength(0);
+        template.renderSubject(buffer, "firstName", firstName, "role", role, "domain", domain);
+        blackhole.consume(buffer.toString());
+        buffer.setLength(0);
+        template.renderBody(buffer, "firstName", firstName, "role", role, "domain", domain);
+        blackhole.consume(buffer.toString());
+    }
+
+    /** The former inline concatenation of the same mail */
+    @Benchmark
+    public void concatenation(Blackhole blackhole) {
+        String assessmentSubject = "NEBULYTIX | Assessment for " + role + " Position";
+        String assessmentText = "Hello " + firstName + ",\n" +
+                "Domain " + domain + ",\n" +
+                "Role " + role + ",\n\n" +
+                "Thank you for your interest in Software Development Engineering Internship opportunities at Nebulytix technologies pvt ltd! We are excited to move you forward to the next step of the application process, the Online Assessment.\n\n" +
+                "Please complete the assessment:\n" +
+                "https://www.hackerrank.com/test/dce0c7o3ks8/96b0bccd128199aa249a5d878252c7c8?try_test=true&email=hr%40nebulytixtechnologies.com\n\n" +
+                "Once you are ready, set aside a block 1:45 hour of uninterrupted time to complete it in its entirety.\n\n" +
+                "For technical and online assessment support, please review the Preparation Guide for resources or contact your recruiting team for any questions.\n\n" +
+                "Thank you,\nNebulytix technologies pvt ltd";
+        blackhole.consume(assessmentSubject);
+        blackhole.consume(assessmentText);
+    }
+}
@@ -0,0 +1,118 @@
+package com.neb.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.neb.util.ResumeIndex;
+
+/**
+ * Query latency of the resume index and the time to save and load it, on synthetic
+ * documents whose terms follow a skewed (roughly Zipf) distribution like real text.
+ * --
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ *     -Dexec.args="ResumeIndexBenchmark -jvmArgs -Xmx2g"
+ * --
+ * Queries are one to three terms drawn from the same distribution, so common terms
+ * with long postings are hit as often as in practice. The setup prints the size of
+ * the saved file. PDF text extraction is not part of this benchmark.
+ * --
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResumeIndexBenchmark {
+
+    @Param({"100000"})
+    public int documents;
+
+    @Param({"300"})
+    public int termsPerDocument;
+
+    @Param({"50000"})
+    public int vocabulary;
+
+    private ResumeIndex index;
+    private Path dir;
+    private Path saved;
+    private Path scratch;
+    private String[] queries;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        index = new ResumeIndex();
+        StringBuilder text = new StringBuilder();
+        for (int doc = 0; doc < documents; doc++) {
+            text.setLength(0);
+            for (int t = 0; t < termsPerDocument; t++) text.append(term(random)).append(' ');
+            index.put("career:" + doc, text.toString());
+        }
+        queries = new String[1024];
+        for (int q = 0; q < queries.length; q++) {
+            int terms = 1 + random.nextInt(3);
+            StringBuilder query = new StringBuilder();
+            for (int t = 0; t < terms; t++) query.append(term(random)).append(' ');
+            queries[q] = query.toString();
+        }
+        dir = Files.createTempDirectory("resume-index-bench");
+        saved = dir.resolve("resumes.idx");
+        scratch = dir.resolve("scratch.idx");
+        index.save(saved);
+        System.out.printf("%nIndex of %d documents saved to %.1f MB%n", documents, Files.size(saved) / 1e6);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saved);
+        Files.deleteIfExists(scratch);
+        Files.deleteIfExists(dir);
+    }
+
+    // Log-uniform rank: low ranks (common terms) are drawn far more often than high ones
+    private String term(Random random) {
+        return "t" + ((int) Math.pow(vocabulary, random.nextDouble()) - 1);
+    }
+
+    /** Top 20 for a random query */
+    @Benchmark
+    public List<ResumeIndex.Hit> search() {
+        return index.search(queries[ThreadLocalRandom.current().nextInt(queries.length)], 20);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    @BenchmarkMode(Mode.SingleShotTime)
+    public void save() throws IOException {
+        index.save(scratch);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    @BenchmarkMode(Mode.SingleShotTime)
+    public ResumeIndex load() throws IOException {
+        return ResumeIndex.load(saved);
+    }
+}
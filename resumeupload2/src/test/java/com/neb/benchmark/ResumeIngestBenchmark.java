@@ -0,0 +1,171 @@
+package com.neb.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.neb.exception.InvalidFileFormatException;
+import com.neb.util.LocalResumeStorage;
+import com.neb.util.ResumeIngestor;
+
+/**
+ * Latency, CPU and bytes moved per upload: the single-pass {@link ResumeIngestor}
+ * against the former path (extension check, transferTo into uploads_temp, then a
+ * second read of the file for its SHA-256 as deduplicated storage needs).
+ * --
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ *     -Dexec.args="ResumeIngestBenchmark -prof gc"
+ * --
+ * Latency is the score; the 'bytesWritten' and 'bytesRead' counters give the disk
+ * traffic per operation. For CPU per operation add '-prof perfnorm' on Linux. The
+ * '*NotAPdf' cases upload 10 MB that only claim to be a PDF by their name: the
+ * former path stores all of it, the ingestor stops after the header. Each
+ * operation deletes its file again, equally for both paths.
+ * --
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResumeIngestBenchmark {
+
+    @Param({"102400", "2097152", "10485760"})
+    public int size;
+
+    /** Disk traffic of the measured operations */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Io {
+        public long bytesWritten;
+        public long bytesRead;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesWritten = 0;
+            bytesRead = 0;
+        }
+    }
+
+    private Path dir;
+    private Path tempDir;
+    private ResumeIngestor ingestor;
+    private MockMultipartFile pdf;
+    private MockMultipartFile notAPdf;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("ingest-bench");
+        tempDir = dir.resolve("uploads_temp");
+        Files.createDirectories(tempDir);
+        ingestor = new ResumeIngestor();
+        ReflectionTestUtils.setField(ingestor, "maxSize", DataSize.ofMegabytes(10));
+        ReflectionTestUtils.setField(ingestor, "resumeStorage", new LocalResumeStorage(dir.resolve("uploads"), tempDir));
+
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        System.arraycopy("%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII), 0, content, 0, 9);
+        pdf = new MockMultipartFile("resume", "resume.pdf", "application/pdf", content);
+        byte[] fake = new byte[10 * 1024 * 1024];
+        new Random(7).nextBytes(fake);
+        notAPdf = new MockMultipartFile("resume", "resume.pdf", "application/pdf", fake);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public String ingest(Io io) throws IOException {
+        ResumeIngestor.IngestedResume resume = ingestor.ingest(pdf);
+        io.bytesWritten += resume.size();
+        ingestor.deleteTemp(resume.fileName());
+        return resume.sha256();
+    }
+
+    @Benchmark
+    public String legacy(Io io) throws IOException {
+        return legacyStore(pdf, io);
+    }
+
+    @Benchmark
+    public Object ingestNotAPdf() throws IOException {
+        try {
+            return ingestor.ingest(notAPdf);
+        } catch (InvalidFileFormatException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public String legacyNotAPdf(Io io) throws IOException {
+        return legacyStore(notAPdf, io);
+    }
+
+    // Extension check and transferTo as before, then the separate hashing pass
+    private String legacyStore(MockMultipartFile file, Io io) throws IOException {
+        if (!file.getOriginalFilename().toLowerCase().endsWith(".pdf")) throw new IllegalStateException();
+        String safeFileName = UUID.randomUUID() + "_" + file.getOriginalFilename().replaceAll("[^a-zA-Z0-9\\.\\-_]", "_");
+        File target = tempDir.resolve(safeFileName).toFile();
+        file.transferTo(target);
+        io.bytesWritten += target.length();
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(target.toPath())) {
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, n);
+                io.bytesRead += n;
+            }
+        }
+        Files.delete(target.toPath());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
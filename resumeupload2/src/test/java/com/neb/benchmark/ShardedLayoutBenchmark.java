@@ -0,0 +1,140 @@
+package com.neb.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.neb.util.LocalResumeStorage;
+import com.neb.util.ResumeStorage;
+
+/**
+ * Create, lookup and list times of the resume store with the flat layout
+ * ('abcd....pdf') against the two-level hex prefix layout ('ab/cd/abcd....pdf').
+ * --
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ *     -Dexec.args="ShardedLayoutBenchmark -p files=10000,100000"
+ * --
+ * Each trial fills a fresh directory under java.io.tmpdir (or -Dbenchmark.dir) with
+ * empty files, so the file system under test is the one of that directory; 1M files
+ * take several minutes to set up and about 1M inodes. 'list' reads the directory
+ * that holds a random key: the whole store when flat, one leaf when sharded.
+ * --
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardedLayoutBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int files;
+
+    @Param({"flat", "sharded"})
+    public String layout;
+
+    private Path dir;
+    private ResumeStorage storage;
+    private String[] keys;
+    private long created;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException {
+        Path base = Path.of(System.getProperty("benchmark.dir", System.getProperty("java.io.tmpdir")));
+        dir = Files.createTempDirectory(base, "layout-bench");
+        storage = new LocalResumeStorage(dir.resolve("uploads"), dir.resolve("uploads_temp"));
+        keys = new String[files];
+        for (int i = 0; i < files; i++) {
+            keys[i] = key(blobName(i));
+            create(keys[i]);
+        }
+        created = files;
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /** Adds one more resume to the store */
+    @Benchmark
+    public Path create() throws IOException {
+        return create(key(blobName(created++)));
+    }
+
+    /** Existence check of a stored resume, as done before every move and download */
+    @Benchmark
+    public Object lookup() {
+        return storage.stat(keys[ThreadLocalRandom.current().nextInt(files)]);
+    }
+
+    /** Reads the directory entries around a stored resume */
+    @Benchmark
+    public int list() throws IOException {
+        Path parent = storage.localPath(keys[ThreadLocalRandom.current().nextInt(files)]).getParent();
+        int entries = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(parent)) {
+            for (Path ignored : stream) entries++;
+        }
+        return entries;
+    }
+
+    private Path create(String key) throws IOException {
+        Path file = storage.localPath(key);
+        Files.createDirectories(file.getParent());
+        return Files.createFile(file);
+    }
+
+    // Same layout as ResumeBlobService: ab/cd/abcd....pdf when sharded
+    private String key(String blobName) {
+        return "flat".equals(layout) ? blobName
+                : blobName.substring(0, 2) + "/" + blobName.substring(2, 4) + "/" + blobName;
+    }
+
+    // Deterministic, evenly spread stand-in for a SHA-256 blob name
+    private static String blobName(long i) {
+        long a = mix(i);
+        long b = mix(a);
+        long c = mix(b);
+        long d = mix(c);
+        HexFormat hex = HexFormat.of();
+        return hex.toHexDigits(a) + hex.toHexDigits(b) + hex.toHexDigits(c) + hex.toHexDigits(d) + ".pdf";
+    }
+
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,168 @@
+package com.neb.benchmark;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.neb.util.SmtpSession;
+
+import jakarta.mail.MessagingException;
+
+/**
+ * Messages per second through a connection per mail (JavaMailSender.send) against
+ * one reused {@link SmtpSession}, sent to a local fake SMTP server.
+ * --
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ *     -Dexec.args="SmtpSessionBenchmark"
+ * --
+ * The fake server accepts everything and discards the data. 'handshakeMillis' delays
+ * its greeting to stand in for the TCP, STARTTLS and AUTH round trips of a real
+ * relay, which a new connection pays and a reused session does not.
+ * --
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmtpSessionBenchmark {
+
+    @Param({"0", "20"})
+    public int handshakeMillis;
+
+    private FakeSmtpServer server;
+    private JavaMailSenderImpl mailSender;
+    private SmtpSession session;
+    private SimpleMailMessage message;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        server = new FakeSmtpServer(handshakeMillis);
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.port());
+        session = new SmtpSession(mailSender, new AtomicLong(), TimeUnit.SECONDS.toNanos(5));
+        message = new SimpleMailMessage();
+        message.setFrom("hr@example.com");
+        message.setTo("applicant@example.com");
+        message.setSubject("Verify your email for career application");
+        message.setText("Hello Ada,\n\nYour verification code is 123456.\n\nThis code is valid for 10 minutes.\n\nHR Team");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        session.close();
+        server.close();
+    }
+
+    /** A new connection per mail, as JavaMailSender.send does */
+    @Benchmark
+    public void connectionPerMail() {
+        mailSender.send(message);
+    }
+
+    /** One connection kept open for all mails */
+    @Benchmark
+    public void reusedSession() throws MessagingException {
+        session.send(message);
+    }
+
+    /** Minimal SMTP server: greets, acknowledges every command and drops the mail data */
+    static final class FakeSmtpServer implements Closeable {
+
+        private final ServerSocket socket;
+        private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-smtp");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private final long handshakeMillis;
+
+        FakeSmtpServer(long handshakeMillis) throws IOException {
+            this.handshakeMillis = handshakeMillis;
+            socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            connections.execute(this::accept);
+        }
+
+        int port() {
+            return socket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!socket.isClosed()) {
+                try {
+                    Socket client = socket.accept();
+                    connections.execute(() -> serve(client));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket client) {
+            try (client;
+                    BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                    OutputStream out = client.getOutputStream()) {
+                if (handshakeMillis > 0) Thread.sleep(handshakeMillis);
+                reply(out, "220 localhost fake ESMTP");
+                for (String line; (line = in.readLine()) != null; ) {
+                    String command = line.length() < 4 ? line : line.substring(0, 4).toUpperCase();
+                    switch (command) {
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            for (String data; (data = in.readLine()) != null && !data.equals("."); ) {
+                                // discard the message
+                            }
+                            reply(out, "250 OK queued");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // client went away or server is closing
+            }
+        }
+
+        private static void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+            connections.shutdownNow();
+        }
+    }
+}
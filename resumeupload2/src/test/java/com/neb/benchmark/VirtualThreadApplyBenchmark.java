@@ -0,0 +1,164 @@
+package com.neb.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.neb.service.ApplyRateLimiter;
+import com.neb.util.LocalResumeStorage;
+import com.neb.util.ResumeIngestor;
+
+/**
+ * Load test of apply submissions per second on one node: a burst of concurrent
+ * submissions served by a 200 thread platform pool (Tomcat's default
+ * server.tomcat.threads.max) against a thread per submission with
+ * spring.threads.virtual.enabled=true.
+ * --
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ *     -Dexec.args="VirtualThreadApplyBenchmark -jvmArgs -Djdk.tracePinnedThreads=short"
+ * --
+ * Each submission takes the IP token, streams a 100 KB resume through the
+ * {@link ResumeIngestor} into the temp area and deletes it again, and then blocks
+ * for 'blockMillis' as a stand-in for the JDBC insert and the mail hand-off. Once
+ * the burst is larger than the pool, the platform pool queues submissions behind the
+ * blocked ones while virtual threads keep all of them in flight. The 'peakInFlight'
+ * counter reports the most submissions running at once. The submission stages are
+ * left out here; in virtual-thread mode their submission.stages.* limits decide how
+ * much of this concurrency reaches the disk. With -Djdk.tracePinnedThreads=short
+ * any carrier pinning is printed to the output (VirtualThreadPinningTest asserts
+ * there is none).
+ * --
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VirtualThreadApplyBenchmark {
+
+    private static final int BURST = 2000;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"20"})
+    public int blockMillis;
+
+    /** Concurrency reached by the measured bursts */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class InFlight {
+        public int peakInFlight;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakInFlight = 0;
+        }
+    }
+
+    private Path dir;
+    private ExecutorService executor;
+    private ResumeIngestor ingestor;
+    private ApplyRateLimiter limiter;
+    private MockMultipartFile resume;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("virtual-bench");
+        executor = "virtual".equals(threads) ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(200);
+        ingestor = new ResumeIngestor();
+        ReflectionTestUtils.setField(ingestor, "maxSize", DataSize.ofMegabytes(10));
+        ReflectionTestUtils.setField(ingestor, "resumeStorage",
+                new LocalResumeStorage(dir.resolve("uploads"), dir.resolve("uploads_temp")));
+        limiter = new ApplyRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 1_000_000);
+        ReflectionTestUtils.setField(limiter, "ipRefillPerMinute", 1e12);
+        ReflectionTestUtils.setField(limiter, "maxKeys", BURST * 2);
+        byte[] content = new byte[100 * 1024];
+        System.arraycopy("%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII), 0, content, 0, 9);
+        resume = new MockMultipartFile("resume", "resume.pdf", "application/pdf", content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /** One burst of concurrent submissions; the score is submissions per second */
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void burst(InFlight inFlight) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BURST);
+        peak.set(0);
+        for (int i = 0; i < BURST; i++) {
+            String ip = "10.0." + (i >> 8 & 0xff) + "." + (i & 0xff);
+            executor.execute(() -> {
+                try {
+                    submit(ip);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        inFlight.peakInFlight = Math.max(inFlight.peakInFlight, peak.get());
+    }
+
+    private void submit(String ip) {
+        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            limiter.acquireIp(ip);
+            ResumeIngestor.IngestedResume ingested = ingestor.ingest(resume);
+            Thread.sleep(blockMillis);
+            ingestor.deleteTemp(ingested.fileName());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+}
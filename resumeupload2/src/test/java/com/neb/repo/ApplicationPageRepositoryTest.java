@@ -0,0 +1,102 @@
+package com.neb.repo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.neb.dto.CareerApplicationSummary;
+import com.neb.entity.CareerApplication;
+
+@DataJpaTest
+@Import(ApplicationPageRepository.class)
+class ApplicationPageRepositoryTest {
+
+    private static final Instant START_AT = Instant.parse("9999-12-31T23:59:59Z");
+    private static final Instant T1 = Instant.parse("2025-01-01T10:00:00Z");
+    private static final Instant T2 = Instant.parse("2025-01-02T10:00:00Z");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ApplicationPageRepository pages;
+
+    @Test
+    void pagesSplitInsideATimestampTieWithoutSkippingOrRepeating() {
+        long a = persist("a@x.com", "dev", T1);
+        long b = persist("b@x.com", "qa", T1);
+        long c = persist("c@x.com", "dev", T2);
+        long d = persist("d@x.com", "dev", T2);
+        long e = persist("e@x.com", "qa", T2);
+
+        // Page size 2 puts a page boundary between rows with the same appliedAt
+        assertEquals(List.of(e, d, c, b, a), walk(null, 2));
+    }
+
+    @Test
+    void rowAtTheCursorIsExcluded() {
+        long a = persist("a@x.com", "dev", T1);
+        long b = persist("b@x.com", "dev", T1);
+        long c = persist("c@x.com", "dev", T2);
+
+        assertEquals(List.of(a), ids(pages.findCareerPageBefore(T1, b, null, null, 10)));
+        assertEquals(List.of(b, a), ids(pages.findCareerPageBefore(T2, c, null, null, 10)));
+        assertTrue(pages.findCareerPageBefore(T1, a, null, null, 10).isEmpty());
+    }
+
+    @Test
+    void filtersApplyAcrossPages() {
+        long a = persist("a@x.com", "dev", T1);
+        persist("b@x.com", "qa", T1);
+        long c = persist("c@x.com", "dev", T2);
+        persist("d@x.com", "qa", T2);
+        long e = persist("e@x.com", "dev", T2);
+
+        assertEquals(List.of(e, c, a), walk("dev", 1));
+    }
+
+    @Test
+    void onlyGivenFiltersAreInTheQuery() {
+        String jpql = ApplicationPageRepository.pageQuery("select a from CareerApplication a", "appliedAt", List.of("role"));
+        assertTrue(jpql.contains("a.appliedAt <= :at"));
+        assertTrue(jpql.contains("a.role = :role"));
+        assertFalse(jpql.contains("is null"));
+        assertFalse(jpql.contains(":domain"));
+    }
+
+    private List<Long> walk(String role, int size) {
+        List<Long> seen = new ArrayList<>();
+        Instant at = START_AT;
+        long id = Long.MAX_VALUE;
+        while (true) {
+            List<CareerApplicationSummary> page = pages.findCareerPageBefore(at, id, role, null, size);
+            if (page.isEmpty()) return seen;
+            seen.addAll(ids(page));
+            CareerApplicationSummary last = page.get(page.size() - 1);
+            at = last.appliedAt();
+            id = last.id();
+        }
+    }
+
+    private long persist(String email, String role, Instant appliedAt) {
+        CareerApplication app = new CareerApplication();
+        app.setEmail(email);
+        app.setRole(role);
+        app.setAppliedAt(appliedAt);
+        return entityManager.persistAndFlush(app).getId();
+    }
+
+    private static List<Long> ids(List<CareerApplicationSummary> rows) {
+        return rows.stream().map(CareerApplicationSummary::id).toList();
+    }
+}
@@ -0,0 +1,174 @@
+package com.neb.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+/**
+ * The streaming export against an in-memory H2 table of career applications.
+ */
+class ApplicationExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationExportService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:export-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE career_applications (id BIGINT PRIMARY KEY, role VARCHAR(50), "
+                + "first_name VARCHAR(100), last_name VARCHAR(100), email VARCHAR(200), phone VARCHAR(20), "
+                + "qualification VARCHAR(100), passout_year INT, domain VARCHAR(50), resume_file_name VARCHAR(200), "
+                + "resume_sha256 VARCHAR(64), applied_at TIMESTAMP, gender VARCHAR(10))");
+
+        service = new ApplicationExportService();
+        ReflectionTestUtils.setField(service, "dataSource", dataSource);
+        ReflectionTestUtils.setField(service, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "fetchSize", 50);
+        service.init();
+    }
+
+    @Test
+    void csvHasTheMatchingRowsOldestFirstAndQuotesSeparators() throws Exception {
+        insert(3, "intern", "Java", "Lovelace, Ada", "2026-03-02T10:00:00Z");
+        insert(1, "intern", "Java", "Hopper", "2026-03-01T10:00:00Z");
+        insert(2, "fresher", "Java", "Turing", "2026-03-01T11:00:00Z");
+        insert(4, "intern", "Java", "Late", "2026-04-01T00:00:00Z");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.export("career", "csv", "intern", "Java", "2026-03-01", "2026-04-01", false, response);
+
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,role,firstName,lastName,"));
+        assertTrue(lines[1].startsWith("1,intern,First,Hopper,"));
+        assertTrue(lines[1].contains(",2026-03-01T10:00:00Z,"));
+        assertTrue(lines[2].startsWith("3,intern,First,\"Lovelace, Ada\","));
+        assertTrue(response.getHeader("Content-Disposition").contains("career-applications-"));
+    }
+
+    @Test
+    void csvCellsStartingLikeAFormulaAreExportedAsText() throws Exception {
+        insert(1, "intern", "Java", "=HYPERLINK(\"http://evil.example\",\"cv\")", "2026-03-01T10:00:00Z");
+        insert(2, "intern", "Java", "@SUM(A1:A9)", "2026-03-01T11:00:00Z");
+        insert(3, "intern", "Java", "-Smith", "2026-03-01T12:00:00Z");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.export("career", "csv", null, null, null, null, false, response);
+
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertTrue(lines[1].startsWith("1,intern,First,\"'=HYPERLINK(\"\"http://evil.example\"\",\"\"cv\"\")\","), lines[1]);
+        assertTrue(lines[2].startsWith("2,intern,First,'@SUM(A1:A9),"), lines[2]);
+        assertTrue(lines[3].startsWith("3,intern,First,'-Smith,"), lines[3]);
+    }
+
+    @Test
+    void gzippedNdjsonHasOneObjectPerLine() throws Exception {
+        insert(1, "intern", "Java", "Hopper", "2026-03-01T10:00:00Z");
+        insert(2, "intern", "Python", "Turing", "2026-03-01T11:00:00Z");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.export("career", "ndjson", null, null, null, null, true, response);
+
+        assertEquals("application/gzip", response.getContentType());
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("Hopper", first.get("lastName").asText());
+        assertEquals("2026-03-01T10:00:00Z", first.get("appliedAt").asText());
+        assertEquals("Python", objectMapper.readTree(lines.get(1)).get("domain").asText());
+    }
+
+    @Test
+    void badRequestsAreRefusedBeforeAnyQuery() throws Exception {
+        MockHttpServletResponse unknownType = new MockHttpServletResponse();
+        service.export("intern", "csv", null, null, null, null, false, unknownType);
+        assertEquals(404, unknownType.getStatus());
+
+        MockHttpServletResponse badFormat = new MockHttpServletResponse();
+        service.export("career", "xml", null, null, null, null, false, badFormat);
+        assertEquals(400, badFormat.getStatus());
+
+        MockHttpServletResponse badDate = new MockHttpServletResponse();
+        service.export("career", "csv", null, null, "yesterday", null, false, badDate);
+        assertEquals(400, badDate.getStatus());
+    }
+
+    @Test
+    void failureMidwayPropagatesInsteadOfEndingTheBody() {
+        for (int id = 1; id <= 2000; id++) insert(id, "intern", "Java", "Applicant" + id, "2026-03-01T10:00:00Z");
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new BrokenAfter(100_000);
+            }
+        };
+
+        assertThrows(UncheckedIOException.class,
+                () -> service.export("career", "csv", null, null, null, null, false, response));
+        assertEquals(1L, service.metrics().get("failures"));
+        assertEquals(0L, service.metrics().get("exports"));
+    }
+
+    private void insert(long id, String role, String domain, String lastName, String appliedAt) {
+        jdbcTemplate.update("INSERT INTO career_applications (id, role, first_name, last_name, email, phone, qualification, "
+                + "passout_year, domain, resume_file_name, resume_sha256, applied_at, gender) "
+                + "VALUES (?, ?, 'First', ?, ?, '9999999999', 'B.Tech', 2025, ?, ?, NULL, ?, 'F')",
+                id, role, lastName, "applicant" + id + "@example.com", domain, "resume-" + id + ".pdf",
+                Timestamp.from(Instant.parse(appliedAt)));
+    }
+
+    /** Client connection that drops after the given number of bytes */
+    private static final class BrokenAfter extends ServletOutputStream {
+        private long remaining;
+
+        BrokenAfter(long bytes) {
+            this.remaining = bytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (remaining-- <= 0) throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.neb.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neb.entity.CareerApplication;
+import com.neb.exception.FileStorageException;
+import com.neb.repo.CareerRepository;
+import com.neb.util.PendingStore;
+import com.neb.util.PendingStoreRegistry;
+
+/**
+ * Completion of a verified career application when storing the resume or saving
+ * the row fails.
+ */
+class CareerServiceTest {
+
+    private static final String EMAIL = "ada@example.com";
+    private static final String TEMP = "temp-ada.pdf";
+    private static final String SHA = "a".repeat(64);
+    private static final String BLOB = SHA + ".pdf";
+
+    private CareerRepository careers;
+    private VerificationService codes;
+    private ResumeBlobService blobs;
+    private CareerService service;
+    private PendingStore<CareerApplication> pending;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        careers = mock(CareerRepository.class);
+        codes = mock(VerificationService.class);
+        when(codes.verifyCode(EMAIL, "123456")).thenReturn(true);
+        blobs = mock(ResumeBlobService.class);
+        TransactionTemplate transactions = mock(TransactionTemplate.class);
+        doAnswer(call -> {
+            call.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactions).executeWithoutResult(any());
+
+        PendingStoreRegistry registry = new PendingStoreRegistry();
+        ReflectionTestUtils.setField(registry, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(registry, "backend", "memory");
+        ReflectionTestUtils.setField(registry, "maxEntries", 10);
+        ReflectionTestUtils.invokeMethod(registry, "init");
+        SubmissionStages stages = new SubmissionStages();
+        stages.init();
+
+        service = new CareerService();
+        ReflectionTestUtils.setField(service, "careerRepository", careers);
+        ReflectionTestUtils.setField(service, "verificationService", codes);
+        ReflectionTestUtils.setField(service, "resumeBlobService", blobs);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactions);
+        ReflectionTestUtils.setField(service, "pendingStoreRegistry", registry);
+        ReflectionTestUtils.setField(service, "submissionStages", stages);
+        ReflectionTestUtils.setField(service, "applicantEmailFilter", mock(ApplicantEmailFilter.class));
+        ReflectionTestUtils.setField(service, "applyRateLimiter", mock(ApplyRateLimiter.class));
+        ReflectionTestUtils.setField(service, "mailTemplateService", mock(MailTemplateService.class));
+        ReflectionTestUtils.setField(service, "emailOutboxService", mock(EmailOutboxService.class));
+        ReflectionTestUtils.setField(service, "resumeIndexService", mock(ResumeIndexService.class));
+        service.init();
+
+        pending = (PendingStore<CareerApplication>) ReflectionTestUtils.getField(service, "pendingApplications");
+        CareerApplication app = new CareerApplication();
+        app.setEmail(EMAIL);
+        app.setRole("intern");
+        app.setResumeFileName(TEMP);
+        app.setResumeSha256(SHA);
+        pending.put(EMAIL, app);
+    }
+
+    @Test
+    void failedSavePutsTheApplicationAndItsResumeBack() {
+        when(blobs.store(TEMP, SHA)).thenReturn(BLOB);
+        when(blobs.unstore(BLOB, TEMP)).thenReturn(true);
+        when(careers.save(any())).thenAnswer(call -> {
+            call.<CareerApplication>getArgument(0).setId(7L);
+            throw new TransientDataAccessResourceException("Connection reset");
+        });
+
+        assertThrows(TransientDataAccessResourceException.class, () -> service.verifyApplication(EMAIL, "123456"));
+
+        CareerApplication restored = pending.get(EMAIL);
+        assertEquals(TEMP, restored.getResumeFileName());
+        assertNull(restored.getId());
+        verify(blobs).unstore(BLOB, TEMP);
+        verify(codes, never()).removeCode(anyString());
+    }
+
+    @Test
+    void failedResumeMovePutsTheApplicationBack() {
+        when(blobs.store(TEMP, SHA)).thenThrow(new FileStorageException("Disk full"));
+
+        assertThrows(FileStorageException.class, () -> service.verifyApplication(EMAIL, "123456"));
+
+        assertEquals(TEMP, pending.get(EMAIL).getResumeFileName());
+        verify(blobs, never()).unstore(anyString(), anyString());
+        verify(codes, never()).removeCode(anyString());
+    }
+
+    @Test
+    void resumeThatCannotBePutBackDropsTheApplication() {
+        when(blobs.store(TEMP, SHA)).thenReturn(BLOB);
+        when(blobs.unstore(BLOB, TEMP)).thenReturn(false);
+        when(careers.save(any())).thenThrow(new TransientDataAccessResourceException("Connection reset"));
+
+        assertThrows(TransientDataAccessResourceException.class, () -> service.verifyApplication(EMAIL, "123456"));
+
+        assertNull(pending.get(EMAIL));
+    }
+
+    @Test
+    void duplicateEmailReleasesTheResumeAndBurnsTheCode() {
+        when(blobs.store(TEMP, SHA)).thenReturn(BLOB);
+        when(careers.save(any())).thenThrow(
+                new DataIntegrityViolationException("Unique index violation: UK_CAREER_APPLICATIONS_EMAIL"));
+
+        ResponseEntity<?> response = service.verifyApplication(EMAIL, "123456");
+
+        assertEquals(400, response.getStatusCode().value());
+        assertNull(pending.get(EMAIL));
+        verify(blobs).release(BLOB);
+        verify(codes).removeCode(EMAIL);
+    }
+
+    @Test
+    void savedApplicationBurnsTheCode() {
+        when(blobs.store(TEMP, SHA)).thenReturn(BLOB);
+
+        ResponseEntity<?> response = service.verifyApplication(EMAIL, "123456");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertNull(pending.get(EMAIL));
+        verify(codes).removeCode(EMAIL);
+    }
+}
@@ -0,0 +1,191 @@
+package com.neb.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.neb.dto.ResumeRef;
+import com.neb.repo.CareerRepository;
+import com.neb.repo.CloudDeveloperRepository;
+import com.neb.repo.DeveloperRepository;
+import com.neb.util.ResumeBackfillStep;
+
+class ResumeBackfillServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private Path checkpointFile;
+    private ResumeBackfillService service;
+    private RecordingStep step;
+
+    /** Records what it was handed; fails or reports up to date for chosen ids */
+    static class RecordingStep implements ResumeBackfillStep {
+        final List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        Set<Long> failing = Set.of();
+        Set<Long> upToDate = Set.of();
+
+        @Override
+        public String backfillName() {
+            return "text";
+        }
+
+        @Override
+        public boolean backfill(String type, Long id, String fileName) throws IOException {
+            seen.add(type + ":" + id);
+            if (failing.contains(id)) throw new IOException("Unreadable " + fileName);
+            return !upToDate.contains(id);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        checkpointFile = dir.resolve("backfill/checkpoint.properties");
+        step = new RecordingStep();
+
+        CareerRepository careers = mock(CareerRepository.class);
+        when(careers.findResumesAfter(anyLong(), any())).thenAnswer(call -> page(5, call.<Long>getArgument(0), call.getArgument(1)));
+        DeveloperRepository developers = mock(DeveloperRepository.class);
+        when(developers.findResumesAfter(anyLong(), any())).thenAnswer(call -> page(2, call.<Long>getArgument(0), call.getArgument(1)));
+        CloudDeveloperRepository cloudDevelopers = mock(CloudDeveloperRepository.class);
+        when(cloudDevelopers.findResumesAfter(anyLong(), any())).thenReturn(List.of());
+        ResumeBlobService blobs = mock(ResumeBlobService.class);
+        when(blobs.locate(anyString())).thenReturn(new ResumeBlobService.StoredFile("key", null, 0, 1024, 0));
+
+        service = new ResumeBackfillService();
+        ReflectionTestUtils.setField(service, "allSteps", List.of(step));
+        ReflectionTestUtils.setField(service, "resumeBlobService", blobs);
+        ReflectionTestUtils.setField(service, "careerRepository", careers);
+        ReflectionTestUtils.setField(service, "developerRepository", developers);
+        ReflectionTestUtils.setField(service, "cloudDeveloperRepository", cloudDevelopers);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "stepNames", List.of());
+        ReflectionTestUtils.setField(service, "checkpointLocation", checkpointFile.toString());
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "concurrency", 2);
+        ReflectionTestUtils.setField(service, "maxFilesPerSecond", 0.0);
+    }
+
+    @Test
+    void processesEveryResumeAndCheckpointsTheLastIds() throws Exception {
+        runToEnd();
+
+        assertEquals(List.of("career:1", "career:2", "career:3", "career:4", "career:5", "developer:1", "developer:2"),
+                sorted(step.seen));
+        Properties checkpoint = checkpoint();
+        assertEquals("5", checkpoint.getProperty("career"));
+        assertEquals("2", checkpoint.getProperty("developer"));
+        assertEquals("text", checkpoint.getProperty("steps"));
+        Map<String, Object> metrics = service.metrics();
+        assertEquals(true, metrics.get("finished"));
+        assertEquals(7L, metrics.get("processed"));
+        assertEquals(7L * 1024, metrics.get("bytes"));
+    }
+
+    @Test
+    void restartContinuesAfterTheCheckpoint() throws Exception {
+        writeCheckpoint("text", "3");
+
+        runToEnd();
+
+        assertEquals(List.of("career:4", "career:5", "developer:1", "developer:2"), sorted(step.seen));
+    }
+
+    @Test
+    void changedStepsStartOver() throws Exception {
+        writeCheckpoint("thumbnail", "3");
+
+        runToEnd();
+
+        assertTrue(step.seen.contains("career:1"));
+        assertEquals(7, step.seen.size());
+    }
+
+    @Test
+    void failuresAndUpToDateResumesAreCountedAndSkipped() throws Exception {
+        step.failing = Set.of(2L);
+        step.upToDate = Set.of(4L);
+
+        runToEnd();
+
+        Map<String, Object> metrics = service.metrics();
+        assertEquals(7L, metrics.get("files"));
+        assertEquals(2L, metrics.get("failed"));
+        assertEquals(1L, metrics.get("upToDate"));
+        assertEquals(4L, metrics.get("processed"));
+        assertEquals("5", checkpoint().getProperty("career"));
+    }
+
+    @Test
+    void disabledBackfillDoesNothing() throws Exception {
+        ReflectionTestUtils.setField(service, "enabled", false);
+
+        service.run(null);
+
+        assertTrue(step.seen.isEmpty());
+        assertFalse(Files.exists(checkpointFile));
+    }
+
+    private void runToEnd() throws Exception {
+        service.run(null);
+        Thread runner = (Thread) ReflectionTestUtils.getField(service, "runner");
+        runner.join(10_000);
+        assertFalse(runner.isAlive());
+    }
+
+    // Applications 1..count of one type, each with a resume
+    private static List<ResumeRef> page(long count, long after, Pageable page) {
+        List<ResumeRef> refs = new ArrayList<>();
+        for (long id = after + 1; id <= count && refs.size() < page.getPageSize(); id++) {
+            refs.add(new ResumeRef(id, "resume-" + id + ".pdf"));
+        }
+        return refs;
+    }
+
+    private void writeCheckpoint(String steps, String career) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("steps", steps);
+        checkpoint.setProperty("career", career);
+        Files.createDirectories(checkpointFile.getParent());
+        try (OutputStream out = Files.newOutputStream(checkpointFile)) {
+            checkpoint.store(out, null);
+        }
+    }
+
+    private Properties checkpoint() throws IOException {
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            checkpoint.load(in);
+        }
+        return checkpoint;
+    }
+
+    private static List<String> sorted(List<String> seen) {
+        List<String> copy = new ArrayList<>(seen);
+        Collections.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,129 @@
+package com.neb.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.neb.entity.CareerApplication;
+import com.neb.repo.CareerRepository;
+import com.neb.repo.CloudDeveloperRepository;
+import com.neb.repo.DeveloperRepository;
+
+class ResumeDownloadServiceTest {
+
+    private static final String SHA = "ab".repeat(32);
+    private static final String BLOB = SHA + ".pdf";
+    private static final String LEGACY = "resume-1.pdf";
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private byte[] bytes;
+    private CareerRepository careers;
+    private ResumeBlobService blobs;
+    private ResumeDownloadService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) i;
+        file = Files.write(dir.resolve("segment-0.pack"), bytes);
+
+        careers = mock(CareerRepository.class);
+        blobs = mock(ResumeBlobService.class);
+        service = new ResumeDownloadService();
+        ReflectionTestUtils.setField(service, "careerRepository", careers);
+        ReflectionTestUtils.setField(service, "developerRepository", mock(DeveloperRepository.class));
+        ReflectionTestUtils.setField(service, "cloudDeveloperRepository", mock(CloudDeveloperRepository.class));
+        ReflectionTestUtils.setField(service, "resumeBlobService", blobs);
+    }
+
+    @Test
+    void packedBlobGetsItsHashAsStrongETagAndServesRanges() throws Exception {
+        // Packed: no key, content at offset 200 of the segment, no modification time
+        application(BLOB);
+        when(blobs.locate(BLOB)).thenReturn(new ResumeBlobService.StoredFile(null, file, 200, 500, 0));
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=10-19");
+        request.addHeader("If-Range", "\"" + SHA + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.send("career", 1L, request, response);
+
+        assertEquals("\"" + SHA + "\"", response.getHeader("ETag"));
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/500", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(bytes, 210, 220), response.getContentAsByteArray());
+    }
+
+    @Test
+    void ifRangeWithAnotherETagGetsTheWholeFile() throws Exception {
+        application(BLOB);
+        when(blobs.locate(BLOB)).thenReturn(new ResumeBlobService.StoredFile(null, file, 0, 1000, 0));
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=10-19");
+        request.addHeader("If-Range", "\"" + "cd".repeat(32) + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.send("career", 1L, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(1000, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void weakETagOfLegacyUploadNeverValidatesARange() throws Exception {
+        application(LEGACY);
+        when(blobs.locate(LEGACY)).thenReturn(new ResumeBlobService.StoredFile(LEGACY, file, 0, 1000, 1_700_000_000_000L));
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=10-19");
+        request.addHeader("If-Range", "W/\"1000-1700000000000\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.send("career", 1L, request, response);
+
+        assertEquals("W/\"1000-1700000000000\"", response.getHeader("ETag"));
+        assertEquals(200, response.getStatus());
+        assertEquals(1000, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        application(BLOB);
+        when(blobs.locate(BLOB)).thenReturn(new ResumeBlobService.StoredFile(null, file, 0, 1000, 0));
+        MockHttpServletRequest request = get();
+        request.addHeader("If-None-Match", "\"" + SHA + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.send("career", 1L, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    // Career application 1 with the given resume name and, like older rows, no recorded hash
+    private void application(String resumeFileName) {
+        CareerApplication application = new CareerApplication();
+        application.setId(1L);
+        application.setResumeFileName(resumeFileName);
+        when(careers.findById(1L)).thenReturn(Optional.of(application));
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/resumes/career/1");
+    }
+}
@@ -0,0 +1,190 @@
+package com.neb.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.neb.entity.CareerApplication;
+import com.neb.entity.DeveloperApplication;
+import com.neb.repo.CareerRepository;
+import com.neb.repo.CloudDeveloperRepository;
+import com.neb.repo.DeveloperRepository;
+import com.neb.util.ResumeIndex;
+
+class ResumeIndexServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private ResumeBlobService blobs;
+    private CareerRepository careers;
+    private DeveloperRepository developers;
+    private ResumeIndexService service;
+
+    @BeforeEach
+    void setUp() {
+        blobs = mock(ResumeBlobService.class);
+        careers = mock(CareerRepository.class);
+        developers = mock(DeveloperRepository.class);
+        service = service();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.stop();
+    }
+
+    @Test
+    void searchReturnsApplicantsBestFirstAndSkipsDeletedApplications() {
+        ResumeIndex index = (ResumeIndex) ReflectionTestUtils.getField(service, "index");
+        index.put("career:1", "kotlin android kotlin");
+        index.put("developer:2", "kotlin spring");
+        index.put("career:3", "kotlin");
+        // Application 3 was deleted after it was indexed
+        when(careers.findAllById(any())).thenReturn(List.of(career(1L, "Ada")));
+        when(developers.findAllById(any())).thenReturn(List.of(developer(2L, "Grace")));
+
+        List<Map<String, Object>> results = service.search("Kotlin", 10);
+
+        assertEquals(2, results.size());
+        assertEquals("career", results.get(0).get("type"));
+        assertEquals(1L, results.get(0).get("id"));
+        assertEquals("Ada", results.get(0).get("firstName"));
+        assertEquals("developer", results.get(1).get("type"));
+        assertEquals("grace@example.com", results.get(1).get("email"));
+        assertEquals(1L, service.metrics().get("searches"));
+    }
+
+    @Test
+    void searchIsCappedAtMaxResults() {
+        ResumeIndex index = (ResumeIndex) ReflectionTestUtils.getField(service, "index");
+        for (long id = 1; id <= 5; id++) index.put("career:" + id, "java");
+        when(careers.findAllById(any())).thenAnswer(call -> {
+            Iterable<Long> ids = call.getArgument(0);
+            List<CareerApplication> found = new ArrayList<>();
+            ids.forEach(id -> found.add(career(id, "Applicant" + id)));
+            return found;
+        });
+
+        assertEquals(3, service.search("java", 50).size());
+    }
+
+    @Test
+    void submittedResumeIsIndexedFromItsPdf() throws Exception {
+        when(blobs.read("resume-7.pdf")).thenReturn(ByteBuffer.wrap(pdf("Senior Kotlin developer, Ktor and Android")));
+
+        assertTrue(service.submit("career", 7L, "resume-7.pdf"));
+        for (int i = 0; i < 100 && !service.isIndexed("career", 7L); i++) Thread.sleep(50);
+
+        assertTrue(service.isIndexed("career", 7L));
+        ResumeIndex index = (ResumeIndex) ReflectionTestUtils.getField(service, "index");
+        assertEquals("career:7", index.search("ktor", 5).get(0).key());
+        assertEquals(1L, service.metrics().get("indexed"));
+    }
+
+    @Test
+    void backfillIndexesOnlyResumesNotYetIndexed() throws Exception {
+        when(blobs.read("resume-8.pdf")).thenReturn(ByteBuffer.wrap(pdf("Python data engineer")));
+
+        assertTrue(service.backfill("developer", 8L, "resume-8.pdf"));
+        assertFalse(service.backfill("developer", 8L, "resume-8.pdf"));
+        assertThrows(FileNotFoundException.class, () -> service.backfill("developer", 9L, "missing.pdf"));
+    }
+
+    @Test
+    void submitWithoutResumeIsRefused() {
+        assertFalse(service.submit("career", 1L, null));
+        assertFalse(service.submit("career", null, "resume.pdf"));
+    }
+
+    @Test
+    void flushedIndexIsLoadedOnRestart() throws Exception {
+        ResumeIndex index = (ResumeIndex) ReflectionTestUtils.getField(service, "index");
+        index.put("career:1", "kotlin");
+
+        service.flush();
+        assertTrue(Files.exists(dir.resolve("resumes.idx")));
+        assertFalse(index.isDirty());
+
+        ResumeIndexService restarted = service();
+        try {
+            assertTrue(restarted.isIndexed("career", 1L));
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    private ResumeIndexService service() {
+        ResumeIndexService service = new ResumeIndexService();
+        ReflectionTestUtils.setField(service, "resumeBlobService", blobs);
+        ReflectionTestUtils.setField(service, "careerRepository", careers);
+        ReflectionTestUtils.setField(service, "developerRepository", developers);
+        ReflectionTestUtils.setField(service, "cloudDeveloperRepository", mock(CloudDeveloperRepository.class));
+        ReflectionTestUtils.setField(service, "location", dir.resolve("resumes.idx").toString());
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "maxTextChars", 10_000);
+        ReflectionTestUtils.setField(service, "maxResults", 3);
+        service.start();
+        return service;
+    }
+
+    private static CareerApplication career(Long id, String firstName) {
+        CareerApplication application = new CareerApplication();
+        application.setId(id);
+        application.setFirstName(firstName);
+        application.setEmail(firstName.toLowerCase() + "@example.com");
+        application.setRole("intern");
+        return application;
+    }
+
+    private static DeveloperApplication developer(Long id, String firstName) {
+        DeveloperApplication application = new DeveloperApplication();
+        application.setId(id);
+        application.setFirstName(firstName);
+        application.setEmail(firstName.toLowerCase() + "@example.com");
+        return application;
+    }
+
+    // One-page PDF with the given line of text
+    private static byte[] pdf(String text) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                content.newLineAtOffset(50, 700);
+                content.showText(text);
+                content.endText();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void addedValuesAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.add("user" + i + "@example.com");
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"), "no false negatives");
+        }
+        assertEquals(10_000, filter.insertions());
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        assertFalse(filter.mightContain("a@example.com"));
+        assertEquals(0.0, filter.expectedFalsePositiveRate(), 0.0);
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTargetAtCapacity() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.add("user" + i + "@example.com");
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) falsePositives++;
+        }
+        double rate = falsePositives / 100_000.0;
+        assertTrue(rate < 0.02, "measured false-positive rate " + rate);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void sizedFromInsertionsAndRate() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        // m = -n ln p / (ln 2)^2 = 9586 bits, rounded up to whole words; k = m/n ln 2 = 7
+        assertEquals(9600, filter.bitSize());
+        assertEquals(7, filter.hashFunctions());
+    }
+
+    @Test
+    void concurrentAddsLoseNoBits() throws Exception {
+        BloomFilter filter = new BloomFilter(40_000, 0.01);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 10_000;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) filter.add("user" + (offset + i) + "@example.com");
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) thread.join();
+        for (int i = 0; i < 40_000; i++) assertTrue(filter.mightContain("user" + i + "@example.com"));
+        assertEquals(40_000, filter.insertions());
+    }
+}
@@ -0,0 +1,89 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+    @Test
+    void readsPlainRecords() throws IOException {
+        assertEquals(List.of(List.of("a", "b", "c"), List.of("1", "2", "3")), readAll("a,b,c\n1,2,3\n"));
+    }
+
+    @Test
+    void lastRecordNeedsNoLineBreak() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("1", "2")), readAll("a,b\r\n1,2"));
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        assertEquals(List.of(List.of("", "x", ""), List.of("")), readAll(",x,\n\n"));
+    }
+
+    @Test
+    void quotedFieldsHoldCommasQuotesAndLineBreaks() throws IOException {
+        String csv = "name,note\r\n\"Doe, Jane\",\"said \"\"hi\"\"\r\nthen left\"\r\n";
+        assertEquals(List.of(List.of("name", "note"), List.of("Doe, Jane", "said \"hi\"\r\nthen left")), readAll(csv));
+    }
+
+    @Test
+    void quoteInsideAnUnquotedFieldIsLiteral() throws IOException {
+        assertEquals(List.of(List.of("5\" disk", "x")), readAll("5\" disk,x\n"));
+    }
+
+    @Test
+    void unterminatedQuoteIsAnError() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("a\n\"open,b\n"))) {
+            reader.next();
+            IOException e = assertThrows(IOException.class, reader::next);
+            assertEquals("Unterminated quoted field starting on line 2", e.getMessage());
+        }
+    }
+
+    @Test
+    void reportsTheLineEachRecordStartedOn() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("a\n\"multi\nline\"\nb\n"))) {
+            reader.next();
+            assertEquals(1, reader.line());
+            reader.next();
+            assertEquals(2, reader.line());
+            reader.next();
+            assertEquals(4, reader.line());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void recordsMaySpanBufferRefills() throws IOException {
+        // The reader hands out one character per read, so every CRLF and "" straddles a refill
+        Reader trickle = new FilterReader(new StringReader("\"a\"\"b\",c\r\nd,e\r\n")) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(1, length));
+            }
+        };
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(trickle)) {
+            for (List<String> record; (record = reader.next()) != null; ) records.add(record);
+        }
+        assertEquals(List.of(List.of("a\"b", "c"), List.of("d", "e")), records);
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            for (List<String> record; (record = reader.next()) != null; ) records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,106 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class HmacVerificationCodeStrategyTest {
+
+    private static final long VALIDITY = 10 * 60 * 1000;
+    private static final int SKEW = 1;
+    // Window length for a skew of one window: validity / (2 + 1)
+    private static final long WINDOW = VALIDITY / 3;
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private long now = 5_000 * WINDOW;
+    private final PendingStore<Long> epochs = new InMemoryPendingStore<>("codeEpochs",
+            HmacVerificationCodeStrategy.retentionMillis(VALIDITY, SKEW), 1000);
+    private final HmacVerificationCodeStrategy codes = node("career", 0);
+
+    @Test
+    void issuedCodeIsAcceptedOnAnyNodeSharingTheSecret() {
+        String code = codes.generate("Ann@Example.com");
+        assertEquals(6, code.length());
+        assertTrue(codes.verify("ann@example.com", code));
+
+        HmacVerificationCodeStrategy otherNode = node("career", 0);
+        assertTrue(otherNode.verify("ann@example.com", code));
+    }
+
+    @Test
+    void codeIsBoundToEmailAndFlow() {
+        String code = codes.generate("ann@example.com");
+        assertFalse(codes.verify("bob@example.com", code));
+        assertFalse(node("developer", 0).verify("ann@example.com", code));
+        assertFalse(codes.verify("ann@example.com", null));
+        assertFalse(codes.verify("ann@example.com", code + "0"));
+    }
+
+    @Test
+    void codeIsAcceptedForTheValidityAndRefusedAfterIt() {
+        long issued = now;
+        String code = codes.generate("ann@example.com");
+
+        now = issued + VALIDITY - 1;
+        assertTrue(codes.verify("ann@example.com", code));
+        now = issued + VALIDITY;
+        assertFalse(codes.verify("ann@example.com", code));
+    }
+
+    @Test
+    void codeIssuedLateInAWindowStillLivesTwoWindows() {
+        now += WINDOW - 1;
+        long issued = now;
+        String code = codes.generate("ann@example.com");
+
+        now = issued + 2 * WINDOW;
+        assertTrue(codes.verify("ann@example.com", code));
+        now = issued + 2 * WINDOW + 1;
+        assertFalse(codes.verify("ann@example.com", code));
+    }
+
+    @Test
+    void nodesWhoseClocksDifferBySkewWindowsAcceptEachOthersCodes() {
+        HmacVerificationCodeStrategy ahead = node("career", SKEW * WINDOW);
+        HmacVerificationCodeStrategy farAhead = node("career", (SKEW + 1) * WINDOW);
+
+        assertTrue(codes.verify("ann@example.com", ahead.generate("ann@example.com")));
+        assertTrue(ahead.verify("ann@example.com", codes.generate("ann@example.com")));
+        assertFalse(codes.verify("ann@example.com", farAhead.generate("ann@example.com")));
+    }
+
+    @Test
+    void invalidatedCodeIsRefusedAndANewOneIsIssued() {
+        String code = codes.generate("ann@example.com");
+        codes.invalidate("ann@example.com");
+        assertFalse(codes.verify("ann@example.com", code));
+
+        String next = codes.generate("ann@example.com");
+        assertTrue(codes.verify("ann@example.com", next));
+    }
+
+    @Test
+    void burnedCodeStaysRefusedOnceItsEpochIsDropped() {
+        String code = codes.generate("ann@example.com");
+        codes.invalidate("ann@example.com");
+
+        // The epoch entry expires after the retention; the epoch falls back to 0
+        now += HmacVerificationCodeStrategy.retentionMillis(VALIDITY, SKEW);
+        HmacVerificationCodeStrategy afterExpiry = new HmacVerificationCodeStrategy(SECRET, "career", VALIDITY, SKEW,
+                new InMemoryPendingStore<>("codeEpochs", VALIDITY, 1000), () -> now);
+        assertFalse(afterExpiry.verify("ann@example.com", code));
+        // Not even on a node lagging by the tolerated skew
+        HmacVerificationCodeStrategy lagging = new HmacVerificationCodeStrategy(SECRET, "career", VALIDITY, SKEW,
+                new InMemoryPendingStore<>("codeEpochs", VALIDITY, 1000), () -> now - SKEW * WINDOW);
+        assertFalse(lagging.verify("ann@example.com", code));
+    }
+
+    // A node sharing the epochs whose clock is offset from the test clock
+    private HmacVerificationCodeStrategy node(String scope, long offsetMillis) {
+        return new HmacVerificationCodeStrategy(SECRET, scope, VALIDITY, SKEW, epochs, () -> now + offsetMillis);
+    }
+}
@@ -0,0 +1,23 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class InMemoryResumeStorageTest extends ResumeStorageContractTest {
+
+    private final InMemoryResumeStorage storage = new InMemoryResumeStorage();
+
+    @Override
+    ResumeStorage storage() {
+        return storage;
+    }
+
+    @Test
+    void hasNoLocalPath() throws Exception {
+        storage.writeTemp("upload.pdf", source("%PDF-1.7")).get();
+        storage.promote("upload.pdf", "resume.pdf").get();
+
+        assertNull(storage.localPath("resume.pdf"));
+    }
+}
@@ -0,0 +1,151 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The 'jdbc' pending store backend against an in-memory H2 database, with two
+ * registries standing in for two nodes sharing the table.
+ */
+class JdbcPendingStoreTest {
+
+    private static final long TTL = 60_000;
+
+    private JdbcTemplate jdbcTemplate;
+    private PendingStoreRegistry nodeA;
+    private PendingStoreRegistry nodeB;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:pending-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        nodeA = node();
+        nodeB = node();
+    }
+
+    @Test
+    void entryPutOnOneNodeIsSeenAndRemovedOnAnother() {
+        PendingStore<String> a = nodeA.create("codes", TTL, String.class);
+        PendingStore<String> b = nodeB.create("codes", TTL, String.class);
+
+        a.put("ada@example.com", "123456");
+        assertEquals("123456", b.get("ada@example.com"));
+
+        b.put("ada@example.com", "654321");
+        assertEquals("654321", a.get("ada@example.com"));
+        assertEquals(1, a.size());
+
+        assertEquals("654321", b.remove("ada@example.com"));
+        assertNull(a.get("ada@example.com"));
+        assertNull(a.remove("ada@example.com"));
+    }
+
+    @Test
+    void concurrentRemovesOnTwoNodesClaimTheEntryOnce() throws Exception {
+        PendingStore<String> a = nodeA.create("codes", TTL, String.class);
+        PendingStore<String> b = nodeB.create("codes", TTL, String.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 50; round++) {
+                String key = "applicant" + round + "@example.com";
+                a.put(key, "code" + round);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> claims = new ArrayList<>();
+                for (PendingStore<String> node : List.of(a, b, a, b)) {
+                    claims.add(executor.submit(() -> {
+                        start.await();
+                        return node.remove(key);
+                    }));
+                }
+                start.countDown();
+                int claimed = 0;
+                for (Future<String> claim : claims) {
+                    if (claim.get() != null) claimed++;
+                }
+                assertEquals(1, claimed, key);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void storesWithDifferentNamesDoNotSeeEachOther() {
+        PendingStore<String> codes = nodeA.create("codes", TTL, String.class);
+        PendingStore<String> applications = nodeA.create("applications", TTL, String.class);
+
+        codes.put("ada@example.com", "123456");
+
+        assertNull(applications.get("ada@example.com"));
+        assertEquals(0, applications.size());
+    }
+
+    @Test
+    void offerRefusesNewKeysWhenFullButReplacesExistingOnes() {
+        PendingStore<String> store = nodeA.create("codes", TTL, String.class);
+        for (int i = 0; i < 3; i++) assertTrue(store.offer("applicant" + i + "@example.com", "code" + i));
+
+        assertFalse(store.offer("late@example.com", "code"));
+        assertTrue(store.offer("applicant0@example.com", "again"));
+        assertEquals("again", store.get("applicant0@example.com"));
+    }
+
+    @Test
+    void expiredEntriesAreHiddenAndSweptInBatches() {
+        PendingStore<String> store = nodeA.create("codes", 0, String.class);
+        for (int i = 0; i < 5; i++) store.put("applicant" + i + "@example.com", "code" + i);
+
+        assertNull(store.get("applicant0@example.com"));
+        assertEquals(5, store.size());
+
+        assertEquals(5, store.sweep(System.currentTimeMillis() + 1));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void onlyTheLeaseHolderSweeps() {
+        PendingStore<String> a = nodeA.create("codes", 0, String.class);
+        nodeB.create("codes", 0, String.class);
+
+        nodeA.sweep();
+        a.put("ada@example.com", "123456");
+
+        nodeB.sweep();
+        assertEquals(1, a.size());
+
+        nodeA.sweep();
+        assertEquals(0, a.size());
+    }
+
+    // One node: a registry on the shared database, 3 entries per store, deletes 2 rows per batch
+    private PendingStoreRegistry node() throws Exception {
+        PendingStoreRegistry registry = new PendingStoreRegistry();
+        ReflectionTestUtils.setField(registry, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(registry, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(registry, "backend", "jdbc");
+        ReflectionTestUtils.setField(registry, "maxEntries", 3);
+        ReflectionTestUtils.setField(registry, "deleteBatchSize", 2);
+        ReflectionTestUtils.setField(registry, "sweepIntervalMillis", 30_000L);
+        registry.init();
+        return registry;
+    }
+}
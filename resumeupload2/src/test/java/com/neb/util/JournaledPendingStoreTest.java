@@ -0,0 +1,88 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class JournaledPendingStoreTest {
+
+    private static final int WRITERS = 4;
+    private static final int KEYS = 500;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compactionsDuringWritesKeepTheJournalInStepWithMemory() throws Exception {
+        PendingStoreRegistry registry = registry();
+        PendingStore<String> store = registry.create("codes", 600_000, String.class);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 1);
+        try {
+            Future<?> compactor = executor.submit(() -> {
+                while (writing.get()) registry.compactJournal();
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < WRITERS; t++) {
+                int writer = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < KEYS; i++) {
+                        store.put(key(writer, i), "code" + i);
+                        if (i % 3 == 0) store.remove(key(writer, i));
+                    }
+                }));
+            }
+            for (Future<?> future : writers) future.get();
+            writing.set(false);
+            compactor.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        registry.closeJournal();
+
+        PendingStoreRegistry restarted = registry();
+        PendingStore<String> recovered = restarted.create("codes", 600_000, String.class);
+        try {
+            for (int t = 0; t < WRITERS; t++) {
+                for (int i = 0; i < KEYS; i++) {
+                    if (i % 3 == 0) {
+                        assertNull(recovered.get(key(t, i)), key(t, i));
+                    } else {
+                        assertEquals("code" + i, recovered.get(key(t, i)), key(t, i));
+                    }
+                }
+            }
+        } finally {
+            restarted.closeJournal();
+        }
+    }
+
+    private PendingStoreRegistry registry() throws Exception {
+        PendingStoreRegistry registry = new PendingStoreRegistry();
+        ReflectionTestUtils.setField(registry, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(registry, "backend", "memory");
+        ReflectionTestUtils.setField(registry, "maxEntries", WRITERS * KEYS);
+        ReflectionTestUtils.setField(registry, "journalEnabled", true);
+        ReflectionTestUtils.setField(registry, "journalPath", dir.resolve("pending.journal").toString());
+        ReflectionTestUtils.setField(registry, "journalSizeMb", 1);
+        registry.init();
+        return registry;
+    }
+
+    private static String key(int writer, int i) {
+        return "applicant" + writer + "-" + i + "@example.com";
+    }
+}
@@ -0,0 +1,78 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalResumeStorageTest extends ResumeStorageContractTest {
+
+    @TempDir
+    Path dir;
+
+    private Path root;
+    private Path tempRoot;
+    private LocalResumeStorage storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = dir.resolve("uploads");
+        tempRoot = dir.resolve("uploads_temp");
+        Files.createDirectories(root);
+        Files.writeString(dir.resolve("secret.txt"), "secret");
+        storage = new LocalResumeStorage(root, tempRoot);
+    }
+
+    @Override
+    ResumeStorage storage() {
+        return storage;
+    }
+
+    @Test
+    void keysInsideTheRootAreServed() throws Exception {
+        storage.writeTemp("upload.pdf", source("%PDF-1.7")).get();
+        storage.promote("upload.pdf", "ab/cd/abcd.pdf").get();
+
+        assertNotNull(storage.stat("ab/cd/abcd.pdf"));
+        assertEquals(root.resolve("ab/cd/abcd.pdf"), storage.localPath("ab/cd/abcd.pdf"));
+        assertNull(storage.statTemp("upload.pdf"));
+    }
+
+    @Test
+    void keysEscapingTheRootAreRefused() {
+        for (String key : new String[] { "../secret.txt", "ab/../../secret.txt", dir.resolve("secret.txt").toString(), "", "." }) {
+            assertNull(storage.stat(key), key);
+            assertThrows(IllegalArgumentException.class, () -> storage.localPath(key));
+            assertThrows(IllegalArgumentException.class, () -> storage.open(key));
+            assertThrows(IllegalArgumentException.class, () -> storage.delete(key));
+        }
+        assertTrue(Files.exists(dir.resolve("secret.txt")));
+    }
+
+    @Test
+    void tempNamesEscapingTheTempRootAreRefused() throws Exception {
+        assertNull(storage.statTemp("../secret.txt"));
+        assertThrows(IllegalArgumentException.class, () -> storage.deleteTemp("../secret.txt"));
+
+        ExecutionException write = assertThrows(ExecutionException.class,
+                () -> storage.writeTemp("../uploads/x.pdf", source("%PDF-1.7")).get());
+        assertTrue(write.getCause() instanceof IllegalArgumentException);
+        assertFalse(Files.exists(root.resolve("x.pdf")));
+
+        storage.writeTemp("upload.pdf", source("%PDF-1.7")).get();
+        ExecutionException promote = assertThrows(ExecutionException.class,
+                () -> storage.promote("upload.pdf", "../stolen.pdf").get());
+        assertTrue(promote.getCause() instanceof IllegalArgumentException);
+        assertNotNull(storage.statTemp("upload.pdf"));
+    }
+}
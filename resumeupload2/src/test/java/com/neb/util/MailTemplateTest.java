@@ -0,0 +1,71 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class MailTemplateTest {
+
+    @Test
+    void rendersSubjectAndBodyPlaceholders() {
+        MailTemplate template = MailTemplate.compile(
+                "Subject: Welcome {{firstName}}\n\nHello {{ firstName }},\nyour code is {{code}}.\n");
+        assertEquals("Welcome Ada", subject(template, "firstName", "Ada", "code", "123456"));
+        assertEquals("Hello Ada,\nyour code is 123456.", body(template, "firstName", "Ada", "code", "123456"));
+    }
+
+    @Test
+    void nullValueRendersLikeConcatenationAndMissingOneRendersEmpty() {
+        MailTemplate template = MailTemplate.compile("Subject: s\n\n[{{a}}][{{b}}]");
+        assertEquals("[null][]", body(template, "a", null));
+    }
+
+    @Test
+    void placeholdersAtTheEdgesAndBackToBack() {
+        MailTemplate template = MailTemplate.compile("Subject: {{x}}\n\n{{x}}{{y}}");
+        assertEquals("1", subject(template, "x", "1", "y", "2"));
+        assertEquals("12", body(template, "x", "1", "y", "2"));
+    }
+
+    @Test
+    void crlfSourceIsNormalised() {
+        MailTemplate template = MailTemplate.compile("Subject: s\r\n\r\nline1\r\nline2\r\n");
+        assertEquals("line1\nline2", body(template));
+    }
+
+    @Test
+    void subjectOnlyTemplateHasAnEmptyBody() {
+        MailTemplate template = MailTemplate.compile("Subject: only {{x}}");
+        assertEquals("only y", subject(template, "x", "y"));
+        assertEquals("", body(template, "x", "y"));
+    }
+
+    @Test
+    void rendersAppendToTheCallersBuffer() {
+        MailTemplate template = MailTemplate.compile("Subject: s\n\n{{x}}");
+        StringBuilder out = new StringBuilder("> ");
+        template.renderBody(out, "x", "1");
+        template.renderBody(out, "x", "2");
+        assertEquals("> 12", out.toString());
+    }
+
+    @Test
+    void rejectsMalformedSources() {
+        assertThrows(IllegalArgumentException.class, () -> MailTemplate.compile("Hello\n\nbody"));
+        assertThrows(IllegalArgumentException.class, () -> MailTemplate.compile("Subject: s\nbody without blank line"));
+        assertThrows(IllegalArgumentException.class, () -> MailTemplate.compile("Subject: s\n\nHi {{name"));
+    }
+
+    private static String subject(MailTemplate template, String... values) {
+        StringBuilder out = new StringBuilder();
+        template.renderSubject(out, values);
+        return out.toString();
+    }
+
+    private static String body(MailTemplate template, String... values) {
+        StringBuilder out = new StringBuilder();
+        template.renderBody(out, values);
+        return out.toString();
+    }
+}
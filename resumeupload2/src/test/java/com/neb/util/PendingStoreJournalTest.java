@@ -0,0 +1,113 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PendingStoreJournalTest {
+
+    private static final int SIZE = 4096;
+    private static final long NOW = 1_000_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayAppliesPutsAndRemovesInOrder() throws Exception {
+        Path file = dir.resolve("pending.journal");
+        try (PendingStoreJournal journal = new PendingStoreJournal(file, SIZE)) {
+            journal.append(PendingStoreJournal.PUT, "codes", "a@x.com", NOW + 60_000, bytes("1"), snapshot -> {});
+            journal.append(PendingStoreJournal.PUT, "codes", "b@x.com", NOW + 60_000, bytes("2"), snapshot -> {});
+            journal.append(PendingStoreJournal.PUT, "codes", "a@x.com", NOW + 60_000, bytes("3"), snapshot -> {});
+            journal.append(PendingStoreJournal.REMOVE, "codes", "b@x.com", 0, new byte[0], snapshot -> {});
+            journal.append(PendingStoreJournal.PUT, "codes", "old@x.com", NOW - 1, bytes("4"), snapshot -> {});
+        }
+        try (PendingStoreJournal journal = new PendingStoreJournal(file, SIZE)) {
+            Map<String, PendingStoreJournal.Record> codes = journal.replay(NOW).get("codes");
+            assertEquals(1, codes.size());
+            assertEquals("3", text(codes.get("a@x.com").payload()));
+            assertNull(codes.get("old@x.com"));
+        }
+    }
+
+    @Test
+    void replayStopsAtATruncatedTail() throws Exception {
+        Path file = dir.resolve("pending.journal");
+        int end;
+        try (PendingStoreJournal journal = new PendingStoreJournal(file, SIZE)) {
+            journal.append(PendingStoreJournal.PUT, "codes", "a@x.com", NOW + 60_000, bytes("1"), snapshot -> {});
+            end = used(journal);
+            journal.append(PendingStoreJournal.PUT, "codes", "b@x.com", NOW + 60_000, bytes("2"), snapshot -> {});
+        }
+        // Crash in the middle of the second record: its last body bytes never reached the file
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), end + 20);
+        }
+        try (PendingStoreJournal journal = new PendingStoreJournal(file, SIZE)) {
+            Map<String, PendingStoreJournal.Record> codes = journal.replay(NOW).get("codes");
+            assertEquals(1, codes.size());
+            assertEquals("1", text(codes.get("a@x.com").payload()));
+            assertEquals(end, used(journal), "appends continue after the last valid record");
+        }
+    }
+
+    @Test
+    void replayStopsAtARecordThatDoesNotParse() throws Exception {
+        Path file = dir.resolve("pending.journal");
+        int end;
+        try (PendingStoreJournal journal = new PendingStoreJournal(file, SIZE)) {
+            journal.append(PendingStoreJournal.PUT, "codes", "a@x.com", NOW + 60_000, bytes("1"), snapshot -> {});
+            end = used(journal);
+        }
+        // Valid checksum, but the store name claims more bytes than the record holds
+        ByteBuffer body = ByteBuffer.allocate(13);
+        body.put(PendingStoreJournal.PUT).putLong(NOW + 60_000).putShort((short) 500).putShort((short) 0);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        ByteBuffer record = ByteBuffer.allocate(8 + 13);
+        record.putInt(13).putInt((int) crc.getValue()).put(body.array()).flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(record, end);
+        }
+        try (PendingStoreJournal journal = new PendingStoreJournal(file, SIZE)) {
+            Map<String, PendingStoreJournal.Record> codes = journal.replay(NOW).get("codes");
+            assertEquals(1, codes.size());
+            assertEquals(end, used(journal));
+        }
+    }
+
+    @Test
+    void oversizeKeyIsRefusedWithoutWriting() throws Exception {
+        try (PendingStoreJournal journal = new PendingStoreJournal(dir.resolve("pending.journal"), SIZE)) {
+            String key = "k".repeat(PendingStoreJournal.MAX_STRING_BYTES + 1);
+            assertThrows(IllegalArgumentException.class, () ->
+                    journal.append(PendingStoreJournal.PUT, "codes", key, NOW + 60_000, bytes("1"), snapshot -> {}));
+            assertEquals(0, used(journal));
+            assertTrue(journal.replay(NOW).isEmpty());
+        }
+    }
+
+    private static int used(PendingStoreJournal journal) {
+        return (Integer) journal.metrics().get("usedBytes");
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] b) {
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,140 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResumeIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tokenizeKeepsLanguageNamesAndLowerCases() {
+        assertEquals(List.of("c++", "and", "c#", "developer", "spring", "boot", "2024"),
+                ResumeIndex.tokenize("C++ and C# Developer, Spring-Boot (2024)"));
+    }
+
+    @Test
+    void rarerTermsOutweighCommonOnes() {
+        ResumeIndex index = new ResumeIndex();
+        index.put("career:1", "java spring hibernate");
+        index.put("career:2", "java spring kubernetes");
+        index.put("career:3", "java spring cobol");
+
+        List<ResumeIndex.Hit> hits = index.search("java cobol", 10);
+
+        assertEquals(3, hits.size());
+        assertEquals("career:3", hits.get(0).key());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+        // The other two only share the common terms and tie
+        assertEquals(hits.get(1).score(), hits.get(2).score(), 1e-6);
+        assertEquals(Set.of("career:1", "career:2"), Set.copyOf(keys(hits.subList(1, 3))));
+    }
+
+    @Test
+    void shorterDocumentsAndMoreOccurrencesRankHigher() {
+        ResumeIndex index = new ResumeIndex();
+        index.put("career:short", "python developer");
+        index.put("career:long", "python developer with experience in finance retail logistics and teaching");
+        index.put("career:often", "python python python developer");
+        index.put("career:other", "cobol");
+
+        assertEquals(List.of("career:often", "career:short", "career:long"), keys(index.search("python", 10)));
+    }
+
+    @Test
+    void topKKeepsTheBestDocumentsInOrder() {
+        ResumeIndex index = new ResumeIndex();
+        // Equal lengths; document i mentions java i times, so the score grows with i
+        for (int i = 1; i <= 50; i++) {
+            index.put("career:" + i, "java ".repeat(i) + "filler ".repeat(50 - i));
+        }
+
+        assertEquals(List.of("career:50", "career:49", "career:48", "career:47", "career:46"), keys(index.search("java", 5)));
+        assertEquals(50, index.search("java", 100).size());
+        assertTrue(index.search("java", 0).isEmpty());
+        assertTrue(index.search("rust", 5).isEmpty());
+        assertTrue(index.search("  ", 5).isEmpty());
+    }
+
+    @Test
+    void reindexingReplacesTheOldTextAndRemoveDropsIt() {
+        ResumeIndex index = new ResumeIndex();
+        index.put("career:1", "java developer");
+        index.put("career:1", "python developer");
+
+        assertTrue(index.search("java", 10).isEmpty());
+        assertEquals(List.of("career:1"), keys(index.search("python", 10)));
+        assertEquals(1, index.metrics().get("documents"));
+        assertEquals(1, index.metrics().get("deletedDocuments"));
+
+        index.remove("career:1");
+        assertFalse(index.contains("career:1"));
+        assertTrue(index.search("python developer", 10).isEmpty());
+        assertEquals(0, index.metrics().get("documents"));
+    }
+
+    @Test
+    void savedIndexLoadsWithTheSameRanking() throws IOException {
+        ResumeIndex index = new ResumeIndex();
+        // Over 128 documents and frequencies so deltas and frequencies need multi-byte varints
+        index.put("career:0", "kotlin " + "android ".repeat(300));
+        for (int i = 1; i < 300; i++) index.put("developer:" + i, "java spring microservices batch" + i);
+        index.put("cloud-developer:1", "kotlin aws");
+        Path file = dir.resolve("index/resumes.idx");
+
+        index.save(file);
+        assertFalse(index.isDirty());
+        ResumeIndex loaded = ResumeIndex.load(file);
+
+        assertFalse(loaded.isDirty());
+        assertEquals(index.metrics(), loaded.metrics());
+        for (String query : List.of("kotlin", "android", "java batch7", "microservices kotlin")) {
+            assertEquals(index.search(query, 20), loaded.search(query, 20), query);
+        }
+        assertTrue(loaded.contains("developer:299"));
+    }
+
+    @Test
+    void saveDropsDeletedDocuments() throws IOException {
+        ResumeIndex index = new ResumeIndex();
+        index.put("career:1", "java");
+        index.put("career:2", "java");
+        index.put("career:2", "python");
+        index.remove("career:1");
+        assertTrue(index.isDirty());
+        Path file = dir.resolve("resumes.idx");
+
+        index.save(file);
+        ResumeIndex loaded = ResumeIndex.load(file);
+
+        assertEquals(0, loaded.metrics().get("deletedDocuments"));
+        assertEquals(1, loaded.metrics().get("documents"));
+        assertTrue(loaded.search("java", 10).isEmpty());
+        assertEquals(List.of("career:2"), keys(loaded.search("python", 10)));
+        assertFalse(Files.exists(dir.resolve("resumes.idx.tmp")));
+    }
+
+    @Test
+    void fileThatIsNoIndexIsRefused() throws IOException {
+        Path file = dir.resolve("resumes.idx");
+        Files.writeString(file, "not an index");
+
+        assertThrows(IOException.class, () -> ResumeIndex.load(file));
+    }
+
+    private static List<String> keys(List<ResumeIndex.Hit> hits) {
+        return hits.stream().map(ResumeIndex.Hit::key).toList();
+    }
+}
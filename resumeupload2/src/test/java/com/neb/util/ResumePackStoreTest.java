@@ -0,0 +1,129 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResumePackStoreTest {
+
+    // Two 100-byte records (45-byte header each) fit into one segment, a third rolls over
+    private static final long SEGMENT_SIZE = 300;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void packedResumesSurviveReopening() throws Exception {
+        Path packs = dir.resolve("packs");
+        String a = sha("a");
+        try (ResumePackStore store = new ResumePackStore(packs, SEGMENT_SIZE)) {
+            store.append(a, file("a"));
+        }
+        try (ResumePackStore store = new ResumePackStore(packs, SEGMENT_SIZE)) {
+            assertEquals(content("a"), text(store.read(a)));
+        }
+    }
+
+    @Test
+    void tombstoneOfARepackedResumeIsNotCarriedPastIt() throws Exception {
+        Path packs = dir.resolve("packs");
+        String x = sha("x");
+        String f1 = sha("f1");
+        String f2 = sha("f2");
+        try (ResumePackStore store = new ResumePackStore(packs, SEGMENT_SIZE)) {
+            store.append(x, file("x"));   // segment 1
+            store.append(f1, file("f1")); // segment 1
+            store.append(f2, file("f2")); // segment 2
+            store.delete(x);              // tombstone in segment 2
+            store.append(x, file("x"));   // uploaded again: segment 3
+            store.delete(f2);             // segment 2 holds nothing live now
+
+            assertEquals(1, store.compact(0.3));
+            assertNull(store.locate(f2));
+            assertEquals(3, store.locate(x).segment());
+        }
+        try (ResumePackStore store = new ResumePackStore(packs, SEGMENT_SIZE)) {
+            assertNotNull(store.locate(x), "re-packed resume was deleted by a carried tombstone");
+            assertEquals(content("x"), text(store.read(x)));
+            assertEquals(content("f1"), text(store.read(f1)));
+            assertNull(store.locate(f2));
+        }
+    }
+
+    @Test
+    void tombstoneIsCarriedWhileTheDeletedRecordSitsInAnOlderSegment() throws Exception {
+        Path packs = dir.resolve("packs");
+        String a = sha("a");
+        String b = sha("b");
+        String c = sha("c");
+        String d = sha("d");
+        try (ResumePackStore store = new ResumePackStore(packs, SEGMENT_SIZE)) {
+            store.append(a, file("a")); // segment 1
+            store.append(b, file("b")); // segment 1
+            store.append(c, file("c")); // segment 2
+            store.delete(a);            // tombstone in segment 2
+            store.append(d, file("d")); // segment 3
+            store.delete(c);            // segment 2 holds nothing live now
+
+            // Segment 1 is still a third live and stays; segment 2 is rewritten
+            assertEquals(1, store.compact(0.3));
+        }
+        try (ResumePackStore store = new ResumePackStore(packs, SEGMENT_SIZE)) {
+            assertNull(store.locate(a), "deleted resume came back from the oldest segment");
+            assertNull(store.locate(c));
+            assertEquals(content("b"), text(store.read(b)));
+            assertEquals(content("d"), text(store.read(d)));
+        }
+    }
+
+    @Test
+    void tornRecordAtTheEndIsCutOff() throws Exception {
+        Path packs = dir.resolve("packs");
+        String a = sha("a");
+        try (ResumePackStore store = new ResumePackStore(packs, SEGMENT_SIZE)) {
+            store.append(a, file("a"));
+        }
+        Path segment = packs.resolve("segment-000001.pack");
+        long intact = Files.size(segment);
+        Files.write(segment, new byte[] { 0x52, 0x50, 0x4B, 0x31, 1, 7 }, StandardOpenOption.APPEND);
+
+        try (ResumePackStore store = new ResumePackStore(packs, SEGMENT_SIZE)) {
+            assertEquals(intact, Files.size(segment));
+            assertEquals(content("a"), text(store.read(a)));
+            String b = sha("b");
+            store.append(b, file("b"));
+            assertEquals(content("b"), text(store.read(b)));
+        }
+    }
+
+    // 100 bytes of content per name
+    private static String content(String name) {
+        return (name + ":").repeat(100).substring(0, 100);
+    }
+
+    private Path file(String name) throws Exception {
+        Path file = dir.resolve(name + ".pdf");
+        Files.writeString(file, content(name), StandardCharsets.US_ASCII);
+        return file;
+    }
+
+    private static String sha(String name) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(content(name).getBytes(StandardCharsets.US_ASCII));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private static String text(ByteBuffer buffer) {
+        return StandardCharsets.US_ASCII.decode(buffer).toString();
+    }
+}
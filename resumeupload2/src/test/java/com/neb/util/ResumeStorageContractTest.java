@@ -0,0 +1,153 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Behaviour every {@link ResumeStorage} backend has to share; each backend test
+ * extends this class and supplies its storage.
+ */
+abstract class ResumeStorageContractTest {
+
+    abstract ResumeStorage storage();
+
+    @Test
+    void promotedUploadIsReadableUnderItsKey() throws Exception {
+        assertEquals(Long.valueOf(13), storage().writeTemp("upload.pdf", source("%PDF-1.7 body")).get());
+        assertEquals(13L, storage().statTemp("upload.pdf").size());
+
+        storage().promote("upload.pdf", "ab/cd/abcd.pdf").get();
+
+        assertNull(storage().statTemp("upload.pdf"));
+        ResumeStorage.ObjectInfo info = storage().stat("ab/cd/abcd.pdf");
+        assertNotNull(info);
+        assertEquals(13L, info.size());
+        assertTrue(info.lastModified() > 0);
+        assertEquals("%PDF-1.7 body", read("ab/cd/abcd.pdf"));
+    }
+
+    @Test
+    void promoteReplacesAnExistingObject() throws Exception {
+        storage().writeTemp("first.pdf", source("%PDF-1.7 first")).get();
+        storage().promote("first.pdf", "resume.pdf").get();
+        storage().writeTemp("second.pdf", source("%PDF-1.7 second")).get();
+        storage().promote("second.pdf", "resume.pdf").get();
+
+        assertEquals("%PDF-1.7 second", read("resume.pdf"));
+    }
+
+    @Test
+    void promotingAMissingUploadFails() {
+        assertThrows(ExecutionException.class, () -> storage().promote("missing.pdf", "resume.pdf").get());
+        assertNull(storage().stat("resume.pdf"));
+    }
+
+    @Test
+    void moveRenamesAPermanentObject() throws Exception {
+        storage().writeTemp("upload.pdf", source("%PDF-1.7")).get();
+        storage().promote("upload.pdf", "old name.pdf").get();
+
+        storage().move("old name.pdf", "ab/cd/new.pdf");
+
+        assertNull(storage().stat("old name.pdf"));
+        assertEquals("%PDF-1.7", read("ab/cd/new.pdf"));
+        assertThrows(IOException.class, () -> storage().move("old name.pdf", "other.pdf"));
+    }
+
+    @Test
+    void missingObjectsAreNullOrFail() {
+        assertNull(storage().stat("missing.pdf"));
+        assertNull(storage().statTemp("missing.pdf"));
+        assertThrows(IOException.class, () -> storage().open("missing.pdf"));
+    }
+
+    @Test
+    void deleteReportsWhetherTheObjectExisted() throws Exception {
+        storage().writeTemp("a.pdf", source("%PDF-1.7")).get();
+        storage().writeTemp("b.pdf", source("%PDF-1.7")).get();
+        storage().promote("b.pdf", "b.pdf").get();
+
+        assertTrue(storage().deleteTemp("a.pdf"));
+        assertFalse(storage().deleteTemp("a.pdf"));
+        assertTrue(storage().delete("b.pdf"));
+        assertFalse(storage().delete("b.pdf"));
+        assertNull(storage().stat("b.pdf"));
+    }
+
+    @Test
+    void listingsSeparateTempAndTopLevelObjects() throws Exception {
+        for (String name : new String[] { "a.pdf", "b.pdf", "c.pdf", "d.pdf" }) {
+            storage().writeTemp(name, source("%PDF-1.7")).get();
+        }
+        storage().promote("a.pdf", "flat-a.pdf").get();
+        storage().promote("b.pdf", "flat-b.pdf").get();
+        storage().promote("c.pdf", "ab/cd/sharded.pdf").get();
+
+        assertEquals(Set.of("d.pdf"), names(storage().listTemp()));
+        assertEquals(Set.of("flat-a.pdf", "flat-b.pdf"), names(storage().listTopLevel()));
+    }
+
+    @Test
+    void failedWriteLeavesNothingBehind() {
+        ReadableByteChannel broken = new ReadableByteChannel() {
+            private boolean sent;
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                if (sent) throw new IOException("Connection reset by client");
+                sent = true;
+                dst.put("%PDF-1.7".getBytes(StandardCharsets.US_ASCII));
+                return 8;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThrows(ExecutionException.class, () -> storage().writeTemp("upload.pdf", broken).get());
+        assertNull(storage().statTemp("upload.pdf"));
+    }
+
+    String read(String key) throws IOException {
+        try (InputStream in = Channels.newInputStream(storage().open(key))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    static ReadableByteChannel source(String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Set<String> names(List<ResumeStorage.ObjectInfo> objects) {
+        Set<String> names = new TreeSet<>();
+        for (ResumeStorage.ObjectInfo info : objects) names.add(info.name());
+        return names;
+    }
+}
@@ -0,0 +1,283 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The S3 backend against a local stand-in that keeps objects in memory, pages
+ * listings two keys at a time and checks the SigV4 signature of every request.
+ */
+class S3ResumeStorageTest extends ResumeStorageContractTest {
+
+    private static final String BUCKET = "resumes";
+    private static final String REGION = "eu-west-1";
+    private static final String ACCESS_KEY = "test-access";
+    private static final String SECRET_KEY = "test-secret";
+
+    private FakeS3 s3;
+    private S3ResumeStorage storage;
+
+    @BeforeEach
+    void start() throws IOException {
+        s3 = new FakeS3();
+        storage = new S3ResumeStorage("http://127.0.0.1:" + s3.port() + "/", BUCKET, REGION, ACCESS_KEY, SECRET_KEY);
+    }
+
+    @AfterEach
+    void stop() {
+        s3.close();
+        assertEquals(List.of(), s3.badSignatures);
+    }
+
+    @Override
+    ResumeStorage storage() {
+        return storage;
+    }
+
+    @Test
+    void uploadsAreKeptUnderTheTempPrefix() throws Exception {
+        storage.writeTemp("upload.pdf", source("%PDF-1.7")).get();
+
+        assertTrue(s3.objects.containsKey("tmp/upload.pdf"));
+    }
+
+    @Test
+    void listingsFollowContinuationTokens() throws Exception {
+        Set<String> expected = new TreeSet<>();
+        for (int i = 0; i < 5; i++) {
+            storage.writeTemp("upload" + i + ".pdf", source("%PDF-1.7")).get();
+            expected.add("upload" + i + ".pdf");
+        }
+
+        Set<String> listed = new TreeSet<>();
+        for (ResumeStorage.ObjectInfo info : storage.listTemp()) listed.add(info.name());
+
+        assertEquals(expected, listed);
+    }
+
+    @Test
+    void wrongSecretIsRefused() {
+        S3ResumeStorage wrong = new S3ResumeStorage("http://127.0.0.1:" + s3.port(), BUCKET, REGION, ACCESS_KEY, "other");
+
+        assertNull(wrong.stat("resume.pdf"));
+        assertTrue(s3.badSignatures.remove("HEAD /" + BUCKET + "/resume.pdf"));
+    }
+
+    /** Path-style S3 subset used by {@link S3ResumeStorage} */
+    private static final class FakeS3 {
+
+        private static final int PAGE = 2;
+        private static final Pattern CREDENTIAL = Pattern.compile(
+                "AWS4-HMAC-SHA256 Credential=([^/]+)/(\\d{8})/([^/]+)/s3/aws4_request, SignedHeaders=([^,]+), Signature=([0-9a-f]{64})");
+
+        private record Stored(byte[] data, Instant lastModified) {}
+
+        final Map<String, Stored> objects = new ConcurrentSkipListMap<>();
+        final List<String> badSignatures = new CopyOnWriteArrayList<>();
+        private final HttpServer server;
+
+        FakeS3() throws IOException {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        void close() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            try {
+                byte[] body = exchange.getRequestBody().readAllBytes();
+                String method = exchange.getRequestMethod();
+                String rawPath = exchange.getRequestURI().getRawPath();
+                if (!signatureMatches(exchange, body)) {
+                    badSignatures.add(method + " " + rawPath);
+                    reply(exchange, 403, "<Error><Code>SignatureDoesNotMatch</Code></Error>");
+                    return;
+                }
+                String prefix = "/" + BUCKET;
+                String key = rawPath.length() > prefix.length() + 1 ? decode(rawPath.substring(prefix.length() + 1)) : "";
+                String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+                Stored object = objects.get(key);
+                switch (method) {
+                    case "PUT" -> {
+                        if (copySource == null) {
+                            objects.put(key, new Stored(body, Instant.now()));
+                            reply(exchange, 200, "");
+                            return;
+                        }
+                        Stored source = objects.get(decode(copySource.substring(prefix.length() + 1)));
+                        if (source == null) {
+                            reply(exchange, 404, "<Error><Code>NoSuchKey</Code></Error>");
+                            return;
+                        }
+                        objects.put(key, new Stored(source.data(), Instant.now()));
+                        reply(exchange, 200, "<CopyObjectResult/>");
+                    }
+                    case "DELETE" -> {
+                        objects.remove(key);
+                        exchange.sendResponseHeaders(204, -1);
+                    }
+                    case "HEAD" -> {
+                        if (object == null) {
+                            exchange.sendResponseHeaders(404, -1);
+                            return;
+                        }
+                        exchange.getResponseHeaders().set("Last-Modified",
+                                DateTimeFormatter.RFC_1123_DATE_TIME.format(object.lastModified().atZone(ZoneOffset.UTC)));
+                        // Set by hand: the JDK server answers HEAD with a zero Content-Length otherwise
+                        exchange.getResponseHeaders().set("Content-Length", Integer.toString(object.data().length));
+                        exchange.sendResponseHeaders(200, -1);
+                    }
+                    case "GET" -> {
+                        if (key.isEmpty()) {
+                            reply(exchange, 200, list(query(exchange.getRequestURI().getRawQuery())));
+                        } else if (object == null) {
+                            reply(exchange, 404, "<Error><Code>NoSuchKey</Code></Error>");
+                        } else {
+                            exchange.sendResponseHeaders(200, object.data().length);
+                            exchange.getResponseBody().write(object.data());
+                        }
+                    }
+                    default -> exchange.sendResponseHeaders(405, -1);
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+
+        // ListObjectsV2: keys after the continuation token, PAGE at a time
+        private String list(Map<String, String> query) {
+            String prefix = query.getOrDefault("prefix", "");
+            String delimiter = query.get("delimiter");
+            String after = query.get("continuation-token");
+            List<String> keys = new ArrayList<>();
+            for (String key : objects.keySet()) {
+                if (!key.startsWith(prefix) || (after != null && key.compareTo(after) <= 0)) continue;
+                if (delimiter != null && key.indexOf(delimiter, prefix.length()) >= 0) continue;
+                keys.add(key);
+            }
+            StringBuilder xml = new StringBuilder("<ListBucketResult>");
+            for (String key : keys.subList(0, Math.min(PAGE, keys.size()))) {
+                Stored object = objects.get(key);
+                xml.append("<Contents><Key>").append(key).append("</Key><LastModified>").append(object.lastModified())
+                        .append("</LastModified><Size>").append(object.data().length).append("</Size></Contents>");
+            }
+            if (keys.size() > PAGE) {
+                xml.append("<NextContinuationToken>").append(keys.get(PAGE - 1)).append("</NextContinuationToken>");
+            }
+            return xml.append("</ListBucketResult>").toString();
+        }
+
+        // Recomputes the SigV4 signature from the request as it arrived
+        private boolean signatureMatches(HttpExchange exchange, byte[] body) {
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            Matcher m = authorization == null ? null : CREDENTIAL.matcher(authorization);
+            if (m == null || !m.matches() || !m.group(1).equals(ACCESS_KEY) || !m.group(3).equals(REGION)) return false;
+            String payloadHash = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+            if (!hex(sha256(body)).equals(payloadHash)) return false;
+
+            StringBuilder canonicalHeaders = new StringBuilder();
+            for (String name : m.group(4).split(";")) {
+                String value = exchange.getRequestHeaders().getFirst(name);
+                if (value == null) return false;
+                canonicalHeaders.append(name).append(':').append(value.trim()).append('\n');
+            }
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            String[] params = rawQuery == null ? new String[0] : rawQuery.split("&");
+            Arrays.sort(params);
+            String canonicalRequest = exchange.getRequestMethod() + "\n" + exchange.getRequestURI().getRawPath() + "\n"
+                    + String.join("&", params) + "\n" + canonicalHeaders + "\n" + m.group(4) + "\n" + payloadHash;
+            String scope = m.group(2) + "/" + REGION + "/s3/aws4_request";
+            String stringToSign = "AWS4-HMAC-SHA256\n" + exchange.getRequestHeaders().getFirst("x-amz-date") + "\n" + scope + "\n"
+                    + hex(sha256(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+            byte[] key = hmac(("AWS4" + SECRET_KEY).getBytes(StandardCharsets.UTF_8), m.group(2));
+            for (String part : new String[] { REGION, "s3", "aws4_request" }) key = hmac(key, part);
+            return hex(hmac(key, stringToSign)).equals(m.group(5));
+        }
+
+        private static Map<String, String> query(String rawQuery) {
+            Map<String, String> query = new TreeMap<>();
+            if (rawQuery == null) return query;
+            for (String param : rawQuery.split("&")) {
+                int eq = param.indexOf('=');
+                query.put(decode(param.substring(0, eq)), decode(param.substring(eq + 1)));
+            }
+            return query;
+        }
+
+        private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = "HEAD".equals(exchange.getRequestMethod()) ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+
+        private static String decode(String value) {
+            return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+        }
+
+        private static String hex(byte[] bytes) {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : bytes) hex.append(String.format("%02x", b));
+            return hex.toString();
+        }
+
+        private static byte[] sha256(byte[] data) {
+            try {
+                return MessageDigest.getInstance("SHA-256").digest(data);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static byte[] hmac(byte[] key, String data) {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(key, "HmacSHA256"));
+                return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import jakarta.mail.MessagingException;
+
+/**
+ * The reused SMTP session against a local fake server that can drop the connection
+ * at chosen points.
+ */
+class SmtpSessionTest {
+
+    private static final long NEVER = TimeUnit.HOURS.toNanos(1);
+
+    private FakeSmtpServer server;
+    private final AtomicLong connects = new AtomicLong();
+
+    @AfterEach
+    void stop() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void mailsSentBackToBackAreNotProbed() throws Exception {
+        server = new FakeSmtpServer(Drop.NEVER);
+        try (SmtpSession session = session(NEVER)) {
+            for (int i = 0; i < 3; i++) session.send(message());
+        }
+
+        assertEquals(3, server.delivered.get());
+        assertEquals(0, server.noops.get());
+        assertEquals(1, connects.get());
+    }
+
+    @Test
+    void idleConnectionIsProbedAndReplaced() throws Exception {
+        server = new FakeSmtpServer(Drop.AFTER_EACH_MAIL);
+        try (SmtpSession session = session(0)) {
+            session.send(message());
+            session.send(message());
+        }
+
+        assertEquals(2, server.delivered.get());
+        assertEquals(2, connects.get());
+    }
+
+    @Test
+    void mailIsResentWhenTheConnectionDroppedBeforeData() throws Exception {
+        server = new FakeSmtpServer(Drop.AFTER_EACH_MAIL);
+        try (SmtpSession session = session(NEVER)) {
+            session.send(message());
+            // Not probed: MAIL FROM hits the dropped connection, nothing was handed over
+            session.send(message());
+        }
+
+        assertEquals(2, server.delivered.get());
+        assertEquals(2, connects.get());
+    }
+
+    @Test
+    void mailIsNotResentWhenTheConnectionDroppedAfterData() throws Exception {
+        server = new FakeSmtpServer(Drop.BEFORE_DATA_REPLY);
+        try (SmtpSession session = session(NEVER)) {
+            assertThrows(MessagingException.class, () -> session.send(message()));
+        }
+
+        // The server got the whole message once; a resend would have made it two
+        assertEquals(1, server.received.get());
+        assertEquals(1, connects.get());
+    }
+
+    private SmtpSession session(long checkAfterIdleNanos) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.port());
+        return new SmtpSession(mailSender, connects, checkAfterIdleNanos);
+    }
+
+    private static SimpleMailMessage message() {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("hr@example.com");
+        message.setTo("applicant@example.com");
+        message.setSubject("Verify your email");
+        message.setText("Your verification code is 123456.");
+        return message;
+    }
+
+    /** Where the fake server drops the connection */
+    enum Drop { NEVER, AFTER_EACH_MAIL, BEFORE_DATA_REPLY }
+
+    /** Minimal SMTP server counting NOOPs, received and acknowledged messages */
+    static final class FakeSmtpServer implements Closeable {
+
+        final AtomicInteger noops = new AtomicInteger();
+        final AtomicInteger received = new AtomicInteger();
+        final AtomicInteger delivered = new AtomicInteger();
+
+        private final ServerSocket socket;
+        private final Drop drop;
+        private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-smtp");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        FakeSmtpServer(Drop drop) throws IOException {
+            this.drop = drop;
+            socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            connections.execute(this::accept);
+        }
+
+        int port() {
+            return socket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!socket.isClosed()) {
+                try {
+                    Socket client = socket.accept();
+                    connections.execute(() -> serve(client));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket client) {
+            try (client;
+                    BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                    OutputStream out = client.getOutputStream()) {
+                reply(out, "220 localhost fake ESMTP");
+                for (String line; (line = in.readLine()) != null; ) {
+                    String command = line.length() < 4 ? line : line.substring(0, 4).toUpperCase();
+                    switch (command) {
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            for (String data; (data = in.readLine()) != null && !data.equals("."); ) {
+                                // discard the message
+                            }
+                            received.incrementAndGet();
+                            if (drop == Drop.BEFORE_DATA_REPLY) return;
+                            reply(out, "250 OK queued");
+                            delivered.incrementAndGet();
+                            if (drop == Drop.AFTER_EACH_MAIL) return;
+                        }
+                        case "NOOP" -> {
+                            noops.incrementAndGet();
+                            reply(out, "250 OK");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // client went away or server is closing
+            }
+        }
+
+        private static void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+            connections.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private static final long T0 = 1_000_000_000_000L;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsABurstOfCapacityThenThrottles() {
+        TokenBucket bucket = new TokenBucket(3, 60, T0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(T0), "token " + i);
+        }
+        long wait = bucket.tryAcquire(T0);
+        assertTrue(wait > 0);
+        assertTrue(wait <= SECOND, "one token refills per second at 60/min");
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(1, 60, T0);
+        assertEquals(0, bucket.tryAcquire(T0));
+        assertTrue(bucket.tryAcquire(T0 + SECOND / 2) > 0);
+        assertEquals(0, bucket.tryAcquire(T0 + SECOND));
+    }
+
+    @Test
+    void refusedRequestsDoNotUseUpTokens() {
+        TokenBucket bucket = new TokenBucket(1, 60, T0);
+        assertEquals(0, bucket.tryAcquire(T0));
+        for (int i = 0; i < 100; i++) assertTrue(bucket.tryAcquire(T0) > 0);
+        assertEquals(0, bucket.tryAcquire(T0 + SECOND));
+    }
+
+    @Test
+    void waitNanosLooksWithoutTaking() {
+        TokenBucket bucket = new TokenBucket(1, 60, T0);
+        assertEquals(0, bucket.waitNanos(T0));
+        assertEquals(0, bucket.waitNanos(T0));
+        assertEquals(0, bucket.tryAcquire(T0));
+        assertEquals(bucket.tryAcquire(T0), bucket.waitNanos(T0));
+    }
+
+    @Test
+    void isIdleOnceRefilledCompletely() {
+        TokenBucket bucket = new TokenBucket(2, 60, T0);
+        assertTrue(bucket.isIdle(T0));
+        bucket.tryAcquire(T0);
+        bucket.tryAcquire(T0);
+        assertFalse(bucket.isIdle(T0 + SECOND));
+        assertTrue(bucket.isIdle(T0 + 2 * SECOND));
+    }
+
+    @Test
+    void concurrentCallersNeverGetMoreThanTheCapacity() throws Exception {
+        int capacity = 500;
+        TokenBucket bucket = new TokenBucket(capacity, 1, T0);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(T0) == 0) admitted.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        assertEquals(capacity, admitted.get());
+    }
+}
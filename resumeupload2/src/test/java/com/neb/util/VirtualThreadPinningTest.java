@@ -0,0 +1,144 @@
+package com.neb.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Runs the blocking parts of the apply path on many contending virtual threads and
+ * fails if any of them parks while pinned to its carrier (JFR jdk.VirtualThreadPinned,
+ * the event behind -Djdk.tracePinnedThreads).
+ */
+class VirtualThreadPinningTest {
+
+    private static final int THREADS = 200;
+
+    @TempDir
+    Path dir;
+
+    @FunctionalInterface
+    interface Task {
+        void run(int i) throws Exception;
+    }
+
+    @Test
+    void detectsParkingInsideSynchronized() throws Exception {
+        // Monitors no longer pin from JDK 24 on (JEP 491)
+        assumeTrue(Runtime.version().feature() < 24);
+        Object monitor = new Object();
+        List<String> pinned = pinnedWhile(4, i -> {
+            synchronized (monitor) {
+                Thread.sleep(5);
+            }
+        });
+        assertFalse(pinned.isEmpty());
+    }
+
+    @Test
+    void stageLimiterWaitsWithoutPinning() throws Exception {
+        StageLimiter stage = new StageLimiter("store", 4, THREADS, 10_000, 5);
+        assertNotPinned(pinnedWhile(THREADS, i -> {
+            try (StageLimiter.Permit permit = stage.enter()) {
+                Thread.sleep(1);
+            }
+        }));
+    }
+
+    @Test
+    void journalAppendsWithoutPinning() throws Exception {
+        try (PendingStoreJournal journal = new PendingStoreJournal(dir.resolve("pending.journal"), 4096)) {
+            InMemoryPendingStore<String> store = new InMemoryPendingStore<>("codes", 60_000, THREADS);
+            JournaledPendingStore<String> journaled = new JournaledPendingStore<>(store, journal, 60_000,
+                    value -> value.getBytes(StandardCharsets.UTF_8), new PendingStoreRegistry());
+            assertNotPinned(pinnedWhile(THREADS, i -> {
+                String key = "applicant" + i + "@example.com";
+                journaled.offer(key, "123456");
+                journaled.get(key);
+                journaled.remove(key);
+            }));
+        }
+    }
+
+    @Test
+    void rateLimitBucketsWithoutPinning() throws Exception {
+        TokenBucket bucket = new TokenBucket(THREADS, 60, System.nanoTime());
+        assertNotPinned(pinnedWhile(THREADS, i -> {
+            bucket.tryAcquire(System.nanoTime());
+            bucket.waitNanos(System.nanoTime());
+        }));
+    }
+
+    @Test
+    void resumeIngestWithoutPinning() throws Exception {
+        ResumeIngestor ingestor = new ResumeIngestor();
+        ReflectionTestUtils.setField(ingestor, "maxSize", DataSize.ofMegabytes(10));
+        ReflectionTestUtils.setField(ingestor, "resumeStorage",
+                new LocalResumeStorage(dir.resolve("uploads"), dir.resolve("uploads_temp")));
+        byte[] content = new byte[256 * 1024];
+        System.arraycopy("%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII), 0, content, 0, 9);
+        assertNotPinned(pinnedWhile(THREADS, i -> {
+            MockMultipartFile file = new MockMultipartFile("resume", "resume" + i + ".pdf", "application/pdf", content);
+            ResumeIngestor.IngestedResume resume = ingestor.ingest(file);
+            ingestor.deleteTemp(resume.fileName());
+        }));
+    }
+
+    private static void assertNotPinned(List<String> pinned) {
+        assertTrue(pinned.isEmpty(), () -> "Carrier pinned at:\n" + String.join("\n", pinned));
+    }
+
+    // Runs the task on 'count' virtual threads at once and returns where they parked while pinned
+    private static List<String> pinnedWhile(int count, Task task) throws Exception {
+        List<String> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.add(describe(event)));
+            recording.startAsync();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    int n = i;
+                    futures.add(executor.submit(() -> {
+                        task.run(n);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) future.get();
+            }
+            // Waits until the events recorded so far are consumed
+            recording.stop();
+        }
+        return pinned;
+    }
+
+    private static String describe(RecordedEvent event) {
+        if (event.getStackTrace() == null) return "(no stack trace)";
+        StringBuilder trace = new StringBuilder();
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            trace.append("    ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber()).append('\n');
+        }
+        return trace.toString();
+    }
+}